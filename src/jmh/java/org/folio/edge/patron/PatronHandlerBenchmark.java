@@ -0,0 +1,75 @@
+package org.folio.edge.patron;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The request and error body rewriting {@link PatronHandler} does on every
+ * hold request and error response.  Lives in the handler's package since
+ * these helpers aren't public.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatronHandlerBenchmark {
+
+  private JsonObject holdRequest;
+  private JsonObject holdRequestBadExpiration;
+  private String validationErrors;
+
+  @Setup
+  public void setUp() {
+    holdRequest = new JsonObject()
+      .put("item", new JsonObject().put("itemId", UUID.randomUUID().toString()))
+      .put("pickupLocationId", UUID.randomUUID().toString())
+      .put("expirationDate", "2030-01-01T00:00:00.000+0000");
+    holdRequestBadExpiration = holdRequest.copy()
+      .put("expirationDate", "not a date");
+    validationErrors = new JsonObject()
+      .put("errors", new JsonArray()
+        .add(new JsonObject()
+          .put("message", "Item is not loanable")
+          .put("code", "ITEM_NOT_LOANABLE")
+          .put("parameters", new JsonArray()
+            .add(new JsonObject().put("key", "itemId").put("value", UUID.randomUUID().toString())))))
+      .encode();
+  }
+
+  /** A hold request with a valid expiration date; the body is copied since checkDates modifies it. */
+  @Benchmark
+  public String checkDates() {
+    return PatronHandler.checkDates(holdRequest.copy());
+  }
+
+  /** A hold request whose expiration date fails to parse and is dropped. */
+  @Benchmark
+  public String checkDatesInvalidExpiration() {
+    return PatronHandler.checkDates(holdRequestBadExpiration.copy());
+  }
+
+  @Benchmark
+  public String structuredErrorMessage() {
+    return PatronHandler.getStructuredErrorMessage(404, "Unable to find patron");
+  }
+
+  /** A 422 response of mod-patron, decoded to pick its first error. */
+  @Benchmark
+  public String validationErrorMessage() {
+    return PatronHandler.getErrorMessage(422, validationErrors);
+  }
+}
@@ -0,0 +1,89 @@
+package org.folio.edge.patron.benchmark;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.folio.edge.core.utils.OkapiClientFactory;
+import org.folio.edge.core.utils.test.TestUtils;
+import org.folio.edge.patron.cache.HoldRequestCache;
+import org.folio.edge.patron.utils.PatronMockOkapi;
+import org.folio.edge.patron.utils.PatronOkapiClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency distribution (p50, p99, ...) of cancelling a hold against
+ * {@link PatronMockOkapi}: fetching the request record first versus taking it
+ * from the {@link HoldRequestCache}, as filled from account responses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CancelHoldBenchmark {
+
+  private static final String TENANT = "diku";
+
+  private Vertx vertx;
+  private PatronMockOkapi mockOkapi;
+  private PatronOkapiClient client;
+  private HoldRequestCache requestCache;
+  private JsonObject request;
+  private JsonObject cancellation;
+  private final String patronId = UUID.randomUUID().toString();
+
+  @Setup
+  public void setUp() throws Exception {
+    int port = TestUtils.getPort();
+    mockOkapi = new PatronMockOkapi(port, List.of(TENANT));
+    mockOkapi.start().toCompletionStage().toCompletableFuture().get();
+
+    vertx = Vertx.vertx();
+    client = new PatronOkapiClient(new OkapiClientFactory(vertx, "http://localhost:" + port, 3000)
+      .getOkapiClient(TENANT), TENANT);
+    client.login("admin", "password").get();
+
+    requestCache = HoldRequestCache.create(TimeUnit.MINUTES.toMillis(5), 10);
+    request = new JsonObject(PatronMockOkapi.getRequest(PatronMockOkapi.holdCancellationHoldId));
+    cancellation = new JsonObject(
+      PatronMockOkapi.getHoldCancellation(PatronMockOkapi.holdCancellationHoldId, patronId));
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    mockOkapi.close().toCompletionStage().toCompletableFuture().get();
+    vertx.close().toCompletionStage().toCompletableFuture().get();
+  }
+
+  @Benchmark
+  public int lookUpRequest() {
+    return cancel(null);
+  }
+
+  @Benchmark
+  public int cachedRequest() {
+    requestCache.put(TENANT, PatronMockOkapi.holdCancellationHoldId, request);
+    return cancel(requestCache);
+  }
+
+  private int cancel(HoldRequestCache cache) {
+    CompletableFuture<Integer> status = new CompletableFuture<>();
+    client.cancelHold(patronId, PatronMockOkapi.holdCancellationHoldId, cancellation, cache,
+      resp -> status.complete(resp.statusCode()), status::completeExceptionally);
+    return status.join();
+  }
+}
@@ -0,0 +1,79 @@
+package org.folio.edge.patron.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.Jwks;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.folio.edge.patron.utils.JwtTokenUtil;
+import org.folio.edge.patron.utils.KeycloakRealmKeys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-token cost of verifying a Keycloak access token once the realm's JWKS
+ * is cached: re-parsing the cached JSON and building a parser on every call
+ * versus verifying against the pre-parsed {@link KeycloakRealmKeys}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeycloakTokenBenchmark {
+
+  private String jwks;
+  private String token;
+  private KeycloakRealmKeys realmKeys;
+
+  @Setup
+  public void setUp() {
+    jwks = readResource("/keycloak_certs_response.json");
+    token = new JwtTokenUtil().generateToken("externalSystemId", true);
+    realmKeys = KeycloakRealmKeys.parse(jwks);
+  }
+
+  /** What every secure request used to do on a key cache hit. */
+  @Benchmark
+  public Claims parseJwksPerToken() {
+    var jwkSet = Jwks.setParser().build().parse(jwks);
+    var parser = Jwts.parser().keyLocator(header -> {
+      if (header instanceof ProtectedHeader ph) {
+        for (Jwk<?> jwk : jwkSet.getKeys()) {
+          if (jwk.getId().equals(ph.getKeyId())) {
+            return jwk.toKey();
+          }
+        }
+      }
+      return null;
+    }).build();
+    return parser.parseSignedClaims(token).getPayload();
+  }
+
+  @Benchmark
+  public Claims cachedRealmKeys() {
+    return realmKeys.parseClaims(token);
+  }
+
+  static String readResource(String path) {
+    try (InputStream in = KeycloakTokenBenchmark.class.getResourceAsStream(path)) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
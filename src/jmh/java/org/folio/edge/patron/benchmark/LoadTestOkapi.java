@@ -0,0 +1,47 @@
+package org.folio.edge.patron.benchmark;
+
+import java.util.List;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.edge.patron.utils.PatronMockOkapi;
+
+/**
+ * {@link PatronMockOkapi} as a load test target of its own, so that the edge
+ * module under test doesn't share a JVM with it.  Configured with system
+ * properties:
+ * <ul>
+ * <li>{@code mock_okapi_port}, default 9130</li>
+ * <li>{@code mock_okapi_latency_ms}, delay of every response, default 0</li>
+ * <li>{@code mock_okapi_error_rate}, fraction of requests failed with a 500,
+ * default 0</li>
+ * <li>{@code mock_okapi_account_loans}, loans per account, default 0 for the
+ * fixed account of the tests</li>
+ * </ul>
+ */
+public class LoadTestOkapi {
+
+  private static final Logger logger = LogManager.getLogger(LoadTestOkapi.class);
+
+  static final String TENANT = "diku";
+
+  private LoadTestOkapi() {
+
+  }
+
+  public static void main(String[] args) {
+    int port = Integer.getInteger("mock_okapi_port", 9130);
+    create(port).start()
+      .onSuccess(v -> logger.info("Mock Okapi listening on port {}", port))
+      .onFailure(t -> {
+        logger.error("Failed to start mock Okapi", t);
+        System.exit(1);
+      });
+  }
+
+  static PatronMockOkapi create(int port) {
+    return new PatronMockOkapi(port, List.of(TENANT))
+      .withLatency(Long.getLong("mock_okapi_latency_ms", 0))
+      .withErrorRate(Double.parseDouble(System.getProperty("mock_okapi_error_rate", "0")))
+      .withAccountLoans(Integer.getInteger("mock_okapi_account_loans", 0));
+  }
+}
@@ -0,0 +1,110 @@
+package org.folio.edge.patron.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.folio.edge.patron.model.Account;
+import org.folio.edge.patron.model.Charge;
+import org.folio.edge.patron.model.Hold;
+import org.folio.edge.patron.model.Loan;
+import org.folio.edge.patron.utils.PatronMockOkapi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * (De)serialization of the models the edge API returns, in both of the
+ * formats clients may ask for.  The account has {@code loans} loans and a
+ * tenth as many holds and charges.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModelSerializationBenchmark {
+
+  @Param({ "json", "xml" })
+  public String format;
+
+  @Param({ "10", "200" })
+  public int loans;
+
+  private Account account;
+  private Hold hold;
+  private Loan loan;
+  private String accountBody;
+  private String holdBody;
+  private String loanBody;
+
+  @Setup
+  public void setUp() throws IOException {
+    List<Loan> loanList = new ArrayList<>();
+    List<Hold> holdList = new ArrayList<>();
+    List<Charge> chargeList = new ArrayList<>();
+    for (int i = 0; i < loans; i++) {
+      String itemId = UUID.randomUUID().toString();
+      loanList.add(PatronMockOkapi.getLoan(itemId));
+      if (i % 10 == 0) {
+        holdList.add(PatronMockOkapi.getHold(itemId));
+        chargeList.add(PatronMockOkapi.getCharge(itemId));
+      }
+    }
+    account = Account.builder()
+      .id(UUID.randomUUID().toString())
+      .loans(loanList)
+      .holds(holdList)
+      .charges(chargeList)
+      .build();
+    hold = holdList.get(0);
+    loan = loanList.get(0);
+    accountBody = serializeAccount();
+    holdBody = serializeHold();
+    loanBody = serializeLoan();
+  }
+
+  @Benchmark
+  public String serializeAccount() throws IOException {
+    return isXml() ? account.toXml() : account.toJson();
+  }
+
+  @Benchmark
+  public Account deserializeAccount() throws IOException {
+    return isXml() ? Account.fromXml(accountBody) : Account.fromJson(accountBody);
+  }
+
+  @Benchmark
+  public String serializeHold() throws IOException {
+    return isXml() ? hold.toXml() : hold.toJson();
+  }
+
+  @Benchmark
+  public Hold deserializeHold() throws IOException {
+    return isXml() ? Hold.fromXml(holdBody) : Hold.fromJson(holdBody);
+  }
+
+  @Benchmark
+  public String serializeLoan() throws IOException {
+    return isXml() ? loan.toXml() : loan.toJson();
+  }
+
+  @Benchmark
+  public Loan deserializeLoan() throws IOException {
+    return isXml() ? Loan.fromXml(loanBody) : Loan.fromJson(loanBody);
+  }
+
+  private boolean isXml() {
+    return "xml".equals(format);
+  }
+}
@@ -0,0 +1,99 @@
+package org.folio.edge.patron.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.folio.edge.patron.cache.KeycloakPublicKeyCache;
+import org.folio.edge.patron.cache.PatronIdCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cache access from many threads at once, the way event loops of several
+ * verticle instances hit the singletons: every operation goes through
+ * getInstance(), mostly reads with some writes.  The {@code synchronized}
+ * variant looks the patron ID cache up through a {@code static synchronized}
+ * getter, the way the singletons used to, as a baseline for the lock-free one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class PatronIdCacheBenchmark {
+
+  private static final String TENANT = "diku";
+  private static final int PATRONS = 1000;
+
+  @Param({ "volatile", "synchronized" })
+  public String getInstance;
+
+  private String[] externalIds;
+  private boolean synchronizedGetInstance;
+
+  @Setup
+  public void setUp() {
+    PatronIdCache.initialize(60 * 60 * 1000L, 30 * 1000L, PATRONS * 2);
+    KeycloakPublicKeyCache.initialize(60 * 60 * 1000L, 30 * 1000L, 10);
+    externalIds = new String[PATRONS];
+    for (int i = 0; i < PATRONS; i++) {
+      externalIds[i] = "ext-" + i;
+      PatronIdCache.getInstance().put(TENANT, externalIds[i], "patron-" + i);
+    }
+    synchronizedGetInstance = "synchronized".equals(getInstance);
+    SynchronizedHolder.setInstance(PatronIdCache.getInstance());
+  }
+
+  @Benchmark
+  public String get() {
+    return patronIdCache().get(TENANT, randomExternalId());
+  }
+
+  /** Nine reads per write. */
+  @Benchmark
+  public Object getPut() {
+    String externalId = randomExternalId();
+    PatronIdCache cache = patronIdCache();
+    if (ThreadLocalRandom.current().nextInt(10) == 0) {
+      return cache.put(TENANT, externalId, "patron");
+    }
+    return cache.get(TENANT, externalId);
+  }
+
+  @Benchmark
+  public Object keycloakKeyCacheGet() {
+    return KeycloakPublicKeyCache.getInstance().get(TENANT);
+  }
+
+  private PatronIdCache patronIdCache() {
+    return synchronizedGetInstance ? SynchronizedHolder.getInstance() : PatronIdCache.getInstance();
+  }
+
+  private String randomExternalId() {
+    return externalIds[ThreadLocalRandom.current().nextInt(PATRONS)];
+  }
+
+  private static final class SynchronizedHolder {
+
+    private static PatronIdCache instance;
+
+    static synchronized PatronIdCache getInstance() {
+      return instance;
+    }
+
+    static synchronized void setInstance(PatronIdCache cache) {
+      instance = cache;
+    }
+  }
+}
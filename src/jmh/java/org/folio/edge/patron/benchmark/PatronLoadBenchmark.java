@@ -0,0 +1,194 @@
+package org.folio.edge.patron.benchmark;
+
+import static org.folio.edge.core.Constants.SYS_LOG_LEVEL;
+import static org.folio.edge.core.Constants.SYS_OKAPI_URL;
+import static org.folio.edge.core.Constants.SYS_PORT;
+import static org.folio.edge.core.Constants.SYS_SECURE_STORE_PROP_FILE;
+import static org.folio.edge.core.Constants.X_OKAPI_TENANT;
+import static org.folio.edge.core.Constants.X_OKAPI_TOKEN;
+import static org.folio.edge.patron.Constants.KEYCLOAK_URL;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.folio.edge.core.utils.ApiKeyUtils;
+import org.folio.edge.core.utils.test.TestUtils;
+import org.folio.edge.patron.MainVerticle;
+import org.folio.edge.patron.utils.JwtTokenUtil;
+import org.folio.edge.patron.utils.PatronMockOkapi;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end load on a deployed {@link MainVerticle}: a mix of 6 account
+ * reads, 2 renewals, 1 hold and 1 secure account read with an access token
+ * at a time, each thread waiting for its response before sending the next
+ * request.  Reports the throughput and latency percentiles of each request
+ * type, and the non-2xx responses in the {@code errors} counter; run with
+ * {@code -prof gc} for the allocation rate.
+ * <p>
+ * The mock Okapi runs in the same JVM, with the latency, error rate and
+ * account size of the params, unless {@code load_okapi_url} points to one
+ * started with {@link LoadTestOkapi}, which takes them as system properties.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class PatronLoadBenchmark {
+
+  private static final String EXT_PATRON_ID = PatronMockOkapi.extPatronId;
+
+  @Param({ "1", "4" })
+  public int instances;
+
+  @Param({ "0" })
+  public long okapiLatencyMs;
+
+  @Param({ "0" })
+  public double okapiErrorRate;
+
+  @Param({ "0", "100" })
+  public int accountLoans;
+
+  private Vertx vertx;
+  private PatronMockOkapi mockOkapi;
+  private HttpClient client;
+  private String baseUrl;
+  private String apiKey;
+  private String accessToken;
+  private String holdBody;
+
+  @Setup
+  public void setUp() throws Exception {
+    String okapiUrl = System.getProperty("load_okapi_url");
+    if (okapiUrl == null) {
+      int okapiPort = TestUtils.getPort();
+      mockOkapi = LoadTestOkapi.create(okapiPort)
+        .withLatency(okapiLatencyMs)
+        .withErrorRate(okapiErrorRate)
+        .withAccountLoans(accountLoans);
+      mockOkapi.start().toCompletionStage().toCompletableFuture().get();
+      okapiUrl = "http://localhost:" + okapiPort;
+    }
+
+    int serverPort = TestUtils.getPort();
+    System.setProperty(SYS_PORT, String.valueOf(serverPort));
+    System.setProperty(SYS_OKAPI_URL, okapiUrl);
+    System.setProperty(KEYCLOAK_URL, okapiUrl);
+    System.setProperty(SYS_SECURE_STORE_PROP_FILE, "src/main/resources/ephemeral.properties");
+    System.setProperty(SYS_LOG_LEVEL, "WARN");
+
+    vertx = Vertx.vertx();
+    vertx.deployVerticle(MainVerticle.class.getName(), new DeploymentOptions().setInstances(instances))
+      .toCompletionStage().toCompletableFuture().get();
+
+    client = HttpClient.newBuilder()
+      .connectTimeout(Duration.ofSeconds(5))
+      .build();
+    baseUrl = "http://localhost:" + serverPort;
+    apiKey = ApiKeyUtils.generateApiKey(10, LoadTestOkapi.TENANT, LoadTestOkapi.TENANT);
+    accessToken = new JwtTokenUtil().generateToken(EXT_PATRON_ID, true);
+    holdBody = PatronMockOkapi.getHold(PatronMockOkapi.itemId).toJson();
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    vertx.close().toCompletionStage().toCompletableFuture().get();
+    if (mockOkapi != null) {
+      mockOkapi.close().toCompletionStage().toCompletableFuture().get();
+    }
+  }
+
+  /**
+   * Responses other than 2xx per thread, reported next to the operations.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Outcomes {
+
+    public long errors;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      errors = 0;
+    }
+  }
+
+  @Benchmark
+  @Group("mix")
+  @GroupThreads(6)
+  public int account(Outcomes outcomes) throws Exception {
+    return send(outcomes, get(String.format(
+      "/patron/account/%s?apikey=%s&includeLoans=true&includeCharges=true&includeHolds=true",
+      EXT_PATRON_ID, apiKey)).build());
+  }
+
+  @Benchmark
+  @Group("mix")
+  @GroupThreads(2)
+  public int renew(Outcomes outcomes) throws Exception {
+    return send(outcomes, post(String.format("/patron/account/%s/item/%s/renew?apikey=%s",
+      EXT_PATRON_ID, PatronMockOkapi.itemId, apiKey), "").build());
+  }
+
+  @Benchmark
+  @Group("mix")
+  @GroupThreads(1)
+  public int hold(Outcomes outcomes) throws Exception {
+    return send(outcomes, post(String.format("/patron/account/%s/item/%s/hold?apikey=%s",
+      EXT_PATRON_ID, PatronMockOkapi.itemId, apiKey), holdBody).build());
+  }
+
+  @Benchmark
+  @Group("mix")
+  @GroupThreads(1)
+  public int secureAccount(Outcomes outcomes) throws Exception {
+    return send(outcomes, get(String.format("/patron/account?apikey=%s", apiKey))
+      .header(X_OKAPI_TOKEN, accessToken)
+      .header(X_OKAPI_TENANT, LoadTestOkapi.TENANT)
+      .build());
+  }
+
+  private HttpRequest.Builder get(String path) {
+    return HttpRequest.newBuilder(URI.create(baseUrl + path))
+      .timeout(Duration.ofSeconds(30))
+      .GET();
+  }
+
+  private HttpRequest.Builder post(String path, String body) {
+    return HttpRequest.newBuilder(URI.create(baseUrl + path))
+      .timeout(Duration.ofSeconds(30))
+      .header("Content-Type", "application/json")
+      .POST(HttpRequest.BodyPublishers.ofString(body));
+  }
+
+  private int send(Outcomes outcomes, HttpRequest request) throws Exception {
+    int statusCode = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    if (statusCode / 100 != 2) {
+      outcomes.errors++;
+    }
+    return statusCode;
+  }
+}
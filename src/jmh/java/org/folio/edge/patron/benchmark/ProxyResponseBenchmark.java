@@ -0,0 +1,113 @@
+package org.folio.edge.patron.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.folio.edge.core.utils.test.TestUtils;
+import org.folio.edge.patron.model.Account;
+import org.folio.edge.patron.model.Loan;
+import org.folio.edge.patron.utils.PatronMockOkapi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of relaying a successful mod-patron account response through a local
+ * server: ending the {@link HttpServerResponse} with the body decoded to a
+ * String, which the server encodes again, versus with the received Buffer
+ * as it is, the way {@code handleProxyResponse} does.  Each operation is a
+ * request to the server and the whole response body.  Run with
+ * {@code -prof gc} to compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProxyResponseBenchmark {
+
+  @Param({ "10", "500" })
+  public int loans;
+
+  private Buffer body;
+  private Vertx vertx;
+  private HttpClient client;
+  private int port;
+
+  @Setup
+  public void setUp() throws Exception {
+    List<Loan> loanList = new ArrayList<>();
+    for (int i = 0; i < loans; i++) {
+      loanList.add(PatronMockOkapi.getLoan(UUID.randomUUID().toString()));
+    }
+    body = Buffer.buffer(toJson(loanList));
+
+    vertx = Vertx.vertx();
+    port = TestUtils.getPort();
+    vertx.createHttpServer()
+      .requestHandler(request -> {
+        HttpServerResponse response = request.response()
+          .putHeader("Content-Type", "application/json");
+        if (request.path().equals("/string")) {
+          // bodyAsString() followed by end(String)
+          response.end(body.toString());
+        } else {
+          response.end(body);
+        }
+      })
+      .listen(port)
+      .toCompletionStage().toCompletableFuture().get();
+    client = vertx.createHttpClient();
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    vertx.close().toCompletionStage().toCompletableFuture().get();
+  }
+
+  /** end(String) with the decoded body. */
+  @Benchmark
+  public Buffer endString() throws Exception {
+    return get("/string");
+  }
+
+  /** end(Buffer) with the received body. */
+  @Benchmark
+  public Buffer endBuffer() throws Exception {
+    return get("/buffer");
+  }
+
+  private Buffer get(String path) throws Exception {
+    return client.request(HttpMethod.GET, port, "localhost", path)
+      .compose(request -> request.send())
+      .compose(HttpClientResponse::body)
+      .toCompletionStage().toCompletableFuture()
+      .get(10, TimeUnit.SECONDS);
+  }
+
+  private static String toJson(List<Loan> loanList) throws JsonProcessingException {
+    return Account.builder()
+      .id(UUID.randomUUID().toString())
+      .loans(loanList)
+      .build()
+      .toJson(true, false, false, false);
+  }
+}
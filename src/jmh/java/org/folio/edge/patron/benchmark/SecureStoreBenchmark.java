@@ -0,0 +1,127 @@
+package org.folio.edge.patron.benchmark;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.folio.edge.core.security.SecureStore;
+import org.folio.edge.patron.utils.VirtualThreadSecureStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Secure store lookups of a slow store on a single event loop, the way the
+ * handlers resolve API keys whose credentials aren't known yet: blocking the
+ * event loop, or on virtual threads with {@link VirtualThreadSecureStore}.
+ * 8 threads look up the credentials of a new API key each, while the
+ * {@code eventLoop} probe measures how long a task waits for the event loop,
+ * i.e. how long it's blocked.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class SecureStoreBenchmark {
+
+  @Param({ "blocking", "virtual" })
+  public String mode;
+
+  @Param({ "20" })
+  public long storeLatencyMs;
+
+  private final AtomicLong apiKeys = new AtomicLong();
+  private Vertx vertx;
+  private Context context;
+  private SecureStore store;
+  private VirtualThreadSecureStore virtualThreadStore;
+
+  @Setup
+  public void setUp() {
+    vertx = Vertx.vertx(new VertxOptions().setEventLoopPoolSize(1));
+    context = vertx.getOrCreateContext();
+    store = new SlowSecureStore(storeLatencyMs);
+    virtualThreadStore = new VirtualThreadSecureStore(store, 60_000, 100_000);
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    vertx.close().toCompletionStage().toCompletableFuture().get();
+  }
+
+  @Benchmark
+  @Group("slowStore")
+  @GroupThreads(8)
+  public String lookup() throws Exception {
+    final String username = "user" + apiKeys.incrementAndGet();
+    final CompletableFuture<String> result = new CompletableFuture<>();
+    context.runOnContext(v -> resolve(username).onComplete(ar -> {
+      if (ar.succeeded()) {
+        result.complete(ar.result());
+      } else {
+        result.completeExceptionally(ar.cause());
+      }
+    }));
+    return result.get(30, TimeUnit.SECONDS);
+  }
+
+  @Benchmark
+  @Group("slowStore")
+  @GroupThreads(1)
+  public void eventLoop() throws Exception {
+    final CompletableFuture<Void> ran = new CompletableFuture<>();
+    context.runOnContext(v -> ran.complete(null));
+    ran.get(30, TimeUnit.SECONDS);
+  }
+
+  private Future<String> resolve(String username) {
+    final Future<Void> prefetched = "virtual".equals(mode)
+      ? virtualThreadStore.prefetch("salt", "diku", username)
+      : Future.succeededFuture();
+    return prefetched.compose(v -> {
+      try {
+        return Future.succeededFuture(("virtual".equals(mode) ? virtualThreadStore : store)
+          .get("salt", "diku", username));
+      } catch (SecureStore.NotFoundException e) {
+        return Future.failedFuture(e);
+      }
+    });
+  }
+
+  private static class SlowSecureStore extends SecureStore {
+
+    private final long latencyMs;
+
+    SlowSecureStore(long latencyMs) {
+      super(new Properties());
+      this.latencyMs = latencyMs;
+    }
+
+    @Override
+    public String get(String clientId, String tenant, String username) {
+      try {
+        Thread.sleep(latencyMs);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return "password";
+    }
+  }
+}
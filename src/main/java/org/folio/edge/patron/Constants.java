@@ -11,6 +11,36 @@ public class Constants {
   public static final String SYS_KEYCLOAK_KEY_CACHE_TTL_MS = "keycloak_key_cache_ttl_ms";
   public static final String SYS_NULL_KEYCLOAK_KEY_CACHE_TTL_MS = "null_keycloak_key_cache_ttl_ms";
   public static final String SYS_KEYCLOAK_KEY_CACHE_CAPACITY = "keycloak_key_cache_capacity";
+  public static final String SYS_KEYCLOAK_KEY_REFRESH_MIN_INTERVAL_MS = "keycloak_key_refresh_min_interval_ms";
+  public static final String SYS_CACHE_REFRESH_AHEAD_FACTOR = "cache_refresh_ahead_factor";
+  public static final String SYS_TOKEN_CLAIMS_CACHE_TTL_MS = "token_claims_cache_ttl_ms";
+  public static final String SYS_TOKEN_CLAIMS_CACHE_CAPACITY = "token_claims_cache_capacity";
+  public static final String SYS_STREAM_ACCOUNT_RESPONSES = "stream_account_responses";
+  public static final String SYS_ACCOUNT_RESPONSE_CACHE_TTL_MS = "account_response_cache_ttl_ms";
+  public static final String SYS_ACCOUNT_RESPONSE_CACHE_MAX_BYTES = "account_response_cache_max_bytes";
+  public static final String SYS_ALLOWED_SERVICE_POINTS_CACHE_TTL_MS = "allowed_service_points_cache_ttl_ms";
+  public static final String SYS_ALLOWED_SERVICE_POINTS_CACHE_CAPACITY = "allowed_service_points_cache_capacity";
+  public static final String SYS_HOLD_REQUEST_CACHE_TTL_MS = "hold_request_cache_ttl_ms";
+  public static final String SYS_HOLD_REQUEST_CACHE_CAPACITY = "hold_request_cache_capacity";
+  public static final String SYS_BULK_REQUEST_CONCURRENCY = "bulk_request_concurrency";
+  public static final String SYS_BATCH_STATUS_POLL_MIN_INTERVAL_MS = "batch_status_poll_min_interval_ms";
+  public static final String SYS_BATCH_STATUS_POLL_MAX_INTERVAL_MS = "batch_status_poll_max_interval_ms";
+  public static final String SYS_BATCH_STATUS_SNAPSHOT_MAX_AGE_MS = "batch_status_snapshot_max_age_ms";
+  public static final String SYS_OKAPI_CLIENT_POOL_SIZE = "okapi_client_pool_size";
+  public static final String SYS_OKAPI_CLIENT_KEEP_ALIVE = "okapi_client_keep_alive";
+  public static final String SYS_OKAPI_CLIENT_PIPELINING = "okapi_client_pipelining";
+  public static final String SYS_OKAPI_CLIENT_HTTP2 = "okapi_client_http2";
+  public static final String SYS_METRICS_ENABLED = "metrics_enabled";
+  public static final String SYS_TRACING_EXPORTER = "tracing_exporter";
+  public static final String SYS_TRACING_FILE = "tracing_file";
+  public static final String SYS_TRACING_OTLP_ENDPOINT = "tracing_otlp_endpoint";
+  public static final String SYS_VERTICLE_INSTANCES = "verticle_instances";
+  public static final String SYS_SECURE_STORE_VIRTUAL_THREADS = "secure_store_virtual_threads";
+  public static final String SYS_SECURE_STORE_CACHE_TTL_MS = "secure_store_cache_ttl_ms";
+  public static final String SYS_SECURE_STORE_CACHE_CAPACITY = "secure_store_cache_capacity";
+  public static final String FOLIO_CLIENT_TLS_TRUSTSTORETYPE = "FOLIO_CLIENT_TLS_TRUSTSTORETYPE";
+  public static final String FOLIO_CLIENT_TLS_TRUSTSTOREPATH = "FOLIO_CLIENT_TLS_TRUSTSTOREPATH";
+  public static final String FOLIO_CLIENT_TLS_TRUSTSTOREPASSWORD = "FOLIO_CLIENT_TLS_TRUSTSTOREPASSWORD";
   public static final String VIP_CLAIM = "vip";
   public static final String EXTERNAL_SYSTEM_ID_CLAIM = "externalSystemId";
 
@@ -21,6 +51,38 @@ public class Constants {
   public static final long DEFAULT_KEYCLOAK_KEY_CACHE_TTL_MS = 60 * 60 * 1000L;
   public static final long DEFAULT_NULL_KEYCLOAK_KEY_CACHE_TTL_MS = 30 * 1000L;
   public static final int DEFAULT_KEYCLOAK_KEY_CACHE_CAPACITY = 50;
+  public static final long DEFAULT_KEYCLOAK_KEY_REFRESH_MIN_INTERVAL_MS = 10 * 1000L;
+  public static final double DEFAULT_CACHE_REFRESH_AHEAD_FACTOR = 0.8;
+  public static final long DEFAULT_TOKEN_CLAIMS_CACHE_TTL_MS = 5 * 60 * 1000L;
+  public static final int DEFAULT_TOKEN_CLAIMS_CACHE_CAPACITY = 1000;
+  public static final boolean DEFAULT_STREAM_ACCOUNT_RESPONSES = false;
+  public static final long DEFAULT_ACCOUNT_RESPONSE_CACHE_TTL_MS = 0;
+  public static final long DEFAULT_ACCOUNT_RESPONSE_CACHE_MAX_BYTES = 16 * 1024 * 1024L;
+  public static final long DEFAULT_ALLOWED_SERVICE_POINTS_CACHE_TTL_MS = 0;
+  public static final int DEFAULT_ALLOWED_SERVICE_POINTS_CACHE_CAPACITY = 1000;
+  public static final long DEFAULT_HOLD_REQUEST_CACHE_TTL_MS = 0;
+  public static final int DEFAULT_HOLD_REQUEST_CACHE_CAPACITY = 1000;
+  public static final int DEFAULT_BULK_REQUEST_CONCURRENCY = 4;
+  public static final int MAX_BULK_REQUEST_SIZE = 100;
+  public static final int MAX_CACHED_PATRON_CLIENTS = 1000;
+  public static final int MAX_OKAPI_CLIENT_POOLS = 100;
+  public static final long DEFAULT_BATCH_STATUS_POLL_MIN_INTERVAL_MS = 500;
+  public static final long DEFAULT_BATCH_STATUS_POLL_MAX_INTERVAL_MS = 10 * 1000L;
+  public static final long DEFAULT_BATCH_STATUS_SNAPSHOT_MAX_AGE_MS = 0;
+  public static final int DEFAULT_OKAPI_CLIENT_POOL_SIZE = 0;
+  public static final boolean DEFAULT_OKAPI_CLIENT_KEEP_ALIVE = true;
+  public static final boolean DEFAULT_OKAPI_CLIENT_PIPELINING = false;
+  public static final boolean DEFAULT_OKAPI_CLIENT_HTTP2 = false;
+  public static final boolean DEFAULT_METRICS_ENABLED = false;
+  public static final String DEFAULT_TRACING_EXPORTER = "none";
+  public static final String DEFAULT_TRACING_FILE = "edge-patron-spans.jsonl";
+  public static final String DEFAULT_TRACING_OTLP_ENDPOINT = "http://localhost:4317";
+  public static final int DEFAULT_VERTICLE_INSTANCES = 0;
+  public static final boolean DEFAULT_SECURE_STORE_VIRTUAL_THREADS = false;
+  public static final long DEFAULT_SECURE_STORE_CACHE_TTL_MS = 300_000;
+  public static final int DEFAULT_SECURE_STORE_CACHE_CAPACITY = 1000;
+
+  public static final String TEXT_EVENT_STREAM = "text/event-stream";
 
   public static final String PARAM_SORT_BY = "sortBy";
   public static final String PARAM_LIMIT = "limit";
@@ -44,11 +106,19 @@ public class Constants {
   public static final String MSG_HOLD_NOBODY = "No hold data provided";
   public static final String MSG_ITEMS_NOBODY = "No Item IDs provided";
   public static final String MSG_BATCH_REQUEST_NOBODY = "No Multi-Item Batch request data provided";
+  public static final String MSG_HOLD_CANCELLATIONS_NOBODY = "No hold cancellations provided";
+  public static final String MSG_BATCH_STATUS_STREAMING_UNAVAILABLE =
+    "Streaming the status of batch requests is not available";
 
   public static final String FIELD_EXPIRATION_DATE = "expirationDate";
   public static final String FIELD_REQUEST_DATE = "requestDate";
 
   public static final String FIELD_HOLD_ID = "holdId";
+  public static final String FIELD_HOLDS = "holds";
+  public static final String FIELD_ITEM_ID = "itemId";
+  public static final String FIELD_ITEM_IDS = "itemIds";
+  public static final String FIELD_ITEMS = "items";
+  public static final String FIELD_BATCH_ID = "batchId";
   public static final String FIELD_CANCELLATION_REASON_ID = "cancellationReasonId";
   public static final String FIELD_CANCELLATION_ADDITIONAL_INFO = "cancellationAdditionalInformation";
   public static final String FIELD_CANCELED_DATE = "canceledDate";
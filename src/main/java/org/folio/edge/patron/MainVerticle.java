@@ -1,97 +1,120 @@
 package org.folio.edge.patron;
 
-import static org.folio.edge.patron.Constants.DEFAULT_KEYCLOAK_KEY_CACHE_CAPACITY;
-import static org.folio.edge.patron.Constants.DEFAULT_KEYCLOAK_KEY_CACHE_TTL_MS;
-import static org.folio.edge.patron.Constants.DEFAULT_NULL_KEYCLOAK_KEY_CACHE_TTL_MS;
-import static org.folio.edge.patron.Constants.DEFAULT_NULL_PATRON_ID_CACHE_TTL_MS;
-import static org.folio.edge.patron.Constants.DEFAULT_PATRON_ID_CACHE_CAPACITY;
-import static org.folio.edge.patron.Constants.DEFAULT_PATRON_ID_CACHE_TTL_MS;
-import static org.folio.edge.patron.Constants.KEYCLOAK_URL;
-import static org.folio.edge.patron.Constants.SYS_KEYCLOAK_KEY_CACHE_CAPACITY;
-import static org.folio.edge.patron.Constants.SYS_KEYCLOAK_KEY_CACHE_TTL_MS;
-import static org.folio.edge.patron.Constants.SYS_NULL_KEYCLOAK_KEY_CACHE_TTL_MS;
-import static org.folio.edge.patron.Constants.SYS_NULL_PATRON_ID_CACHE_TTL_MS;
-import static org.folio.edge.patron.Constants.SYS_PATRON_ID_CACHE_CAPACITY;
-import static org.folio.edge.patron.Constants.SYS_PATRON_ID_CACHE_TTL_MS;
-
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
 import io.vertx.core.http.HttpMethod;
+import io.vertx.core.net.KeyStoreOptions;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.client.WebClient;
 import io.vertx.ext.web.handler.BodyHandler;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.folio.edge.core.EdgeVerticleHttp;
 import org.folio.edge.core.utils.OkapiClientFactory;
 import org.folio.edge.core.utils.OkapiClientFactoryInitializer;
+import org.folio.edge.patron.cache.AccountResponseCache;
+import org.folio.edge.patron.cache.AllowedServicePointsCache;
+import org.folio.edge.patron.cache.HoldRequestCache;
 import org.folio.edge.patron.cache.KeycloakPublicKeyCache;
 import org.folio.edge.patron.cache.PatronIdCache;
+import org.folio.edge.patron.cache.TokenClaimsCache;
+import org.folio.edge.patron.utils.BatchStatusPoller;
 import org.folio.edge.patron.utils.KeycloakClient;
+import org.folio.edge.patron.utils.OkapiWebClients;
+import org.folio.edge.patron.utils.PatronMetrics;
+import org.folio.edge.patron.utils.PatronTracing;
+import org.folio.edge.patron.utils.VirtualThreadSecureStore;
 
 public class MainVerticle extends EdgeVerticleHttp {
 
   private static final Logger logger = LogManager.getLogger(MainVerticle.class);
 
-  public MainVerticle() {
-    super();
-    initializePatronIdCache();
-    initializeKeycloakKeyCache();
-  }
+  // what all instances of the verticle in this JVM share: set up by the first
+  // instance to start and released with the last one to stop
+  private static Shared shared;
+  private static int sharedBy;
 
-  private void initializePatronIdCache() {
-    final String patronIdCacheTtlMs = System.getProperty(SYS_PATRON_ID_CACHE_TTL_MS);
-    final long cacheTtlMs = patronIdCacheTtlMs != null ? Long.parseLong(patronIdCacheTtlMs)
-      : DEFAULT_PATRON_ID_CACHE_TTL_MS;
+  private boolean acquired;
 
-    final String nullTokenCacheTtlMs = System.getProperty(SYS_NULL_PATRON_ID_CACHE_TTL_MS);
-    final long failureCacheTtlMs = nullTokenCacheTtlMs != null ? Long.parseLong(nullTokenCacheTtlMs)
-      : DEFAULT_NULL_PATRON_ID_CACHE_TTL_MS;
-
-    final String patronIdCacheCapacity = System.getProperty(SYS_PATRON_ID_CACHE_CAPACITY);
-    final int cacheCapacity = patronIdCacheCapacity != null ? Integer.parseInt(patronIdCacheCapacity)
-      : DEFAULT_PATRON_ID_CACHE_CAPACITY;
-
-    PatronIdCache.initialize(cacheTtlMs, failureCacheTtlMs, cacheCapacity);
+  public MainVerticle() {
+    super();
   }
 
-  private void initializeKeycloakKeyCache() {
-    final String keycloakKeyCacheTtlMs = retriveProperty(SYS_KEYCLOAK_KEY_CACHE_TTL_MS);
-    final long cacheTtlMs = keycloakKeyCacheTtlMs != null ? Long.parseLong(keycloakKeyCacheTtlMs)
-      : DEFAULT_KEYCLOAK_KEY_CACHE_TTL_MS;
-
-    final String nullTokenCacheTtlMs = retriveProperty(SYS_NULL_KEYCLOAK_KEY_CACHE_TTL_MS);
-    final long failureCacheTtlMs = nullTokenCacheTtlMs != null ? Long.parseLong(nullTokenCacheTtlMs)
-      : DEFAULT_NULL_KEYCLOAK_KEY_CACHE_TTL_MS;
-
-    final String keycloakKeyCacheCapacity = retriveProperty(SYS_KEYCLOAK_KEY_CACHE_CAPACITY);
-    final int cacheCapacity = keycloakKeyCacheCapacity != null ? Integer.parseInt(keycloakKeyCacheCapacity)
-      : DEFAULT_KEYCLOAK_KEY_CACHE_CAPACITY;
-
-    KeycloakPublicKeyCache.initialize(cacheTtlMs, failureCacheTtlMs, cacheCapacity);
+  private void initializeCaches(PatronConfig patronConfig) {
+    PatronIdCache.initialize(patronConfig.getPatronIdCacheTtlMs(), patronConfig.getNullPatronIdCacheTtlMs(),
+      patronConfig.getPatronIdCacheCapacity(), patronConfig.getCacheRefreshAheadFactor());
+    KeycloakPublicKeyCache.initialize(patronConfig.getKeycloakKeyCacheTtlMs(),
+      patronConfig.getNullKeycloakKeyCacheTtlMs(), patronConfig.getKeycloakKeyCacheCapacity(),
+      patronConfig.getKeycloakKeyRefreshMinIntervalMs(), patronConfig.getCacheRefreshAheadFactor());
+    TokenClaimsCache.initialize(patronConfig.getTokenClaimsCacheTtlMs(), patronConfig.getTokenClaimsCacheCapacity());
+    AccountResponseCache.initialize(patronConfig.getAccountResponseCacheTtlMs(),
+      patronConfig.getAccountResponseCacheMaxBytes());
+    AllowedServicePointsCache.initialize(patronConfig.getAllowedServicePointsCacheTtlMs(),
+      patronConfig.getAllowedServicePointsCacheCapacity());
+    HoldRequestCache.initialize(patronConfig.getHoldRequestCacheTtlMs(), patronConfig.getHoldRequestCacheCapacity());
   }
 
   @Override
   public Router defineRoutes() {
+    final PatronConfig patronConfig = PatronConfig.load(config());
+    final Shared sharedState = acquireShared(patronConfig);
     OkapiClientFactory ocf = OkapiClientFactoryInitializer.createInstance(vertx, config());
-    final String keycloakUrl = retriveProperty(KEYCLOAK_URL);
+    final String keycloakUrl = patronConfig.getKeycloakUrl();
     if (keycloakUrl == null || keycloakUrl.isEmpty()) {
       logger.warn("Keycloak url is not defined. Secure endpoints will not work");
     }
     logger.info("Using keycloak url: {}", keycloakUrl);
-    KeycloakClient keycloakClient = new KeycloakClient(keycloakUrl, WebClient.create(vertx));
-    PatronHandler patronHandler = new PatronHandler(secureStore, ocf, keycloakClient);
+    final PatronMetrics metrics = sharedState.metrics();
+    final PatronTracing tracing = sharedState.tracing();
+    KeycloakClient keycloakClient = new KeycloakClient(keycloakUrl, WebClient.create(vertx))
+      .withMetrics(metrics)
+      .withTracing(tracing);
+    PatronHandler patronHandler = new PatronHandler(
+      sharedState.secureStore() != null ? sharedState.secureStore() : secureStore, ocf, keycloakClient);
+    patronHandler.withConfig(patronConfig)
+      .withMetrics(metrics)
+      .withTracing(tracing);
+    if (sharedState.accountStreamClient() != null) {
+      patronHandler.withAccountStreaming(sharedState.accountStreamClient());
+    }
+    patronHandler.withBatchStatusPoller(sharedState.batchStatusPoller());
+    if (sharedState.okapiWebClients() != null) {
+      patronHandler.withOkapiWebClients(sharedState.okapiWebClients());
+    }
 
     Router router = Router.router(vertx);
+    if (metrics != null) {
+      router.route().handler(metrics::handleRequest);
+    }
+    if (tracing != null) {
+      router.route().handler(tracing::handleRequest);
+    }
     router.route().handler(BodyHandler.create());
 
     router.route(HttpMethod.GET, "/admin/health")
       .handler(this::handleHealthCheck);
 
+    if (metrics != null) {
+      router.route(HttpMethod.GET, "/admin/metrics")
+        .handler(metrics::handleScrape);
+    }
+
     router.route(HttpMethod.GET, "/patron/account/:patronId")
       .handler(patronHandler::handleGetAccount);
 
     router.route(HttpMethod.GET, "/patron/account")
       .handler(patronHandler::handleSecureGetAccount);
 
+    router.route(HttpMethod.POST, "/patron/account/:patronId/renew")
+      .handler(patronHandler::handleRenewItems);
+
+    router.route(HttpMethod.POST, "/patron/account/renew")
+      .handler(patronHandler::handleSecureRenewItems);
+
     router.route(HttpMethod.POST, "/patron/account/:patronId/item/:itemId/renew")
       .handler(patronHandler::handleRenew);
 
@@ -125,6 +148,12 @@ public class MainVerticle extends EdgeVerticleHttp {
     router.route(HttpMethod.GET, "/patron/account/item/:itemId/allowed-service-points")
       .handler(patronHandler::handleSecureGetAllowedServicePointsForItem);
 
+    router.route(HttpMethod.POST, "/patron/account/:patronId/hold/cancel")
+      .handler(patronHandler::handleCancelHolds);
+
+    router.route(HttpMethod.POST, "/patron/account/hold/cancel")
+      .handler(patronHandler::handleSecureCancelHolds);
+
     router.route(HttpMethod.POST, "/patron/account/:patronId/hold/:holdId/cancel")
       .handler(patronHandler::handleCancelHold);
 
@@ -146,6 +175,13 @@ public class MainVerticle extends EdgeVerticleHttp {
     router.route(HttpMethod.POST, "/patron/account/instance/:instanceId/batch-request")
       .handler(patronHandler::handleSecurePostMultiItemBatchRequest);
 
+    router.route(HttpMethod.GET,
+        "/patron/account/:patronId/instance/:instanceId/batch-request/:batchRequestId/status/stream")
+      .handler(patronHandler::handleStreamMultiItemBatchRequestStatus);
+
+    router.route(HttpMethod.GET, "/patron/account/instance/:instanceId/batch-request/:batchRequestId/status/stream")
+      .handler(patronHandler::handleSecureStreamMultiItemBatchRequestStatus);
+
     router.route(HttpMethod.GET, "/patron/account/:patronId/instance/:instanceId/batch-request/:batchRequestId/status")
       .handler(patronHandler::handleGetMultiItemBatchRequestStatus);
 
@@ -155,11 +191,155 @@ public class MainVerticle extends EdgeVerticleHttp {
     return router;
   }
 
-  private String retriveProperty(String name) {
-    var property = System.getProperty(name);
-    if (property == null) {
-      property = System.getenv().get(name);
+  @Override
+  public void stop(Promise<Void> stopPromise) throws Exception {
+    if (acquired) {
+      acquired = false;
+      releaseShared();
+    }
+    super.stop(stopPromise);
+  }
+
+  /**
+   * The caches, metrics, tracing, Okapi connection pools, secure store
+   * lookups, batch status polls and account streaming client of this JVM, so
+   * that instances deployed one per event loop don't reset the caches of the
+   * others, split the per-tenant connection limit between them or poll the
+   * same batch request each.  The settings of the first instance to start
+   * apply.
+   */
+  private Shared acquireShared(PatronConfig patronConfig) {
+    synchronized (MainVerticle.class) {
+      if (sharedBy == 0) {
+        shared = outsideDeployment(() -> createShared(patronConfig));
+      } else {
+        logger.info("Sharing the caches of {} running instance(s)", sharedBy);
+      }
+      sharedBy++;
+      acquired = true;
+      return shared;
+    }
+  }
+
+  private Shared createShared(PatronConfig patronConfig) {
+    initializeCaches(patronConfig);
+    final PatronMetrics metrics = patronConfig.isMetricsEnabled() ? createMetrics() : null;
+    final OkapiWebClients okapiWebClients = createOkapiWebClients(patronConfig);
+    if (metrics != null && okapiWebClients != null) {
+      metrics.bindPools(okapiWebClients);
+    }
+    final BatchStatusPoller batchStatusPoller = new BatchStatusPoller(vertx,
+      patronConfig.getBatchStatusPollMinIntervalMs(), patronConfig.getBatchStatusPollMaxIntervalMs(),
+      patronConfig.getBatchStatusSnapshotMaxAgeMs());
+    return new Shared(metrics, PatronTracing.create(patronConfig), okapiWebClients, createSecureStore(patronConfig),
+      batchStatusPoller, createAccountStreamClient(patronConfig));
+  }
+
+  /**
+   * Runs the action on a thread of its own rather than on the deployment
+   * context of this instance: Vert.x closes the clients created on that
+   * context, and cancels its timers, when the instance is undeployed, while
+   * the other instances still use them.  They are closed in
+   * {@link #releaseShared} instead.
+   */
+  private static <T> T outsideDeployment(Supplier<T> action) {
+    if (Vertx.currentContext() == null) {
+      return action.get();
+    }
+    final FutureTask<T> task = new FutureTask<>(action::get);
+    Thread.ofVirtual().name("edge-patron-shared").start(task);
+    try {
+      return task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  private static void releaseShared() {
+    synchronized (MainVerticle.class) {
+      if (--sharedBy == 0) {
+        if (shared.tracing() != null) {
+          // the spans are batched, flush the ones not exported yet
+          shared.tracing().close();
+        }
+        if (shared.okapiWebClients() != null) {
+          shared.okapiWebClients().close();
+        }
+        if (shared.secureStore() != null) {
+          shared.secureStore().close();
+        }
+        shared.batchStatusPoller().close();
+        if (shared.accountStreamClient() != null) {
+          shared.accountStreamClient().close();
+        }
+        shared = null;
+      }
+    }
+  }
+
+  private record Shared(PatronMetrics metrics, PatronTracing tracing, OkapiWebClients okapiWebClients,
+    VirtualThreadSecureStore secureStore, BatchStatusPoller batchStatusPoller, HttpClient accountStreamClient) {
+  }
+
+  private PatronMetrics createMetrics() {
+    logger.info("Exposing metrics at /admin/metrics");
+    PatronMetrics metrics = PatronMetrics.create();
+    metrics.bindCache("patron_id", () -> PatronIdCache.getInstance().getHitCount(),
+      () -> PatronIdCache.getInstance().getMissCount(), () -> PatronIdCache.getInstance().getEvictionCount(),
+      () -> PatronIdCache.getInstance().size());
+    metrics.bindCache("keycloak_public_key", () -> KeycloakPublicKeyCache.getInstance().getHitCount(),
+      () -> KeycloakPublicKeyCache.getInstance().getMissCount(),
+      () -> KeycloakPublicKeyCache.getInstance().getEvictionCount(), () -> KeycloakPublicKeyCache.getInstance().size());
+    metrics.bindCache("token_claims", () -> TokenClaimsCache.getInstance().getHitCount(),
+      () -> TokenClaimsCache.getInstance().getMissCount(), () -> TokenClaimsCache.getInstance().getEvictionCount(),
+      () -> TokenClaimsCache.getInstance().size());
+    metrics.bindCache("account_response", () -> AccountResponseCache.getInstance().getHitCount(),
+      () -> AccountResponseCache.getInstance().getMissCount(),
+      () -> AccountResponseCache.getInstance().getEvictionCount(), null);
+    metrics.bindCache("allowed_service_points", () -> AllowedServicePointsCache.getInstance().getHitCount(),
+      () -> AllowedServicePointsCache.getInstance().getMissCount(),
+      () -> AllowedServicePointsCache.getInstance().getEvictionCount(), null);
+    return metrics;
+  }
+
+  private VirtualThreadSecureStore createSecureStore(PatronConfig patronConfig) {
+    if (!patronConfig.isSecureStoreVirtualThreads()) {
+      return null;
     }
-    return property;
+    logger.info("Looking up API key credentials in the secure store on virtual threads");
+    return new VirtualThreadSecureStore(secureStore, patronConfig.getSecureStoreCacheTtlMs(),
+      patronConfig.getSecureStoreCacheCapacity());
+  }
+
+  private OkapiWebClients createOkapiWebClients(PatronConfig patronConfig) {
+    if (patronConfig.getOkapiClientPoolSize() <= 0) {
+      return null;
+    }
+    return OkapiWebClients.create(vertx, patronConfig.getOkapiUrl(), patronConfig.getOkapiClientPoolSize(),
+      patronConfig.isOkapiClientKeepAlive(), patronConfig.isOkapiClientPipelining(),
+      patronConfig.isOkapiClientHttp2(), trustOptions(patronConfig));
+  }
+
+  private HttpClient createAccountStreamClient(PatronConfig patronConfig) {
+    if (!patronConfig.isStreamAccountResponses()) {
+      return null;
+    }
+    logger.info("Streaming account responses");
+    return OkapiWebClients.createStreamingClient(vertx, patronConfig.getOkapiUrl(),
+      patronConfig.getOkapiClientPoolSize(), patronConfig.isOkapiClientKeepAlive(),
+      patronConfig.isOkapiClientPipelining(), patronConfig.isOkapiClientHttp2(), trustOptions(patronConfig));
+  }
+
+  private static KeyStoreOptions trustOptions(PatronConfig patronConfig) {
+    return patronConfig.getTruststorePath() == null ? null : new KeyStoreOptions()
+      .setType(patronConfig.getTruststoreType())
+      .setPath(patronConfig.getTruststorePath())
+      .setPassword(patronConfig.getTruststorePassword());
   }
 }
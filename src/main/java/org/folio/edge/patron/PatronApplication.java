@@ -0,0 +1,53 @@
+package org.folio.edge.patron;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.launcher.application.HookContext;
+import io.vertx.launcher.application.VertxApplication;
+import io.vertx.launcher.application.VertxApplicationHooks;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * The launcher of the fat jar: deploys {@code verticle_instances} instances
+ * of {@link MainVerticle}, one per available processor by default, so that
+ * a single edge node serves requests on all of its event loops.  An explicit
+ * {@code --instances} option takes precedence.
+ */
+public class PatronApplication extends VertxApplication implements VertxApplicationHooks {
+
+  private static final Logger logger = LogManager.getLogger(PatronApplication.class);
+
+  private final boolean instancesGiven;
+
+  public PatronApplication(String[] args) {
+    super(args);
+    this.instancesGiven = hasInstancesOption(args);
+  }
+
+  public static void main(String[] args) {
+    new PatronApplication(args).launch();
+  }
+
+  @Override
+  public void beforeDeployingVerticle(HookContext context) {
+    final DeploymentOptions options = context.deploymentOptions();
+    if (!instancesGiven) {
+      options.setInstances(PatronConfig.load(options.getConfig()).getVerticleInstances());
+    }
+    logger.info("Deploying {} instance(s) of the verticle", options.getInstances());
+  }
+
+  /**
+   * Whether the command line sets the number of instances, as an explicit
+   * {@code --instances 1} can't be told from the default otherwise.
+   */
+  static boolean hasInstancesOption(String[] args) {
+    for (String arg : args) {
+      if (arg.equals("-instances") || arg.equals("--instances")
+        || arg.startsWith("-instances=") || arg.startsWith("--instances=")) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,335 @@
+package org.folio.edge.patron;
+
+import static org.folio.edge.core.Constants.SYS_OKAPI_URL;
+import static org.folio.edge.patron.Constants.*;
+
+import io.vertx.core.json.JsonObject;
+import java.util.function.UnaryOperator;
+
+/**
+ * The settings of edge-patron, read once at startup.  Each of them is taken
+ * from the system property, the environment variable or the Vert.x config
+ * entry of that name, in this order.
+ */
+public final class PatronConfig {
+
+  private static final String SECURE_REQUESTS_FEATURE_ENABLED = "SECURE_REQUESTS_FEATURE_ENABLED";
+  private static final String SECURE_TENANT_ID = "SECURE_TENANT_ID";
+
+  private final String okapiUrl;
+  private final String keycloakUrl;
+  private final boolean secureRequestsFeatureEnabled;
+  private final String secureTenantId;
+  private final long patronIdCacheTtlMs;
+  private final long nullPatronIdCacheTtlMs;
+  private final int patronIdCacheCapacity;
+  private final long keycloakKeyCacheTtlMs;
+  private final long nullKeycloakKeyCacheTtlMs;
+  private final int keycloakKeyCacheCapacity;
+  private final long keycloakKeyRefreshMinIntervalMs;
+  private final double cacheRefreshAheadFactor;
+  private final long tokenClaimsCacheTtlMs;
+  private final int tokenClaimsCacheCapacity;
+  private final boolean streamAccountResponses;
+  private final long accountResponseCacheTtlMs;
+  private final long accountResponseCacheMaxBytes;
+  private final long allowedServicePointsCacheTtlMs;
+  private final int allowedServicePointsCacheCapacity;
+  private final long holdRequestCacheTtlMs;
+  private final int holdRequestCacheCapacity;
+  private final int bulkRequestConcurrency;
+  private final long batchStatusPollMinIntervalMs;
+  private final long batchStatusPollMaxIntervalMs;
+  private final long batchStatusSnapshotMaxAgeMs;
+  private final int okapiClientPoolSize;
+  private final boolean okapiClientKeepAlive;
+  private final boolean okapiClientPipelining;
+  private final boolean okapiClientHttp2;
+  private final boolean metricsEnabled;
+  private final String tracingExporter;
+  private final String tracingFile;
+  private final String tracingOtlpEndpoint;
+  private final int verticleInstances;
+  private final boolean secureStoreVirtualThreads;
+  private final long secureStoreCacheTtlMs;
+  private final int secureStoreCacheCapacity;
+  private final String truststoreType;
+  private final String truststorePath;
+  private final String truststorePassword;
+
+  private PatronConfig(UnaryOperator<String> properties) {
+    okapiUrl = properties.apply(SYS_OKAPI_URL);
+    keycloakUrl = properties.apply(KEYCLOAK_URL);
+    secureRequestsFeatureEnabled = getBoolean(properties, SECURE_REQUESTS_FEATURE_ENABLED, false);
+    secureTenantId = properties.apply(SECURE_TENANT_ID);
+    patronIdCacheTtlMs = getLong(properties, SYS_PATRON_ID_CACHE_TTL_MS, DEFAULT_PATRON_ID_CACHE_TTL_MS);
+    nullPatronIdCacheTtlMs = getLong(properties, SYS_NULL_PATRON_ID_CACHE_TTL_MS,
+      DEFAULT_NULL_PATRON_ID_CACHE_TTL_MS);
+    patronIdCacheCapacity = getInt(properties, SYS_PATRON_ID_CACHE_CAPACITY, DEFAULT_PATRON_ID_CACHE_CAPACITY);
+    keycloakKeyCacheTtlMs = getLong(properties, SYS_KEYCLOAK_KEY_CACHE_TTL_MS, DEFAULT_KEYCLOAK_KEY_CACHE_TTL_MS);
+    nullKeycloakKeyCacheTtlMs = getLong(properties, SYS_NULL_KEYCLOAK_KEY_CACHE_TTL_MS,
+      DEFAULT_NULL_KEYCLOAK_KEY_CACHE_TTL_MS);
+    keycloakKeyCacheCapacity = getInt(properties, SYS_KEYCLOAK_KEY_CACHE_CAPACITY,
+      DEFAULT_KEYCLOAK_KEY_CACHE_CAPACITY);
+    keycloakKeyRefreshMinIntervalMs = getLong(properties, SYS_KEYCLOAK_KEY_REFRESH_MIN_INTERVAL_MS,
+      DEFAULT_KEYCLOAK_KEY_REFRESH_MIN_INTERVAL_MS);
+    cacheRefreshAheadFactor = getDouble(properties, SYS_CACHE_REFRESH_AHEAD_FACTOR,
+      DEFAULT_CACHE_REFRESH_AHEAD_FACTOR);
+    tokenClaimsCacheTtlMs = getLong(properties, SYS_TOKEN_CLAIMS_CACHE_TTL_MS, DEFAULT_TOKEN_CLAIMS_CACHE_TTL_MS);
+    tokenClaimsCacheCapacity = getInt(properties, SYS_TOKEN_CLAIMS_CACHE_CAPACITY,
+      DEFAULT_TOKEN_CLAIMS_CACHE_CAPACITY);
+    streamAccountResponses = getBoolean(properties, SYS_STREAM_ACCOUNT_RESPONSES, DEFAULT_STREAM_ACCOUNT_RESPONSES);
+    accountResponseCacheTtlMs = getLong(properties, SYS_ACCOUNT_RESPONSE_CACHE_TTL_MS,
+      DEFAULT_ACCOUNT_RESPONSE_CACHE_TTL_MS);
+    accountResponseCacheMaxBytes = getLong(properties, SYS_ACCOUNT_RESPONSE_CACHE_MAX_BYTES,
+      DEFAULT_ACCOUNT_RESPONSE_CACHE_MAX_BYTES);
+    allowedServicePointsCacheTtlMs = getLong(properties, SYS_ALLOWED_SERVICE_POINTS_CACHE_TTL_MS,
+      DEFAULT_ALLOWED_SERVICE_POINTS_CACHE_TTL_MS);
+    allowedServicePointsCacheCapacity = getInt(properties, SYS_ALLOWED_SERVICE_POINTS_CACHE_CAPACITY,
+      DEFAULT_ALLOWED_SERVICE_POINTS_CACHE_CAPACITY);
+    holdRequestCacheTtlMs = getLong(properties, SYS_HOLD_REQUEST_CACHE_TTL_MS, DEFAULT_HOLD_REQUEST_CACHE_TTL_MS);
+    holdRequestCacheCapacity = getInt(properties, SYS_HOLD_REQUEST_CACHE_CAPACITY,
+      DEFAULT_HOLD_REQUEST_CACHE_CAPACITY);
+    bulkRequestConcurrency = getInt(properties, SYS_BULK_REQUEST_CONCURRENCY, DEFAULT_BULK_REQUEST_CONCURRENCY);
+    batchStatusPollMinIntervalMs = getLong(properties, SYS_BATCH_STATUS_POLL_MIN_INTERVAL_MS,
+      DEFAULT_BATCH_STATUS_POLL_MIN_INTERVAL_MS);
+    batchStatusPollMaxIntervalMs = getLong(properties, SYS_BATCH_STATUS_POLL_MAX_INTERVAL_MS,
+      DEFAULT_BATCH_STATUS_POLL_MAX_INTERVAL_MS);
+    batchStatusSnapshotMaxAgeMs = getLong(properties, SYS_BATCH_STATUS_SNAPSHOT_MAX_AGE_MS,
+      DEFAULT_BATCH_STATUS_SNAPSHOT_MAX_AGE_MS);
+    okapiClientPoolSize = getInt(properties, SYS_OKAPI_CLIENT_POOL_SIZE, DEFAULT_OKAPI_CLIENT_POOL_SIZE);
+    okapiClientKeepAlive = getBoolean(properties, SYS_OKAPI_CLIENT_KEEP_ALIVE, DEFAULT_OKAPI_CLIENT_KEEP_ALIVE);
+    okapiClientPipelining = getBoolean(properties, SYS_OKAPI_CLIENT_PIPELINING, DEFAULT_OKAPI_CLIENT_PIPELINING);
+    okapiClientHttp2 = getBoolean(properties, SYS_OKAPI_CLIENT_HTTP2, DEFAULT_OKAPI_CLIENT_HTTP2);
+    metricsEnabled = getBoolean(properties, SYS_METRICS_ENABLED, DEFAULT_METRICS_ENABLED);
+    tracingExporter = getString(properties, SYS_TRACING_EXPORTER, DEFAULT_TRACING_EXPORTER);
+    tracingFile = getString(properties, SYS_TRACING_FILE, DEFAULT_TRACING_FILE);
+    tracingOtlpEndpoint = getString(properties, SYS_TRACING_OTLP_ENDPOINT, DEFAULT_TRACING_OTLP_ENDPOINT);
+    verticleInstances = getInt(properties, SYS_VERTICLE_INSTANCES, DEFAULT_VERTICLE_INSTANCES);
+    secureStoreVirtualThreads = getBoolean(properties, SYS_SECURE_STORE_VIRTUAL_THREADS,
+      DEFAULT_SECURE_STORE_VIRTUAL_THREADS);
+    secureStoreCacheTtlMs = getLong(properties, SYS_SECURE_STORE_CACHE_TTL_MS, DEFAULT_SECURE_STORE_CACHE_TTL_MS);
+    secureStoreCacheCapacity = getInt(properties, SYS_SECURE_STORE_CACHE_CAPACITY,
+      DEFAULT_SECURE_STORE_CACHE_CAPACITY);
+    truststoreType = properties.apply(FOLIO_CLIENT_TLS_TRUSTSTORETYPE);
+    truststorePath = properties.apply(FOLIO_CLIENT_TLS_TRUSTSTOREPATH);
+    truststorePassword = properties.apply(FOLIO_CLIENT_TLS_TRUSTSTOREPASSWORD);
+  }
+
+  /**
+   * @param config the Vert.x config of the verticle, may be null
+   */
+  public static PatronConfig load(JsonObject config) {
+    return new PatronConfig(name -> {
+      String property = System.getProperty(name);
+      if (property == null) {
+        property = System.getenv().get(name);
+      }
+      if (property == null && config != null && config.getValue(name) != null) {
+        property = String.valueOf(config.getValue(name));
+      }
+      return property;
+    });
+  }
+
+  /**
+   * The config of the system properties and environment only, for clients
+   * created without one.
+   */
+  public static PatronConfig getDefault() {
+    return DefaultHolder.INSTANCE;
+  }
+
+  private static class DefaultHolder {
+    private static final PatronConfig INSTANCE = load(null);
+  }
+
+  private static String getString(UnaryOperator<String> properties, String name, String defaultValue) {
+    String value = properties.apply(name);
+    return value != null ? value : defaultValue;
+  }
+
+  private static long getLong(UnaryOperator<String> properties, String name, long defaultValue) {
+    String value = properties.apply(name);
+    return value != null ? Long.parseLong(value) : defaultValue;
+  }
+
+  private static int getInt(UnaryOperator<String> properties, String name, int defaultValue) {
+    String value = properties.apply(name);
+    return value != null ? Integer.parseInt(value) : defaultValue;
+  }
+
+  private static double getDouble(UnaryOperator<String> properties, String name, double defaultValue) {
+    String value = properties.apply(name);
+    return value != null ? Double.parseDouble(value) : defaultValue;
+  }
+
+  private static boolean getBoolean(UnaryOperator<String> properties, String name, boolean defaultValue) {
+    String value = properties.apply(name);
+    return value != null ? Boolean.parseBoolean(value) : defaultValue;
+  }
+
+  public String getOkapiUrl() {
+    return okapiUrl;
+  }
+
+  public String getKeycloakUrl() {
+    return keycloakUrl;
+  }
+
+  public boolean isSecureRequestsFeatureEnabled() {
+    return secureRequestsFeatureEnabled;
+  }
+
+  public String getSecureTenantId() {
+    return secureTenantId;
+  }
+
+  public long getPatronIdCacheTtlMs() {
+    return patronIdCacheTtlMs;
+  }
+
+  public long getNullPatronIdCacheTtlMs() {
+    return nullPatronIdCacheTtlMs;
+  }
+
+  public int getPatronIdCacheCapacity() {
+    return patronIdCacheCapacity;
+  }
+
+  public long getKeycloakKeyCacheTtlMs() {
+    return keycloakKeyCacheTtlMs;
+  }
+
+  public long getNullKeycloakKeyCacheTtlMs() {
+    return nullKeycloakKeyCacheTtlMs;
+  }
+
+  public int getKeycloakKeyCacheCapacity() {
+    return keycloakKeyCacheCapacity;
+  }
+
+  public long getKeycloakKeyRefreshMinIntervalMs() {
+    return keycloakKeyRefreshMinIntervalMs;
+  }
+
+  public double getCacheRefreshAheadFactor() {
+    return cacheRefreshAheadFactor;
+  }
+
+  public long getTokenClaimsCacheTtlMs() {
+    return tokenClaimsCacheTtlMs;
+  }
+
+  public int getTokenClaimsCacheCapacity() {
+    return tokenClaimsCacheCapacity;
+  }
+
+  public boolean isStreamAccountResponses() {
+    return streamAccountResponses;
+  }
+
+  public long getAccountResponseCacheTtlMs() {
+    return accountResponseCacheTtlMs;
+  }
+
+  public long getAccountResponseCacheMaxBytes() {
+    return accountResponseCacheMaxBytes;
+  }
+
+  public long getAllowedServicePointsCacheTtlMs() {
+    return allowedServicePointsCacheTtlMs;
+  }
+
+  public int getAllowedServicePointsCacheCapacity() {
+    return allowedServicePointsCacheCapacity;
+  }
+
+  public long getHoldRequestCacheTtlMs() {
+    return holdRequestCacheTtlMs;
+  }
+
+  public int getHoldRequestCacheCapacity() {
+    return holdRequestCacheCapacity;
+  }
+
+  public int getBulkRequestConcurrency() {
+    return bulkRequestConcurrency;
+  }
+
+  public long getBatchStatusPollMinIntervalMs() {
+    return batchStatusPollMinIntervalMs;
+  }
+
+  public long getBatchStatusPollMaxIntervalMs() {
+    return batchStatusPollMaxIntervalMs;
+  }
+
+  public long getBatchStatusSnapshotMaxAgeMs() {
+    return batchStatusSnapshotMaxAgeMs;
+  }
+
+  public int getOkapiClientPoolSize() {
+    return okapiClientPoolSize;
+  }
+
+  public boolean isOkapiClientKeepAlive() {
+    return okapiClientKeepAlive;
+  }
+
+  public boolean isOkapiClientPipelining() {
+    return okapiClientPipelining;
+  }
+
+  public boolean isOkapiClientHttp2() {
+    return okapiClientHttp2;
+  }
+
+  public boolean isMetricsEnabled() {
+    return metricsEnabled;
+  }
+
+  public String getTracingExporter() {
+    return tracingExporter;
+  }
+
+  public String getTracingFile() {
+    return tracingFile;
+  }
+
+  public String getTracingOtlpEndpoint() {
+    return tracingOtlpEndpoint;
+  }
+
+  /**
+   * How many instances of the verticle to deploy, one per available
+   * processor unless set to a positive number.
+   */
+  public int getVerticleInstances() {
+    return verticleInstances > 0 ? verticleInstances : Runtime.getRuntime().availableProcessors();
+  }
+
+  public boolean isSecureStoreVirtualThreads() {
+    return secureStoreVirtualThreads;
+  }
+
+  public long getSecureStoreCacheTtlMs() {
+    return secureStoreCacheTtlMs;
+  }
+
+  public int getSecureStoreCacheCapacity() {
+    return secureStoreCacheCapacity;
+  }
+
+  public String getTruststoreType() {
+    return truststoreType;
+  }
+
+  public String getTruststorePath() {
+    return truststorePath;
+  }
+
+  public String getTruststorePassword() {
+    return truststorePassword;
+  }
+}
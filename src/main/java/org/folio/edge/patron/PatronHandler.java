@@ -7,23 +7,33 @@ import static org.folio.edge.patron.Constants.*;
 import static org.folio.edge.patron.model.HoldCancellationValidator.validateCancelHoldRequest;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
 import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpServerResponse;
 import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.client.HttpResponse;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.TimeZone;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
 
 import org.apache.commons.lang3.StringUtils;
@@ -31,17 +41,33 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.folio.edge.core.Handler;
 import org.folio.edge.core.security.SecureStore;
+import org.folio.edge.core.utils.ApiKeyUtils;
 import org.folio.edge.core.utils.Mappers;
 import org.folio.edge.core.utils.OkapiClient;
 import org.folio.edge.core.utils.OkapiClientFactory;
+import org.folio.edge.patron.cache.AccountResponseCache;
+import org.folio.edge.patron.cache.AllowedServicePointsCache;
+import org.folio.edge.patron.cache.HoldRequestCache;
+import org.folio.edge.patron.cache.KeycloakPublicKeyCache;
+import org.folio.edge.patron.cache.PatronIdCache;
+import org.folio.edge.patron.cache.TokenClaimsCache;
 import org.folio.edge.patron.model.error.Error;
 import org.folio.edge.patron.model.error.ErrorMessage;
 import org.folio.edge.patron.model.error.Errors;
+import org.folio.edge.patron.utils.AccountRequestHelper;
+import org.folio.edge.patron.utils.BatchStatusPoller;
+import org.folio.edge.patron.utils.BulkRequestHelper;
+import org.folio.edge.patron.utils.HoldCancellationHelper;
 import org.folio.edge.patron.utils.KeycloakClient;
 import org.folio.edge.patron.utils.KeycloakTokenHelper;
+import org.folio.edge.patron.utils.OkapiWebClients;
 import org.folio.edge.patron.utils.PatronAccountRequestParams;
 import org.folio.edge.patron.utils.PatronIdHelper;
+import org.folio.edge.patron.utils.PatronMetrics;
 import org.folio.edge.patron.utils.PatronOkapiClient;
+import org.folio.edge.patron.utils.PatronOkapiClients;
+import org.folio.edge.patron.utils.PatronTracing;
+import org.folio.edge.patron.utils.VirtualThreadSecureStore;
 
 public class PatronHandler extends Handler {
 
@@ -49,9 +75,105 @@ public class PatronHandler extends Handler {
     + " parameter value {%s} is not valid: must be an integer, greater than or equal to 0";
   private static final Logger logger = LogManager.getLogger(PatronHandler.class);
   private final KeycloakClient keycloakClient;
+  private final PatronIdCache patronIdCache;
+  private final KeycloakPublicKeyCache keycloakKeyCache;
+  private final TokenClaimsCache tokenClaimsCache;
+  private final AccountResponseCache accountResponseCache;
+  private final AllowedServicePointsCache allowedServicePointsCache;
+  private final HoldRequestCache holdRequestCache;
+  private final VirtualThreadSecureStore virtualThreadSecureStore;
+  private HttpClient accountStreamClient;
+  private int bulkRequestConcurrency = DEFAULT_BULK_REQUEST_CONCURRENCY;
+  private PatronConfig config = PatronConfig.getDefault();
+  private BatchStatusPoller batchStatusPoller;
+  private OkapiWebClients okapiWebClients;
+  private PatronMetrics metrics;
+  private PatronTracing tracing;
+  private final PatronOkapiClients patronClients = new PatronOkapiClients(MAX_CACHED_PATRON_CLIENTS);
+
   public PatronHandler(SecureStore secureStore, OkapiClientFactory ocf, KeycloakClient keycloakClient) {
+    this(secureStore, ocf, keycloakClient, getPatronIdCache(), getKeycloakKeyCache(), getTokenClaimsCache(),
+      getAccountResponseCache(), getAllowedServicePointsCache(), getHoldRequestCache());
+  }
+
+  /**
+   * Creates a handler using the given caches instead of the singletons; any of
+   * them may be null to disable that cache.
+   */
+  public PatronHandler(SecureStore secureStore, OkapiClientFactory ocf, KeycloakClient keycloakClient,
+    PatronIdCache patronIdCache, KeycloakPublicKeyCache keycloakKeyCache, TokenClaimsCache tokenClaimsCache,
+    AccountResponseCache accountResponseCache, AllowedServicePointsCache allowedServicePointsCache,
+    HoldRequestCache holdRequestCache) {
+
     super(secureStore, ocf);
     this.keycloakClient = keycloakClient;
+    this.patronIdCache = patronIdCache;
+    this.keycloakKeyCache = keycloakKeyCache;
+    this.tokenClaimsCache = tokenClaimsCache;
+    this.accountResponseCache = accountResponseCache;
+    this.allowedServicePointsCache = allowedServicePointsCache;
+    this.holdRequestCache = holdRequestCache;
+    this.virtualThreadSecureStore = secureStore instanceof VirtualThreadSecureStore store ? store : null;
+  }
+
+  /**
+   * Streams successful GET /patron/account responses through the given client
+   * instead of buffering them.
+   */
+  public PatronHandler withAccountStreaming(HttpClient httpClient) {
+    this.accountStreamClient = httpClient;
+    return this;
+  }
+
+  /**
+   * Applies the settings that aren't passed in on their own, e.g. the secure
+   * requests feature of the clients.
+   */
+  public PatronHandler withConfig(PatronConfig config) {
+    this.config = config;
+    this.bulkRequestConcurrency = config.getBulkRequestConcurrency();
+    return this;
+  }
+
+  /**
+   * Sets how many operations of a bulk request are sent to FOLIO at a time.
+   */
+  public PatronHandler withBulkRequestConcurrency(int concurrency) {
+    this.bulkRequestConcurrency = concurrency;
+    return this;
+  }
+
+  /**
+   * Polls the status of multi-item batch requests for clients that stream it.
+   */
+  public PatronHandler withBatchStatusPoller(BatchStatusPoller poller) {
+    this.batchStatusPoller = poller;
+    return this;
+  }
+
+  /**
+   * Sends the requests of each tenant to Okapi through its own connection
+   * pool.
+   */
+  public PatronHandler withOkapiWebClients(OkapiWebClients webClients) {
+    this.okapiWebClients = webClients;
+    return this;
+  }
+
+  /**
+   * Times the requests sent to FOLIO modules.
+   */
+  public PatronHandler withMetrics(PatronMetrics metrics) {
+    this.metrics = metrics;
+    return this;
+  }
+
+  /**
+   * Traces the stages of requests and the requests sent to FOLIO modules.
+   */
+  public PatronHandler withTracing(PatronTracing tracing) {
+    this.tracing = tracing;
+    return this;
   }
 
   @Override
@@ -76,11 +198,16 @@ public class PatronHandler extends Handler {
       return;
     }
 
-    super.handleCommon(ctx, requiredParams, optionalParams, (client, params) -> {
+    final PatronTracing.Stage apiKeyStage = tracing != null ? tracing.startStage("resolve API key") : null;
+    handleApiKey(ctx, requiredParams, optionalParams, (client, params) -> {
+      if (apiKeyStage != null) {
+        apiKeyStage.end();
+      }
       String alternateTenantId = ctx.request().getParam("alternateTenantId", client.tenant);
-      final PatronOkapiClient patronClient = new PatronOkapiClient(client, alternateTenantId);
+      final PatronOkapiClient patronClient = getPatronClient(ctx, client, alternateTenantId);
 
-      PatronIdHelper.lookupPatron(patronClient, alternateTenantId, extPatronId)
+      traced("look up patron",
+          () -> PatronIdHelper.lookupPatron(patronIdCache, patronClient, alternateTenantId, extPatronId))
         .onSuccess(patronId -> {
           params.put(PARAM_PATRON_ID, patronId);
           action.apply(patronClient, params);
@@ -96,6 +223,56 @@ public class PatronHandler extends Handler {
     });
   }
 
+  /**
+   * Resolves the API key to a client of its tenant like edge-common does, but
+   * first looks up its credentials on a virtual thread if the secure store is
+   * a {@link VirtualThreadSecureStore}.
+   */
+  private void handleApiKey(RoutingContext ctx, String[] requiredParams, String[] optionalParams,
+    TwoParamVoidFunction<OkapiClient, Map<String, String>> action) {
+
+    prefetchCredentials(ctx)
+      .onComplete(ar -> super.handleCommon(ctx, requiredParams, optionalParams, action));
+  }
+
+  private Future<Void> prefetchCredentials(RoutingContext ctx) {
+    // the API key handleCommon is going to resolve, from the sources configured for edge-common
+    final String apiKey = virtualThreadSecureStore != null ? keyHelper.getApiKey(ctx) : null;
+    if (apiKey == null || apiKey.isEmpty()) {
+      return Future.succeededFuture();
+    }
+    try {
+      var clientInfo = ApiKeyUtils.parseApiKey(apiKey);
+      return virtualThreadSecureStore.prefetch(clientInfo.salt, clientInfo.tenantId, clientInfo.username);
+    } catch (Exception e) {
+      // a malformed key is rejected by edge-common
+      return Future.succeededFuture();
+    }
+  }
+
+  private PatronOkapiClient getPatronClient(RoutingContext ctx, OkapiClient client, String alternateTenantId) {
+    return patronClients.get(client, getApiKeyUser(ctx), alternateTenantId, (okapiClient, tenantId) ->
+      new PatronOkapiClient(okapiClient, tenantId,
+        okapiWebClients != null ? okapiWebClients.get(okapiClient.tenant) : null,
+        config).withMetrics(metrics).withTracing(tracing));
+  }
+
+  /**
+   * The user of the API key the client logged in as, which tells apart the
+   * clients, and tokens, of several API keys of a tenant.
+   */
+  private String getApiKeyUser(RoutingContext ctx) {
+    try {
+      return ApiKeyUtils.parseApiKey(keyHelper.getApiKey(ctx)).username;
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  private <T> Future<T> traced(String stage, Supplier<Future<T>> operation) {
+    return tracing != null ? tracing.stage(stage, operation) : operation.get();
+  }
+
   private void handleSecureCommon(RoutingContext ctx, Consumer<RoutingContext> handler) {
     var token = ctx.request().getHeader(X_OKAPI_TOKEN);
     var tenant = ctx.request().getHeader(X_OKAPI_TENANT);
@@ -109,10 +286,11 @@ public class PatronHandler extends Handler {
       badRequest(ctx, "Missing tenant id");
       return;
     }
-    KeycloakTokenHelper.getClaimsFromToken(token, tenant, keycloakClient)
+    traced("validate access token",
+        () -> KeycloakTokenHelper.getTokenClaims(token, tenant, keycloakClient, keycloakKeyCache, tokenClaimsCache))
       .onSuccess(claims -> {
-        var vip = claims.get(VIP_CLAIM, Boolean.class);
-        var externalSystemId = claims.get(EXTERNAL_SYSTEM_ID_CLAIM, String.class);
+        var vip = claims.vip();
+        var externalSystemId = claims.externalSystemId();
         if (vip == null || externalSystemId == null) {
           logger.error("Token doesn't contain required claims");
           badRequest(ctx, "Token doesn't contain required claims");
@@ -147,12 +325,63 @@ public class PatronHandler extends Handler {
 
           var patronAccountRequestParams = new PatronAccountRequestParams(params.get(PARAM_PATRON_ID), includeLoans, includeCharges,
             includeHolds, includeBatches, sortBy, limit, offset);
-          ((PatronOkapiClient) client).getAccount(patronAccountRequestParams,
-            resp -> handleProxyResponse(ctx, resp),
-            t -> handleProxyException(ctx, t));
+          if (accountStreamClient != null) {
+            streamAccount(ctx, (PatronOkapiClient) client, patronAccountRequestParams);
+            return;
+          }
+          AccountRequestHelper.getAccount(accountResponseCache, (PatronOkapiClient) client,
+              patronAccountRequestParams)
+            .onSuccess(resp -> {
+              if (includeHolds && holdRequestCache != null && resp.statusCode() == 200) {
+                holdRequestCache.putAccountHolds(client.tenant, resp.body());
+              }
+              handleProxyResponse(ctx, resp);
+            })
+            .onFailure(t -> handleProxyException(ctx, t));
         });
   }
 
+  /**
+   * Pipes a successful account response to the client as it arrives, with
+   * backpressure, so memory per request doesn't depend on the account size.
+   * Error responses are small and get rewritten, so they are still buffered.
+   */
+  private void streamAccount(RoutingContext ctx, PatronOkapiClient client, PatronAccountRequestParams params) {
+    client.streamAccount(accountStreamClient, params)
+      .onSuccess(resp -> {
+        HttpServerResponse serverResponse = ctx.response();
+        int statusCode = resp.statusCode();
+        serverResponse.setStatusCode(statusCode);
+        if (statusCode >= 400) {
+          resp.body()
+            .onSuccess(body -> {
+              setContentType(serverResponse, APPLICATION_JSON);
+              serverResponse.end(getErrorMessage(statusCode, body.toString()));
+            })
+            .onFailure(t -> handleProxyException(ctx, t));
+          return;
+        }
+
+        setContentType(serverResponse, resp.getHeader(HttpHeaders.CONTENT_TYPE));
+        String contentLength = resp.getHeader(HttpHeaders.CONTENT_LENGTH);
+        if (contentLength != null) {
+          serverResponse.putHeader(HttpHeaders.CONTENT_LENGTH, contentLength);
+        } else {
+          serverResponse.setChunked(true);
+        }
+        resp.pipe()
+          .endOnFailure(false)
+          .to(serverResponse)
+          .onFailure(t -> {
+            // the status line is already out, all we can do is drop the connection
+            logger.error("Failed to stream account response", t);
+            resp.request().reset();
+            serverResponse.reset();
+          });
+      })
+      .onFailure(t -> handleProxyException(ctx, t));
+  }
+
   public void handleSecureGetAccount(RoutingContext ctx) {
     handleSecureCommon(ctx, this::handleGetAccount);
   }
@@ -164,9 +393,72 @@ public class PatronHandler extends Handler {
         (client, params) -> ((PatronOkapiClient) client).renewItem(
             params.get(PARAM_PATRON_ID),
             params.get(PARAM_ITEM_ID),
-            resp -> handleProxyResponse(ctx, resp),
-            t -> handleProxyException(ctx, t)));
+            resp -> handleAccountChangeResponse(ctx, client, params, resp),
+            t -> handleAccountChangeException(ctx, client, params, t)));
+
+  }
 
+  /**
+   * Renews several items of the patron; the patron is looked up once and the
+   * outcome of each renewal is written to the response as soon as it's known.
+   */
+  public void handleRenewItems(RoutingContext ctx) {
+    JsonObject body = ctx.body().asJsonObject();
+    JsonArray itemIds = body != null && body.getValue(FIELD_ITEM_IDS) instanceof JsonArray array ? array : null;
+    if (itemIds == null || itemIds.isEmpty()) {
+      badRequest(ctx, MSG_ITEMS_NOBODY);
+      return;
+    }
+    String validationResult = validateItemIds(itemIds);
+    if (validationResult != null) {
+      final int errorStatusCode = 422;
+      String errorMessage = get422ErrorMsg(errorStatusCode, constructValidationErrorMessage(validationResult));
+      ctx.response()
+        .setStatusCode(errorStatusCode)
+        .putHeader(HttpHeaders.CONTENT_TYPE, APPLICATION_JSON)
+        .end(errorMessage);
+      return;
+    }
+
+    List<String> items = new ArrayList<>(itemIds.size());
+    itemIds.forEach(itemId -> items.add((String) itemId));
+    handleCommon(ctx,
+        new String[] { PARAM_PATRON_ID },
+        new String[] {},
+        (client, params) -> {
+          final PatronOkapiClient patronClient = (PatronOkapiClient) client;
+          final String patronId = params.get(PARAM_PATRON_ID);
+          final HttpServerResponse response = ctx.response()
+            .setStatusCode(200)
+            .setChunked(true)
+            .putHeader(HttpHeaders.CONTENT_TYPE, APPLICATION_JSON);
+          response.write("{\"" + FIELD_ITEMS + "\":[");
+          final AtomicBoolean first = new AtomicBoolean(true);
+          BulkRequestHelper.runAll(items, FIELD_ITEM_ID, items, bulkRequestConcurrency,
+              itemId -> renewItem(patronClient, patronId, itemId),
+              result -> {
+                if (!response.closed()) {
+                  response.write((first.getAndSet(false) ? "" : ",") + result.encode());
+                }
+              })
+            .onComplete(ar -> {
+              invalidatePatronResponses(client, params);
+              if (!response.closed()) {
+                response.end("],\"totalRecords\":" + items.size() + "}");
+              }
+            });
+        });
+  }
+
+  private static Future<JsonObject> renewItem(PatronOkapiClient client, String patronId, String itemId) {
+    Promise<HttpResponse<Buffer>> promise = Promise.promise();
+    client.renewItem(patronId, itemId, promise::complete, promise::fail);
+    return promise.future()
+      .map(resp -> BulkRequestHelper.toResult(FIELD_ITEM_ID, itemId, resp));
+  }
+
+  public void handleSecureRenewItems(RoutingContext ctx) {
+    handleSecureCommon(ctx, this::handleRenewItems);
   }
 
   public void handlePlaceItemHold(RoutingContext ctx) {
@@ -182,8 +474,8 @@ public class PatronHandler extends Handler {
             params.get(PARAM_PATRON_ID),
             params.get(PARAM_ITEM_ID),
             body,
-            resp -> handleProxyResponse(ctx, resp),
-            t -> handleProxyException(ctx, t)));
+            resp -> handleAccountChangeResponse(ctx, client, params, resp),
+            t -> handleAccountChangeException(ctx, client, params, t)));
   }
 
   public void handleSecurePlaceItemHold(RoutingContext ctx) {
@@ -201,9 +493,9 @@ public class PatronHandler extends Handler {
     }
 
     final String body = String.valueOf(ctx.body().asJsonObject());
-    super.handleCommon(ctx, new String[]{}, new String[]{}, (client, params) -> {
+    handleApiKey(ctx, new String[]{}, new String[]{}, (client, params) -> {
       String alternateTenantId = ctx.request().getParam("alternateTenantId", client.tenant);
-      final PatronOkapiClient patronClient = new PatronOkapiClient(client, alternateTenantId);
+      final PatronOkapiClient patronClient = getPatronClient(ctx, client, alternateTenantId);
       patronAction.accept(patronClient, body);
     });
   }
@@ -243,8 +535,9 @@ public class PatronHandler extends Handler {
               params.get(PARAM_PATRON_ID),
               params.get(PARAM_HOLD_ID),
               ctx.body().asJsonObject(),
-              resp -> handleProxyResponse(ctx, resp),
-              t -> handleProxyException(ctx, t))
+              holdRequestCache,
+              resp -> handleAccountChangeResponse(ctx, client, params, resp),
+              t -> handleAccountChangeException(ctx, client, params, t))
         );
   }
 
@@ -252,6 +545,54 @@ public class PatronHandler extends Handler {
     handleSecureCommon(ctx, this::handleCancelHold);
   }
 
+  /**
+   * Cancels several holds of the patron; the patron is looked up once and the
+   * response holds the outcome of each cancellation.
+   */
+  public void handleCancelHolds(RoutingContext ctx) {
+    JsonObject body = ctx.body().asJsonObject();
+    JsonArray holds = body != null && body.getValue(FIELD_HOLDS) instanceof JsonArray array ? array : null;
+    if (holds == null || holds.isEmpty()) {
+      badRequest(ctx, MSG_HOLD_CANCELLATIONS_NOBODY);
+      return;
+    }
+    String validationResult = holds.size() > MAX_BULK_REQUEST_SIZE
+      ? String.format("at most %d holds can be cancelled at once", MAX_BULK_REQUEST_SIZE)
+      : validateCancelHoldRequests(holds);
+    if (validationResult != null) {
+      final int errorStatusCode = 422;
+      String errorMessage = get422ErrorMsg(errorStatusCode, constructValidationErrorMessage(validationResult));
+      ctx.response()
+        .setStatusCode(errorStatusCode)
+        .putHeader(HttpHeaders.CONTENT_TYPE, APPLICATION_JSON)
+        .end(errorMessage);
+      return;
+    }
+
+    List<JsonObject> cancellations = new ArrayList<>(holds.size());
+    holds.forEach(hold -> cancellations.add((JsonObject) hold));
+    handleCommon(ctx,
+        new String[] { PARAM_PATRON_ID },
+        new String[] {},
+        (client, params) ->
+          HoldCancellationHelper.cancelHolds((PatronOkapiClient) client, params.get(PARAM_PATRON_ID),
+              cancellations, holdRequestCache, bulkRequestConcurrency)
+            .onComplete(ar -> invalidatePatronResponses(client, params))
+            .onSuccess(results -> ctx.response()
+              .setStatusCode(200)
+              .putHeader(HttpHeaders.CONTENT_TYPE, APPLICATION_JSON)
+              .end(new JsonObject()
+                .put(FIELD_HOLDS, results)
+                .put("totalRecords", results.size())
+                .encode()))
+            .onFailure(t -> handleProxyException(ctx, t))
+        );
+  }
+
+  public void handleSecureCancelHolds(RoutingContext ctx) {
+    handleSecureCommon(ctx, this::handleCancelHolds);
+  }
+
   public void handlePlaceInstanceHold(RoutingContext ctx) {
     if (ctx.body().asJsonObject() == null) {
       badRequest(ctx, MSG_HOLD_NOBODY);
@@ -265,8 +606,8 @@ public class PatronHandler extends Handler {
             params.get(PARAM_PATRON_ID),
             params.get(PARAM_INSTANCE_ID),
             body,
-            resp -> handleProxyResponse(ctx, resp),
-            t -> handleProxyException(ctx, t)));
+            resp -> handleAccountChangeResponse(ctx, client, params, resp),
+            t -> handleAccountChangeException(ctx, client, params, t)));
   }
 
   public void handleSecurePlaceInstanceHold(RoutingContext ctx) {
@@ -277,11 +618,29 @@ public class PatronHandler extends Handler {
     handleCommon(ctx,
       new String[] { PARAM_PATRON_ID, PARAM_INSTANCE_ID },
       new String[] {},
-      (client, params) -> ((PatronOkapiClient) client).getAllowedServicePointsForInstance(
-        params.get(PARAM_PATRON_ID),
-        params.get(PARAM_INSTANCE_ID),
-        resp -> handleProxyResponse(ctx, resp),
-        t -> handleProxyException(ctx, t)));
+      (client, params) -> {
+        String patronId = params.get(PARAM_PATRON_ID);
+        String instanceId = params.get(PARAM_INSTANCE_ID);
+        if (allowedServicePointsCache != null) {
+          var cached = allowedServicePointsCache.getForInstance(client.tenant, patronId, instanceId);
+          if (cached != null) {
+            handleProxyResponse(ctx, cached);
+            return;
+          }
+        }
+        long generation = allowedServicePointsCache != null
+          ? allowedServicePointsCache.getGeneration(client.tenant, patronId) : 0;
+        ((PatronOkapiClient) client).getAllowedServicePointsForInstance(
+          patronId,
+          instanceId,
+          resp -> {
+            if (allowedServicePointsCache != null) {
+              allowedServicePointsCache.putForInstance(client.tenant, patronId, instanceId, resp, generation);
+            }
+            handleProxyResponse(ctx, resp);
+          },
+          t -> handleProxyException(ctx, t));
+      });
   }
 
   public void handleSecureGetAllowedServicePointsForInstance(RoutingContext ctx) {
@@ -322,8 +681,25 @@ public class PatronHandler extends Handler {
         params.get(PARAM_PATRON_ID),
         params.get(PARAM_INSTANCE_ID),
         body,
-        resp -> handleProxyResponse(ctx, resp),
-        t -> handleProxyException(ctx, t)));
+        resp -> {
+          trackBatchRequest((PatronOkapiClient) client, params, resp);
+          handleAccountChangeResponse(ctx, client, params, resp);
+        },
+        t -> handleAccountChangeException(ctx, client, params, t)));
+  }
+
+  private void trackBatchRequest(PatronOkapiClient client, Map<String, String> params, HttpResponse<Buffer> resp) {
+    if (batchStatusPoller == null || resp.statusCode() != 201 || resp.body() == null) {
+      return;
+    }
+    try {
+      String batchId = resp.bodyAsJsonObject().getString(FIELD_BATCH_ID);
+      if (batchId != null) {
+        batchStatusPoller.track(client, params.get(PARAM_PATRON_ID), params.get(PARAM_INSTANCE_ID), batchId);
+      }
+    } catch (Exception e) {
+      logger.warn("Unable to track batch request: {}", e.getMessage());
+    }
   }
 
   public void handleSecurePostMultiItemBatchRequest(RoutingContext ctx) {
@@ -334,28 +710,142 @@ public class PatronHandler extends Handler {
     handleCommon(ctx,
       new String[] { PARAM_PATRON_ID, PARAM_INSTANCE_ID, PARAM_BATCH_REQUEST_ID },
       new String[] {},
-      (client, params) -> ((PatronOkapiClient) client).getMultiItemBatchRequestStatus(
-        params.get(PARAM_PATRON_ID),
-        params.get(PARAM_INSTANCE_ID),
-        params.get(PARAM_BATCH_REQUEST_ID),
-        resp -> handleProxyResponse(ctx, resp),
-        t -> handleProxyException(ctx, t)));
+      (client, params) -> {
+        if (batchStatusPoller != null && batchStatusPoller.isSnapshotEnabled()) {
+          batchStatusPoller.getStatus((PatronOkapiClient) client,
+              params.get(PARAM_PATRON_ID),
+              params.get(PARAM_INSTANCE_ID),
+              params.get(PARAM_BATCH_REQUEST_ID))
+            .onSuccess(resp -> handleProxyResponse(ctx, resp))
+            .onFailure(t -> handleProxyException(ctx, t));
+          return;
+        }
+        ((PatronOkapiClient) client).getMultiItemBatchRequestStatus(
+          params.get(PARAM_PATRON_ID),
+          params.get(PARAM_INSTANCE_ID),
+          params.get(PARAM_BATCH_REQUEST_ID),
+          resp -> handleProxyResponse(ctx, resp),
+          t -> handleProxyException(ctx, t));
+      });
   }
 
   public void handleSecureGetMultiItemBatchRequestStatus(RoutingContext ctx) {
     handleSecureCommon(ctx, this::handleGetMultiItemBatchRequestStatus);
   }
 
+  /**
+   * Streams the status of a multi-item batch request as server-sent events:
+   * a "status" event whenever it changed, until it's no longer in progress.
+   * If the status can't be retrieved in the first place, the error is
+   * returned as a regular response.  Without a poller, e.g. in handlers built
+   * for tests, this answers 501.
+   */
+  public void handleStreamMultiItemBatchRequestStatus(RoutingContext ctx) {
+    if (batchStatusPoller == null) {
+      ctx.response()
+        .setStatusCode(501)
+        .putHeader(HttpHeaders.CONTENT_TYPE, APPLICATION_JSON)
+        .end(getStructuredErrorMessage(501, MSG_BATCH_STATUS_STREAMING_UNAVAILABLE));
+      return;
+    }
+    handleCommon(ctx,
+      new String[] { PARAM_PATRON_ID, PARAM_INSTANCE_ID, PARAM_BATCH_REQUEST_ID },
+      new String[] {},
+      (client, params) -> {
+        final HttpServerResponse response = ctx.response();
+        final Runnable unsubscribe = batchStatusPoller.subscribe((PatronOkapiClient) client,
+          params.get(PARAM_PATRON_ID), params.get(PARAM_INSTANCE_ID), params.get(PARAM_BATCH_REQUEST_ID),
+          new BatchStatusPoller.Subscriber() {
+            private boolean started;
+
+            @Override
+            public void onStatus(int statusCode, Buffer body) {
+              if (!started && statusCode != 200) {
+                response.setStatusCode(statusCode);
+                setContentType(response, APPLICATION_JSON);
+                response.end(getErrorMessage(statusCode, body.toString()));
+                return;
+              }
+              start();
+              writeEvent(response, statusCode == 200 ? "status" : "error",
+                statusCode == 200 ? body.toString() : getErrorMessage(statusCode, body.toString()));
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+              if (!started) {
+                handleProxyException(ctx, t);
+                return;
+              }
+              writeEvent(response, "error", isTimeoutException(t)
+                ? getStructuredErrorMessage(408, MSG_REQUEST_TIMEOUT)
+                : getStructuredErrorMessage(500, t.getMessage()));
+            }
+
+            @Override
+            public void onEnd() {
+              if (!response.ended() && !response.closed()) {
+                response.end();
+              }
+            }
+
+            private void start() {
+              if (!started) {
+                started = true;
+                response.setStatusCode(200)
+                  .setChunked(true)
+                  .putHeader(HttpHeaders.CONTENT_TYPE, TEXT_EVENT_STREAM)
+                  .putHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+              }
+            }
+          });
+        response.closeHandler(v -> unsubscribe.run());
+      });
+  }
+
+  public void handleSecureStreamMultiItemBatchRequestStatus(RoutingContext ctx) {
+    handleSecureCommon(ctx, this::handleStreamMultiItemBatchRequestStatus);
+  }
+
+  private static void writeEvent(HttpServerResponse response, String event, String data) {
+    if (response.ended() || response.closed()) {
+      return;
+    }
+    StringBuilder message = new StringBuilder("event: ").append(event).append('\n');
+    for (String line : data.split("\r?\n")) {
+      message.append("data: ").append(line).append('\n');
+    }
+    response.write(message.append('\n').toString());
+  }
+
 
   public void handleGetAllowedServicePointsForItem(RoutingContext ctx) {
     handleCommon(ctx,
       new String[] { PARAM_PATRON_ID, PARAM_ITEM_ID },
       new String[] {},
-      (client, params) -> ((PatronOkapiClient) client).getAllowedServicePointsForItem(
-        params.get(PARAM_PATRON_ID),
-        params.get(PARAM_ITEM_ID),
-        resp -> handleProxyResponse(ctx, resp),
-        t -> handleProxyException(ctx, t)));
+      (client, params) -> {
+        String patronId = params.get(PARAM_PATRON_ID);
+        String itemId = params.get(PARAM_ITEM_ID);
+        if (allowedServicePointsCache != null) {
+          var cached = allowedServicePointsCache.getForItem(client.tenant, patronId, itemId);
+          if (cached != null) {
+            handleProxyResponse(ctx, cached);
+            return;
+          }
+        }
+        long generation = allowedServicePointsCache != null
+          ? allowedServicePointsCache.getGeneration(client.tenant, patronId) : 0;
+        ((PatronOkapiClient) client).getAllowedServicePointsForItem(
+          patronId,
+          itemId,
+          resp -> {
+            if (allowedServicePointsCache != null) {
+              allowedServicePointsCache.putForItem(client.tenant, patronId, itemId, resp, generation);
+            }
+            handleProxyResponse(ctx, resp);
+          },
+          t -> handleProxyException(ctx, t));
+      });
   }
 
   public void handleSecureGetAllowedServicePointsForItem(RoutingContext ctx) {
@@ -377,9 +867,9 @@ public class PatronHandler extends Handler {
       return;
     }
 
-    super.handleCommon(ctx, new String[]{}, new String[]{}, (client, params) -> {
+    handleApiKey(ctx, new String[]{}, new String[]{}, (client, params) -> {
       String alternateTenantId = ctx.request().getParam("alternateTenantId", client.tenant);
-      final PatronOkapiClient patronClient = new PatronOkapiClient(client, alternateTenantId);
+      final PatronOkapiClient patronClient = getPatronClient(ctx, client, alternateTenantId);
 
       patronClient.getPatronRegistrationStatus(
         emailId != null ? emailId : externalSystemId,
@@ -455,7 +945,7 @@ public class PatronHandler extends Handler {
     int statusCode = resp.statusCode();
     serverResponse.setStatusCode(statusCode);
 
-    String respBody = resp.bodyAsString();
+    Buffer respBody = resp.body();
     if (logger.isDebugEnabled() ) {
       logger.debug("response: {}", respBody);
     }
@@ -467,7 +957,7 @@ public class PatronHandler extends Handler {
       serverResponse.end(respBody);  //not an error case, pass on the response body as received
     }
     else {
-      String errorMsg = getErrorMessage(statusCode, respBody);
+      String errorMsg = getErrorMessage(statusCode, resp.bodyAsString());
       setContentType(serverResponse, APPLICATION_JSON);
       serverResponse.end(errorMsg);
     }
@@ -480,17 +970,19 @@ public class PatronHandler extends Handler {
     int statusCode = resp.statusCode();
     serverResponse.setStatusCode(statusCode);
 
-    String respBody = resp.bodyAsString();
+    Buffer body = resp.body();
     if (logger.isDebugEnabled()) {
-      logger.debug("{}:: response {}", logPrefix, respBody);
+      logger.debug("{}:: response {}", logPrefix, body);
     }
 
     String contentType = resp.getHeader(HttpHeaders.CONTENT_TYPE.toString());
 
-    if (statusCode < 400 && Objects.nonNull(respBody)) {
+    if (statusCode < 400 && Objects.nonNull(body)) {
       setContentType(serverResponse, contentType);
-      serverResponse.end(respBody);  // Not an error case, pass on the response body as received
+      serverResponse.end(body);  // Not an error case, pass on the response body as received
     } else {
+      // only error responses need decoding, to be rewritten
+      String respBody = resp.bodyAsString();
       String errorMsg = (statusCode == 404 || statusCode == 400)
         ? getFormattedErrorMsg(statusCode, respBody)
         : errorMessageFunction.apply(respBody);
@@ -508,6 +1000,32 @@ public class PatronHandler extends Handler {
   }
 
 
+  /**
+   * Responses to requests that may have changed the patron's account, after
+   * which the patron has to get a fresh account on their next request.
+   */
+  private void handleAccountChangeResponse(RoutingContext ctx, OkapiClient client, Map<String, String> params,
+    HttpResponse<Buffer> resp) {
+
+    invalidatePatronResponses(client, params);
+    handleProxyResponse(ctx, resp);
+  }
+
+  private void handleAccountChangeException(RoutingContext ctx, OkapiClient client, Map<String, String> params,
+    Throwable t) {
+
+    invalidatePatronResponses(client, params);
+    handleProxyException(ctx, t);
+  }
+
+  private void invalidatePatronResponses(OkapiClient client, Map<String, String> params) {
+    String patronId = params.get(PARAM_PATRON_ID);
+    AccountRequestHelper.invalidate(accountResponseCache, client.tenant, patronId);
+    if (allowedServicePointsCache != null) {
+      allowedServicePointsCache.invalidate(client.tenant, patronId);
+    }
+  }
+
   @Override
   protected void handleProxyException(RoutingContext ctx, Throwable t) {
     logger.error("Exception retrieving data from mod-patron:", t);
@@ -540,7 +1058,7 @@ public class PatronHandler extends Handler {
     return false;
   }
 
-  private static String checkDates(JsonObject requestMessage) {
+  static String checkDates(JsonObject requestMessage) {
     requestMessage = validateHoldsExpirationDate(requestMessage);
     return updateRequestDateWithTimestamp(requestMessage);
   }
@@ -567,7 +1085,7 @@ public class PatronHandler extends Handler {
     return requestMessage;
   }
 
-  private String getStructuredErrorMessage(int statusCode, String message){
+  static String getStructuredErrorMessage(int statusCode, String message){
     String finalMsg;
     try{
       ErrorMessage error = new ErrorMessage(statusCode, message);
@@ -579,7 +1097,7 @@ public class PatronHandler extends Handler {
     return finalMsg;
   }
 
-  private String get422ErrorMsg(int statusCode, Errors err) {
+  private static String get422ErrorMsg(int statusCode, Errors err) {
     String errorMessage = "";
     List<Error> errors = err.getErrors();
 
@@ -596,7 +1114,7 @@ public class PatronHandler extends Handler {
     return errorMessage;
   }
 
-  private String get422ErrorMsg(int statusCode, String respBody){
+  private static String get422ErrorMsg(int statusCode, String respBody){
 
     logger.debug("422 message: {}", respBody);
     String errorMessage = "";
@@ -638,7 +1156,7 @@ public class PatronHandler extends Handler {
     }
   }
 
-  private String getErrorMessage(int statusCode, String respBody){
+  static String getErrorMessage(int statusCode, String respBody){
 
     if (statusCode == 422)
       return get422ErrorMsg(statusCode, respBody);
@@ -646,6 +1164,48 @@ public class PatronHandler extends Handler {
       return getStructuredErrorMessage(statusCode, respBody);
   }
 
+  private static String validateItemIds(JsonArray itemIds) {
+    if (itemIds.size() > MAX_BULK_REQUEST_SIZE) {
+      return String.format("at most %d items can be renewed at once", MAX_BULK_REQUEST_SIZE);
+    }
+    Set<String> distinct = new HashSet<>();
+    for (int i = 0; i < itemIds.size(); i++) {
+      if (!(itemIds.getValue(i) instanceof String itemId) || !isUUID(itemId)) {
+        return "invalid item id at index " + i;
+      }
+      if (!distinct.add(itemId)) {
+        return "item " + itemId + " is renewed more than once";
+      }
+    }
+    return null;
+  }
+
+  private static boolean isUUID(String value) {
+    try {
+      UUID.fromString(value);
+      return true;
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  private static String validateCancelHoldRequests(JsonArray holds) {
+    Set<String> holdIds = new HashSet<>();
+    for (int i = 0; i < holds.size(); i++) {
+      if (!(holds.getValue(i) instanceof JsonObject hold)) {
+        return "invalid holdCancellationRequest at index " + i;
+      }
+      String validationResult = validateCancelHoldRequest(hold);
+      if (validationResult != null) {
+        return validationResult;
+      }
+      if (!holdIds.add(hold.getString(FIELD_HOLD_ID))) {
+        return "hold " + hold.getString(FIELD_HOLD_ID) + " is cancelled more than once";
+      }
+    }
+    return null;
+  }
+
   private Errors constructValidationErrorMessage(String coreMessage) {
     Error error = new Error();
     error.setCode("422");
@@ -657,4 +1217,58 @@ public class PatronHandler extends Handler {
 
     return errors;
   }
+
+  private static PatronIdCache getPatronIdCache() {
+    try {
+      return PatronIdCache.getInstance();
+    } catch (PatronIdCache.PatronIdCacheNotInitializedException e) {
+      logger.warn("PatronIdCache not initialized, patron ids won't be cached");
+      return null;
+    }
+  }
+
+  private static KeycloakPublicKeyCache getKeycloakKeyCache() {
+    try {
+      return KeycloakPublicKeyCache.getInstance();
+    } catch (KeycloakPublicKeyCache.KeycloakPublicKeyCacheNotInitializedException e) {
+      logger.warn("KeycloakPublicKeyCache not initialized, keys won't be cached");
+      return null;
+    }
+  }
+
+  private static AccountResponseCache getAccountResponseCache() {
+    try {
+      return AccountResponseCache.getInstance();
+    } catch (AccountResponseCache.AccountResponseCacheNotInitializedException e) {
+      logger.warn("AccountResponseCache not initialized, account responses won't be cached");
+      return null;
+    }
+  }
+
+  private static AllowedServicePointsCache getAllowedServicePointsCache() {
+    try {
+      return AllowedServicePointsCache.getInstance();
+    } catch (AllowedServicePointsCache.AllowedServicePointsCacheNotInitializedException e) {
+      logger.warn("AllowedServicePointsCache not initialized, allowed service points won't be cached");
+      return null;
+    }
+  }
+
+  private static HoldRequestCache getHoldRequestCache() {
+    try {
+      return HoldRequestCache.getInstance();
+    } catch (HoldRequestCache.HoldRequestCacheNotInitializedException e) {
+      logger.warn("HoldRequestCache not initialized, hold requests won't be cached");
+      return null;
+    }
+  }
+
+  private static TokenClaimsCache getTokenClaimsCache() {
+    try {
+      return TokenClaimsCache.getInstance();
+    } catch (TokenClaimsCache.TokenClaimsCacheNotInitializedException e) {
+      logger.warn("TokenClaimsCache not initialized, token claims won't be cached");
+      return null;
+    }
+  }
 }
@@ -0,0 +1,131 @@
+package org.folio.edge.patron.cache;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.web.client.HttpResponse;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.edge.patron.utils.PatronAccountRequestParams;
+
+/**
+ * Short-lived cache of successful mod-patron account responses, keyed by
+ * tenant and request params, and bounded by the total size of the cached
+ * bodies.  All entries of a patron are dropped when the patron's account is
+ * changed through this node, see {@link #invalidate(String, String)}.
+ */
+public class AccountResponseCache {
+
+  private static final Logger logger = LogManager.getLogger(AccountResponseCache.class);
+
+  private static volatile AccountResponseCache instance = null;
+
+  private final PatronResponseCache<PatronAccountRequestParams> cache;
+
+  private AccountResponseCache(long ttl, long maxBytes) {
+    logger.info("Using TTL: {}", ttl);
+    logger.info("Using max bytes: {}", maxBytes);
+    cache = new PatronResponseCache<>(ttl, maxBytes, response -> response.body().length());
+  }
+
+  /**
+   * Get the AccountResponseCache singleton. the singleton must be initialized before
+   * calling this method.
+   *
+   * @see {@link #initialize(long, long)}
+   *
+   * @return the AccountResponseCache singleton instance.
+   */
+  public static AccountResponseCache getInstance() {
+    final AccountResponseCache cache = instance;
+    if (cache == null) {
+      throw new AccountResponseCacheNotInitializedException(
+          "You must call AccountResponseCache.initialize(ttl, maxBytes) before you can get the singleton instance");
+    }
+    return cache;
+  }
+
+  /**
+   * Creates an AccountResponseCache which isn't the singleton, e.g. to give a verticle its
+   * own cache.
+   */
+  public static AccountResponseCache create(long ttl, long maxBytes) {
+    return new AccountResponseCache(ttl, maxBytes);
+  }
+
+  /**
+   * Creates a new AccountResponseCache instance, replacing the existing one if it
+   * already exists; in which case all pre-existing cache entries will be lost.
+   *
+   * @param ttl
+   *          cache entry time to live in ms; 0 disables the cache
+   * @param maxBytes
+   *          maximum total size of the cached response bodies
+   * @return the new AccountResponseCache singleton instance
+   */
+  public static synchronized AccountResponseCache initialize(long ttl, long maxBytes) {
+    if (instance != null) {
+      logger.warn("Reinitializing cache.  All cached entries will be lost");
+    }
+    instance = new AccountResponseCache(ttl, maxBytes);
+    return instance;
+  }
+
+  public boolean isEnabled() {
+    return cache.isEnabled();
+  }
+
+  public HttpResponse<Buffer> get(String tenant, PatronAccountRequestParams params) {
+    return cache.get(tenant, params.patronId(), params);
+  }
+
+  /**
+   * The patron's current generation, to be read before requesting the account
+   * and passed to {@link #put}, so a response that was requested before a
+   * change of the account isn't cached.
+   */
+  public long getGeneration(String tenant, String patronId) {
+    return cache.getGeneration(tenant, patronId);
+  }
+
+  public void put(String tenant, PatronAccountRequestParams params, HttpResponse<Buffer> response,
+    long generation) {
+
+    cache.put(tenant, params.patronId(), params, response, generation);
+  }
+
+  /**
+   * Drops all cached responses for the patron, and keeps responses that are
+   * currently being requested from being cached.
+   */
+  public void invalidate(String tenant, String patronId) {
+    cache.invalidate(tenant, patronId);
+  }
+
+  /**
+   * @return the total size of the cached response bodies
+   */
+  public long getBytes() {
+    return cache.getWeight();
+  }
+
+  public long getHitCount() {
+    return cache.getHitCount();
+  }
+
+  public long getMissCount() {
+    return cache.getMissCount();
+  }
+
+  public long getEvictionCount() {
+    return cache.getEvictionCount();
+  }
+
+  public static class AccountResponseCacheNotInitializedException extends RuntimeException {
+
+    private static final long serialVersionUID = -2187337346512391853L;
+
+    public AccountResponseCacheNotInitializedException(String msg) {
+      super(msg);
+    }
+  }
+
+}
@@ -0,0 +1,137 @@
+package org.folio.edge.patron.cache;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.web.client.HttpResponse;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Successful allowed service points responses for an instance or an item,
+ * keyed by tenant, patron and the instance or item id.  All entries of a
+ * patron are dropped when the patron places a hold or otherwise changes
+ * their account through this node, see {@link #invalidate(String, String)}.
+ */
+public class AllowedServicePointsCache {
+
+  private static final Logger logger = LogManager.getLogger(AllowedServicePointsCache.class);
+
+  private static volatile AllowedServicePointsCache instance = null;
+
+  private final PatronResponseCache<String> cache;
+
+  private AllowedServicePointsCache(long ttl, int capacity) {
+    logger.info("Using TTL: {}", ttl);
+    logger.info("Using capacity: {}", capacity);
+    cache = new PatronResponseCache<>(ttl, capacity, response -> 1);
+  }
+
+  /**
+   * Get the AllowedServicePointsCache singleton. the singleton must be initialized before
+   * calling this method.
+   *
+   * @see {@link #initialize(long, int)}
+   *
+   * @return the AllowedServicePointsCache singleton instance.
+   */
+  public static AllowedServicePointsCache getInstance() {
+    final AllowedServicePointsCache cache = instance;
+    if (cache == null) {
+      throw new AllowedServicePointsCacheNotInitializedException(
+          "You must call AllowedServicePointsCache.initialize(ttl, capacity) before you can get the singleton instance");
+    }
+    return cache;
+  }
+
+  /**
+   * Creates an AllowedServicePointsCache which isn't the singleton, e.g. to give a verticle its
+   * own cache.
+   */
+  public static AllowedServicePointsCache create(long ttl, int capacity) {
+    return new AllowedServicePointsCache(ttl, capacity);
+  }
+
+  /**
+   * Creates a new AllowedServicePointsCache instance, replacing the existing one if it
+   * already exists; in which case all pre-existing cache entries will be lost.
+   *
+   * @param ttl
+   *          cache entry time to live in ms; 0 disables the cache
+   * @param capacity
+   *          maximum number of entries this cache will hold before pruning
+   * @return the new AllowedServicePointsCache singleton instance
+   */
+  public static synchronized AllowedServicePointsCache initialize(long ttl, int capacity) {
+    if (instance != null) {
+      logger.warn("Reinitializing cache.  All cached entries will be lost");
+    }
+    instance = new AllowedServicePointsCache(ttl, capacity);
+    return instance;
+  }
+
+  public HttpResponse<Buffer> getForInstance(String tenant, String patronId, String instanceId) {
+    return cache.get(tenant, patronId, instanceKey(instanceId));
+  }
+
+  public HttpResponse<Buffer> getForItem(String tenant, String patronId, String itemId) {
+    return cache.get(tenant, patronId, itemKey(itemId));
+  }
+
+  /**
+   * The patron's current generation, to be read before requesting the service
+   * points and passed to the put methods, so a response that was requested
+   * before the patron placed a hold isn't cached.
+   */
+  public long getGeneration(String tenant, String patronId) {
+    return cache.getGeneration(tenant, patronId);
+  }
+
+  public void putForInstance(String tenant, String patronId, String instanceId, HttpResponse<Buffer> response,
+    long generation) {
+
+    cache.put(tenant, patronId, instanceKey(instanceId), response, generation);
+  }
+
+  public void putForItem(String tenant, String patronId, String itemId, HttpResponse<Buffer> response,
+    long generation) {
+
+    cache.put(tenant, patronId, itemKey(itemId), response, generation);
+  }
+
+  public void invalidate(String tenant, String patronId) {
+    cache.invalidate(tenant, patronId);
+  }
+
+  public long size() {
+    return cache.getWeight();
+  }
+
+  public long getHitCount() {
+    return cache.getHitCount();
+  }
+
+  public long getMissCount() {
+    return cache.getMissCount();
+  }
+
+  public long getEvictionCount() {
+    return cache.getEvictionCount();
+  }
+
+  private static String instanceKey(String instanceId) {
+    return "instance:" + instanceId;
+  }
+
+  private static String itemKey(String itemId) {
+    return "item:" + itemId;
+  }
+
+  public static class AllowedServicePointsCacheNotInitializedException extends RuntimeException {
+
+    private static final long serialVersionUID = 5573018377203431960L;
+
+    public AllowedServicePointsCacheNotInitializedException(String msg) {
+      super(msg);
+    }
+  }
+
+}
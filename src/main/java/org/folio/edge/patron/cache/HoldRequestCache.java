@@ -0,0 +1,157 @@
+package org.folio.edge.patron.cache;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+/**
+ * The fields of circulation request records that cancelling a hold needs
+ * (id, pickup service point and request date), keyed by tenant and request
+ * id.  Filled from the holds of account responses and from batch lookups, so
+ * most cancellations can skip fetching the request from mod-circulation.
+ */
+public class HoldRequestCache {
+
+  private static final Logger logger = LogManager.getLogger(HoldRequestCache.class);
+
+  private static volatile HoldRequestCache instance = null;
+
+  private final RefreshAheadCache<JsonObject> cache;
+  private final long ttl;
+
+  private HoldRequestCache(long ttl, int capacity) {
+    logger.info("Using TTL: {}", ttl);
+    logger.info("Using capacity: {}", capacity);
+    this.ttl = ttl;
+    cache = new RefreshAheadCache<>(ttl, 0, capacity, 1);
+  }
+
+  /**
+   * Get the HoldRequestCache singleton. the singleton must be initialized before
+   * calling this method.
+   *
+   * @see {@link #initialize(long, int)}
+   *
+   * @return the HoldRequestCache singleton instance.
+   */
+  public static HoldRequestCache getInstance() {
+    final HoldRequestCache cache = instance;
+    if (cache == null) {
+      throw new HoldRequestCacheNotInitializedException(
+          "You must call HoldRequestCache.initialize(ttl, capacity) before you can get the singleton instance");
+    }
+    return cache;
+  }
+
+  /**
+   * Creates a HoldRequestCache which isn't the singleton, e.g. to give a verticle its
+   * own cache.
+   */
+  public static HoldRequestCache create(long ttl, int capacity) {
+    return new HoldRequestCache(ttl, capacity);
+  }
+
+  /**
+   * Creates a new HoldRequestCache instance, replacing the existing one if it
+   * already exists; in which case all pre-existing cache entries will be lost.
+   *
+   * @param ttl
+   *          cache entry time to live in ms; 0 disables the cache
+   * @param capacity
+   *          maximum number of entries this cache will hold before pruning
+   * @return the new HoldRequestCache singleton instance
+   */
+  public static synchronized HoldRequestCache initialize(long ttl, int capacity) {
+    if (instance != null) {
+      logger.warn("Reinitializing cache.  All cached entries will be lost");
+    }
+    instance = new HoldRequestCache(ttl, capacity);
+    return instance;
+  }
+
+  public boolean isEnabled() {
+    return ttl > 0;
+  }
+
+  public JsonObject get(String tenant, String requestId) {
+    return isEnabled() ? cache.get(computeKey(tenant, requestId)) : null;
+  }
+
+  public void put(String tenant, String requestId, JsonObject request) {
+    if (isEnabled()) {
+      cache.replace(computeKey(tenant, requestId), request);
+    }
+  }
+
+  /**
+   * Caches the request records behind the holds of a mod-patron account
+   * response.  Holds missing any of the fields cancelling needs are skipped.
+   */
+  public void putAccountHolds(String tenant, Buffer account) {
+    if (!isEnabled() || account == null) {
+      return;
+    }
+    try {
+      JsonArray holds = new JsonObject(account).getJsonArray("holds");
+      if (holds == null) {
+        return;
+      }
+      for (int i = 0; i < holds.size(); i++) {
+        JsonObject hold = holds.getJsonObject(i);
+        String requestId = hold.getString("requestId");
+        String pickupServicePointId = hold.getString("pickupLocationId");
+        String requestDate = hold.getValue("requestDate") instanceof String date ? date : null;
+        if (requestId == null || pickupServicePointId == null || !isValidDate(requestDate)) {
+          continue;
+        }
+        put(tenant, requestId, new JsonObject()
+          .put("id", requestId)
+          .put("pickupServicePointId", pickupServicePointId)
+          .put("requestDate", requestDate));
+      }
+    } catch (Exception e) {
+      logger.warn("Failed to cache the holds of an account response", e);
+    }
+  }
+
+  /**
+   * Drops the request, e.g. once it was cancelled.
+   */
+  public void remove(String tenant, String requestId) {
+    cache.remove(computeKey(tenant, requestId));
+  }
+
+  public int size() {
+    return cache.size();
+  }
+
+  private static boolean isValidDate(String date) {
+    if (date == null) {
+      return false;
+    }
+    try {
+      new DateTime(date, DateTimeZone.UTC);
+      return true;
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  private String computeKey(String tenant, String requestId) {
+    return String.format("%s:%s", tenant, requestId);
+  }
+
+  public static class HoldRequestCacheNotInitializedException extends RuntimeException {
+
+    private static final long serialVersionUID = -6201475412339102567L;
+
+    public HoldRequestCacheNotInitializedException(String msg) {
+      super(msg);
+    }
+  }
+
+}
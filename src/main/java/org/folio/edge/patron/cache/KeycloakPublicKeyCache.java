@@ -2,43 +2,54 @@ package org.folio.edge.patron.cache;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.folio.edge.core.cache.Cache;
-import org.folio.edge.core.cache.Cache.Builder;
-import org.folio.edge.core.cache.Cache.CacheValue;
+import org.folio.edge.patron.cache.RefreshAheadCache.CacheValue;
+import org.folio.edge.patron.utils.KeycloakRealmKeys;
 
 public class KeycloakPublicKeyCache {
 
   private static final Logger logger = LogManager.getLogger(KeycloakPublicKeyCache.class);
 
-  private static KeycloakPublicKeyCache instance = null;
+  private static volatile KeycloakPublicKeyCache instance = null;
 
-  private Cache<String> cache;
+  private final RefreshAheadCache<KeycloakRealmKeys> cache;
+  private final long minRefreshInterval;
+
+  private KeycloakPublicKeyCache(long ttl, long nullTokenTtl, int capacity, long minRefreshInterval,
+    double refreshAheadFactor) {
 
-  private KeycloakPublicKeyCache(long ttl, long nullTokenTtl, int capacity) {
     logger.info("Using TTL: {}", ttl);
     logger.info("Using null token TTL: {}", nullTokenTtl);
     logger.info("Using capacity: {}", capacity);
-    cache = new Builder<String>()
-      .withTTL(ttl)
-      .withNullValueTTL(nullTokenTtl)
-      .withCapacity(capacity)
-      .build();
+    logger.info("Using min refresh interval: {}", minRefreshInterval);
+    logger.info("Using refresh-ahead factor: {}", refreshAheadFactor);
+    cache = new RefreshAheadCache<>(ttl, nullTokenTtl, capacity, refreshAheadFactor);
+    this.minRefreshInterval = minRefreshInterval;
   }
 
   /**
    * Get the KeycloakPublicKeyCache singleton. the singleton must be initialized before
    * calling this method.
    *
-   * @see {@link #initialize(long, long, int)}
+   * @see {@link #initialize(long, long, int, long, double)}
    *
    * @return the KeycloakPublicKeyCache singleton instance.
    */
-  public static synchronized KeycloakPublicKeyCache getInstance() {
-    if (instance == null) {
+  public static KeycloakPublicKeyCache getInstance() {
+    final KeycloakPublicKeyCache cache = instance;
+    if (cache == null) {
       throw new KeycloakPublicKeyCacheNotInitializedException(
           "You must call KeycloakPublicKeyCache.initialize(ttl, capacity) before you can get the singleton instance");
     }
-    return instance;
+    return cache;
+  }
+
+  /**
+   * Creates a KeycloakPublicKeyCache which isn't the singleton, e.g. to give a verticle its
+   * own cache.
+   */
+  public static KeycloakPublicKeyCache create(long ttl, long nullValueTtl, int capacity, long minRefreshInterval,
+    double refreshAheadFactor) {
+    return new KeycloakPublicKeyCache(ttl, nullValueTtl, capacity, minRefreshInterval, refreshAheadFactor);
   }
 
   /**
@@ -49,22 +60,89 @@ public class KeycloakPublicKeyCache {
    *          cache entry time to live in ms
    * @param capacity
    *          maximum number of entries this cache will hold before pruning
+   * @param minRefreshInterval
+   *          minimum time in ms between two fetches of the same realm's keys
+   *          triggered by an unknown key id
+   * @param refreshAheadFactor
+   *          fraction of the TTL after which a used entry is reloaded in the
+   *          background; 1 or more disables refresh-ahead
    * @return the new KeycloakPublicKeyCache singleton instance
    */
-  public static synchronized KeycloakPublicKeyCache initialize(long ttl, long nullValueTtl, int capacity) {
+  public static synchronized KeycloakPublicKeyCache initialize(long ttl, long nullValueTtl, int capacity,
+    long minRefreshInterval, double refreshAheadFactor) {
+
     if (instance != null) {
       logger.warn("Reinitializing cache.  All cached entries will be lost");
     }
-    instance = new KeycloakPublicKeyCache(ttl, nullValueTtl, capacity);
+    instance = new KeycloakPublicKeyCache(ttl, nullValueTtl, capacity, minRefreshInterval, refreshAheadFactor);
     return instance;
   }
 
-  public String get(String realm) {
+  public static KeycloakPublicKeyCache initialize(long ttl, long nullValueTtl, int capacity,
+    long minRefreshInterval) {
+
+    return initialize(ttl, nullValueTtl, capacity, minRefreshInterval, 1);
+  }
+
+  public static KeycloakPublicKeyCache initialize(long ttl, long nullValueTtl, int capacity) {
+    return initialize(ttl, nullValueTtl, capacity, 0);
+  }
+
+  public KeycloakRealmKeys get(String realm) {
     return cache.get(realm);
   }
 
-  public CacheValue<String> put(String realm, String publicKey) {
-    return cache.put(realm, publicKey);
+  /**
+   * Caches the realm's keys unless unexpired keys are already cached.
+   *
+   * @return the keys now cached for the realm
+   */
+  public KeycloakRealmKeys put(String realm, KeycloakRealmKeys keys) {
+    return cache.put(realm, keys).value;
+  }
+
+  /**
+   * Caches the realm's freshly fetched keys, replacing any cached ones.
+   */
+  public KeycloakRealmKeys replace(String realm, KeycloakRealmKeys keys) {
+    return cache.replace(realm, keys).value;
+  }
+
+  /**
+   * Whether the realm's keys may be fetched again to look for a key id that
+   * isn't cached, i.e. the cached keys are older than the min refresh interval.
+   */
+  public boolean isRefreshAllowed(String realm) {
+    CacheValue<KeycloakRealmKeys> cached = cache.peek(realm);
+    return cached == null || System.currentTimeMillis() - cached.loaded >= minRefreshInterval;
+  }
+
+  /**
+   * Whether the realm's keys should be reloaded in the background; true for at
+   * most one caller per cached entry.
+   */
+  public boolean shouldRefresh(String realm) {
+    return cache.shouldRefresh(realm);
+  }
+
+  public void refreshFailed(String realm) {
+    cache.refreshFailed(realm);
+  }
+
+  public int size() {
+    return cache.size();
+  }
+
+  public long getHitCount() {
+    return cache.getHitCount();
+  }
+
+  public long getMissCount() {
+    return cache.getMissCount();
+  }
+
+  public long getEvictionCount() {
+    return cache.getEvictionCount();
   }
 
   public static class KeycloakPublicKeyCacheNotInitializedException extends RuntimeException {
@@ -2,43 +2,47 @@ package org.folio.edge.patron.cache;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.folio.edge.core.cache.Cache;
-import org.folio.edge.core.cache.Cache.Builder;
-import org.folio.edge.core.cache.Cache.CacheValue;
+import org.folio.edge.patron.cache.RefreshAheadCache.CacheValue;
 
 public class PatronIdCache {
 
   private static final Logger logger = LogManager.getLogger(PatronIdCache.class);
 
-  private static PatronIdCache instance = null;
+  private static volatile PatronIdCache instance = null;
 
-  private Cache<String> cache;
+  private RefreshAheadCache<String> cache;
 
-  private PatronIdCache(long ttl, long nullTokenTtl, int capacity) {
+  private PatronIdCache(long ttl, long nullTokenTtl, int capacity, double refreshAheadFactor) {
     logger.info("Using TTL: {}", ttl);
     logger.info("Using null token TTL: {}", nullTokenTtl);
     logger.info("Using capacity: {}", capacity);
-    cache = new Builder<String>()
-      .withTTL(ttl)
-      .withNullValueTTL(nullTokenTtl)
-      .withCapacity(capacity)
-      .build();
+    logger.info("Using refresh-ahead factor: {}", refreshAheadFactor);
+    cache = new RefreshAheadCache<>(ttl, nullTokenTtl, capacity, refreshAheadFactor);
   }
 
   /**
    * Get the PatronIdCache singleton. the singleton must be initialized before
    * calling this method.
    *
-   * @see {@link #initialize(long, long, int)}
+   * @see {@link #initialize(long, long, int, double)}
    *
    * @return the PatronIdCache singleton instance.
    */
-  public static synchronized PatronIdCache getInstance() {
-    if (instance == null) {
+  public static PatronIdCache getInstance() {
+    final PatronIdCache cache = instance;
+    if (cache == null) {
       throw new PatronIdCacheNotInitializedException(
           "You must call PatronIdCache.initialize(ttl, capacity) before you can get the singleton instance");
     }
-    return instance;
+    return cache;
+  }
+
+  /**
+   * Creates a PatronIdCache which isn't the singleton, e.g. to give a verticle its
+   * own cache.
+   */
+  public static PatronIdCache create(long ttl, long nullValueTtl, int capacity, double refreshAheadFactor) {
+    return new PatronIdCache(ttl, nullValueTtl, capacity, refreshAheadFactor);
   }
 
   /**
@@ -49,16 +53,25 @@ public class PatronIdCache {
    *          cache entry time to live in ms
    * @param capacity
    *          maximum number of entries this cache will hold before pruning
+   * @param refreshAheadFactor
+   *          fraction of the TTL after which a used entry is reloaded in the
+   *          background; 1 or more disables refresh-ahead
    * @return the new PatronIdCache singleton instance
    */
-  public static synchronized PatronIdCache initialize(long ttl, long nullValueTtl, int capacity) {
+  public static synchronized PatronIdCache initialize(long ttl, long nullValueTtl, int capacity,
+    double refreshAheadFactor) {
+
     if (instance != null) {
       logger.warn("Reinitializing cache.  All cached entries will be lost");
     }
-    instance = new PatronIdCache(ttl, nullValueTtl, capacity);
+    instance = new PatronIdCache(ttl, nullValueTtl, capacity, refreshAheadFactor);
     return instance;
   }
 
+  public static PatronIdCache initialize(long ttl, long nullValueTtl, int capacity) {
+    return initialize(ttl, nullValueTtl, capacity, 1);
+  }
+
   public String get(String tenant, String externalId) {
     return cache.get(computeKey(tenant, externalId));
   }
@@ -67,6 +80,51 @@ public class PatronIdCache {
     return cache.put(computeKey(tenant, externalId), internalId);
   }
 
+  /**
+   * Whether a recent lookup found no patron with this external id.  Such
+   * lookups are cached as null values, for the null value TTL.
+   */
+  public boolean isNotFound(String tenant, String externalId) {
+    CacheValue<String> cached = cache.peek(computeKey(tenant, externalId));
+    return cached != null && cached.value == null;
+  }
+
+  public CacheValue<String> putNotFound(String tenant, String externalId) {
+    return cache.put(computeKey(tenant, externalId), null);
+  }
+
+  /**
+   * Whether the mapping should be reloaded in the background; true for at most
+   * one caller per cached entry.
+   */
+  public boolean shouldRefresh(String tenant, String externalId) {
+    return cache.shouldRefresh(computeKey(tenant, externalId));
+  }
+
+  public CacheValue<String> refreshed(String tenant, String externalId, String internalId) {
+    return cache.replace(computeKey(tenant, externalId), internalId);
+  }
+
+  public void refreshFailed(String tenant, String externalId) {
+    cache.refreshFailed(computeKey(tenant, externalId));
+  }
+
+  public int size() {
+    return cache.size();
+  }
+
+  public long getHitCount() {
+    return cache.getHitCount();
+  }
+
+  public long getMissCount() {
+    return cache.getMissCount();
+  }
+
+  public long getEvictionCount() {
+    return cache.getEvictionCount();
+  }
+
   private String computeKey(String tenant, String externalId) {
     return String.format("%s:%s", tenant, externalId);
   }
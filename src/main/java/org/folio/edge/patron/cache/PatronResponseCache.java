@@ -0,0 +1,195 @@
+package org.folio.edge.patron.cache;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.web.client.HttpResponse;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * TTL cache of successful mod-patron responses grouped by tenant and patron,
+ * so all responses of a patron can be dropped at once when their account
+ * changes.  The cache is bounded by the total weight of its entries, e.g.
+ * their number or the size of their bodies; the entries closest to expiring
+ * are evicted first, found in an index ordered by expiry.
+ *
+ * <p>Callers read the patron's generation before sending the request and pass
+ * it to {@link #put}; responses requested before an {@link #invalidate} aren't
+ * cached.
+ *
+ * @param <K> the type of the per-patron request keys
+ */
+class PatronResponseCache<K> {
+
+  private static final int GENERATION_STRIPES = 64;
+
+  /** tenant:patronId -> request key -> response */
+  private final Map<String, Map<K, Entry<K>>> entries = new ConcurrentHashMap<>();
+  /** All entries, the one closest to expiring first */
+  private final NavigableSet<Entry<K>> byExpiry = new ConcurrentSkipListSet<>(
+    Comparator.<Entry<K>>comparingLong(Entry::expires).thenComparingLong(Entry::sequence));
+  private final AtomicLong sequence = new AtomicLong();
+  private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+  private final AtomicLong weight = new AtomicLong();
+  private final long ttl;
+  private final long maxWeight;
+  private final ToLongFunction<HttpResponse<Buffer>> weigher;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  PatronResponseCache(long ttl, long maxWeight, ToLongFunction<HttpResponse<Buffer>> weigher) {
+    this.ttl = ttl;
+    this.maxWeight = maxWeight;
+    this.weigher = weigher;
+  }
+
+  boolean isEnabled() {
+    return ttl > 0 && maxWeight > 0;
+  }
+
+  HttpResponse<Buffer> get(String tenant, String patronId, K key) {
+    if (!isEnabled()) {
+      return null;
+    }
+    Map<K, Entry<K>> patronEntries = entries.get(computeKey(tenant, patronId));
+    Entry<K> entry = patronEntries != null ? patronEntries.get(key) : null;
+    if (entry != null && entry.expired(System.currentTimeMillis())) {
+      evict(entry);
+      entry = null;
+    }
+    if (entry == null) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return entry.response;
+  }
+
+  long getGeneration(String tenant, String patronId) {
+    return generations.get(stripe(computeKey(tenant, patronId)));
+  }
+
+  void put(String tenant, String patronId, K key, HttpResponse<Buffer> response, long generation) {
+    if (!isEnabled() || response.statusCode() != 200 || response.body() == null) {
+      return;
+    }
+    long entryWeight = weigher.applyAsLong(response);
+    if (entryWeight > maxWeight) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    String patronKey = computeKey(tenant, patronId);
+    Entry<K> entry = new Entry<>(patronKey, key, response, entryWeight, now + ttl, sequence.incrementAndGet());
+    // checked and stored atomically with respect to invalidate() removing the patron's entries
+    entries.compute(patronKey, (k, patronEntries) -> {
+      if (generations.get(stripe(k)) != generation) {
+        return patronEntries;
+      }
+      if (patronEntries == null) {
+        patronEntries = new ConcurrentHashMap<>();
+      }
+      Entry<K> previous = patronEntries.put(key, entry);
+      byExpiry.add(entry);
+      if (previous != null) {
+        byExpiry.remove(previous);
+      }
+      weight.addAndGet(previous != null ? entryWeight - previous.weight : entryWeight);
+      return patronEntries;
+    });
+    if (weight.get() > maxWeight) {
+      prune(now);
+    }
+  }
+
+  void invalidate(String tenant, String patronId) {
+    String key = computeKey(tenant, patronId);
+    generations.incrementAndGet(stripe(key));
+    Map<K, Entry<K>> patronEntries = entries.remove(key);
+    if (patronEntries != null) {
+      patronEntries.forEach((k, e) -> remove(patronEntries, e));
+    }
+  }
+
+  long getWeight() {
+    return weight.get();
+  }
+
+  long getHitCount() {
+    return hits.sum();
+  }
+
+  long getMissCount() {
+    return misses.sum();
+  }
+
+  long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  /**
+   * Drops expired entries, then while the cache is still over its max weight
+   * the entries closest to expiring, each in O(log n).
+   */
+  private void prune(long now) {
+    Entry<K> soonest;
+    while ((soonest = first()) != null && (soonest.expired(now) || weight.get() > maxWeight)) {
+      evict(soonest);
+    }
+  }
+
+  private Entry<K> first() {
+    try {
+      return byExpiry.first();
+    } catch (NoSuchElementException e) {
+      return null;
+    }
+  }
+
+  private void evict(Entry<K> entry) {
+    Map<K, Entry<K>> patronEntries = entries.get(entry.patronKey);
+    if (patronEntries == null) {
+      byExpiry.remove(entry);
+      return;
+    }
+    if (remove(patronEntries, entry)) {
+      evictions.increment();
+    } else {
+      byExpiry.remove(entry);
+    }
+    entries.computeIfPresent(entry.patronKey, (k, m) -> m.isEmpty() ? null : m);
+  }
+
+  private boolean remove(Map<K, Entry<K>> patronEntries, Entry<K> entry) {
+    if (patronEntries.remove(entry.key, entry)) {
+      byExpiry.remove(entry);
+      weight.addAndGet(-entry.weight);
+      return true;
+    }
+    return false;
+  }
+
+  private static int stripe(String key) {
+    return Math.floorMod(key.hashCode(), GENERATION_STRIPES);
+  }
+
+  private static String computeKey(String tenant, String patronId) {
+    return String.format("%s:%s", tenant, patronId);
+  }
+
+  private record Entry<K>(String patronKey, K key, HttpResponse<Buffer> response, long weight, long expires,
+    long sequence) {
+
+    boolean expired(long now) {
+      return now >= expires;
+    }
+  }
+}
@@ -0,0 +1,240 @@
+package org.folio.edge.patron.cache;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A TTL cache with the semantics of edge-common's {@code Cache} (entries
+ * aren't overwritten until they expire, null values have their own TTL, the
+ * oldest entry is pruned when full) that additionally supports refresh-ahead:
+ * once an entry has lived for a fraction of its TTL, one caller is told to
+ * reload it in the background while the old value keeps being served, and the
+ * reloaded value then {@link #replace(String, Object) replaces} it.
+ * <p>
+ * The entries are also queued in the order they were cached, so that the
+ * oldest is found without scanning the cache.  Entries that were replaced or
+ * removed since are skipped when they come up, and dropped from the queue
+ * in one pass whenever they outnumber the capacity.
+ *
+ * @param <T> the type of the cached values
+ */
+public class RefreshAheadCache<T> {
+
+  private final Map<String, CacheValue<T>> storage = new ConcurrentHashMap<>();
+  /** Cached values, the oldest first, including ones no longer cached */
+  private final Queue<CacheValue<T>> order = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger queued = new AtomicInteger();
+  private final long ttl;
+  private final long nullValueTtl;
+  private final int capacity;
+  private final double refreshAheadFactor;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * @param refreshAheadFactor fraction of the TTL after which an entry should
+   *          be refreshed; 1 or more disables refresh-ahead
+   */
+  public RefreshAheadCache(long ttl, long nullValueTtl, int capacity, double refreshAheadFactor) {
+    this.ttl = ttl;
+    this.nullValueTtl = nullValueTtl;
+    this.capacity = capacity;
+    this.refreshAheadFactor = refreshAheadFactor;
+  }
+
+  public T get(String key) {
+    CacheValue<T> cached = getValue(key);
+    return cached != null ? cached.value : null;
+  }
+
+  /**
+   * Looks the key up, counting a hit or miss.
+   *
+   * @return the unexpired entry for the key, which may hold a null value, or
+   *         null if nothing is cached
+   */
+  public CacheValue<T> getValue(String key) {
+    CacheValue<T> cached = peek(key);
+    if (cached != null) {
+      hits.increment();
+    } else {
+      misses.increment();
+    }
+    return cached;
+  }
+
+  /**
+   * Like {@link #getValue(String)}, without counting a hit or miss; for
+   * looking at an entry that was already looked up.
+   */
+  public CacheValue<T> peek(String key) {
+    CacheValue<T> cached = storage.get(key);
+    if (cached != null && cached.expired()) {
+      if (storage.remove(key, cached)) {
+        evictions.increment();
+      }
+      return null;
+    }
+    return cached;
+  }
+
+  /**
+   * Caches the value unless an unexpired value is already cached for the key.
+   *
+   * @return the entry now cached for the key
+   */
+  public CacheValue<T> put(String key, T value) {
+    CacheValue<T> cached = storage.get(key);
+    if (cached != null && !cached.expired()) {
+      return cached;
+    }
+    prune();
+    CacheValue<T> created = newValue(key, value);
+    CacheValue<T> result = storage.compute(key, (k, existing) -> existing != null && !existing.expired()
+      ? existing
+      : created);
+    if (result == created) {
+      enqueue(created);
+    }
+    return result;
+  }
+
+  /**
+   * Caches the value, replacing any value cached for the key.
+   *
+   * @return the entry now cached for the key
+   */
+  public CacheValue<T> replace(String key, T value) {
+    if (!storage.containsKey(key)) {
+      prune();
+    }
+    CacheValue<T> cached = newValue(key, value);
+    storage.put(key, cached);
+    enqueue(cached);
+    return cached;
+  }
+
+  public void remove(String key) {
+    storage.remove(key);
+  }
+
+  /**
+   * Whether the key's entry is due for a refresh-ahead.  Returns true at most
+   * once per entry, so only one caller triggers the reload.
+   */
+  public boolean shouldRefresh(String key) {
+    if (refreshAheadFactor >= 1) {
+      return false;
+    }
+    CacheValue<T> cached = peek(key);
+    if (cached == null) {
+      return false;
+    }
+    long refreshAt = cached.loaded + (long) ((cached.expires - cached.loaded) * refreshAheadFactor);
+    return System.currentTimeMillis() >= refreshAt && cached.refreshing.compareAndSet(false, true);
+  }
+
+  /**
+   * Allows another refresh of the key's entry after a failed reload.
+   */
+  public void refreshFailed(String key) {
+    CacheValue<T> cached = storage.get(key);
+    if (cached != null) {
+      cached.refreshing.set(false);
+    }
+  }
+
+  public int size() {
+    return storage.size();
+  }
+
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /**
+   * Entries dropped because they expired or the cache was full.
+   */
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  private CacheValue<T> newValue(String key, T value) {
+    long now = System.currentTimeMillis();
+    return new CacheValue<>(key, value, now, now + (value == null ? nullValueTtl : ttl));
+  }
+
+  /**
+   * Queues a value once it's cached.
+   */
+  private void enqueue(CacheValue<T> cached) {
+    order.add(cached);
+    if (queued.incrementAndGet() > 2 * Math.max(capacity, 16)) {
+      compact();
+    }
+  }
+
+  /**
+   * Drops the oldest entry when the cache is full, skipping queued values
+   * that aren't cached anymore.
+   */
+  private void prune() {
+    if (storage.size() < capacity) {
+      return;
+    }
+    CacheValue<T> oldest;
+    while ((oldest = order.poll()) != null) {
+      queued.decrementAndGet();
+      if (storage.remove(oldest.key, oldest)) {
+        evictions.increment();
+        return;
+      }
+    }
+  }
+
+  /**
+   * Drops the queued values that aren't cached anymore; as they outnumber
+   * the capacity by then, this is O(1) per cached value.
+   */
+  private void compact() {
+    final AtomicInteger removed = new AtomicInteger();
+    order.removeIf(cached -> {
+      if (storage.get(cached.key) != cached) {
+        removed.incrementAndGet();
+        return true;
+      }
+      return false;
+    });
+    queued.addAndGet(-removed.get());
+  }
+
+  public static class CacheValue<T> {
+
+    public final T value;
+    public final long loaded;
+    public final long expires;
+    private final String key;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    CacheValue(String key, T value, long loaded, long expires) {
+      this.key = key;
+      this.value = value;
+      this.loaded = loaded;
+      this.expires = expires;
+    }
+
+    public boolean expired() {
+      return expires < System.currentTimeMillis();
+    }
+  }
+}
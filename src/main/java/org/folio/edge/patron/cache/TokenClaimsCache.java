@@ -0,0 +1,201 @@
+package org.folio.edge.patron.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.edge.patron.utils.TokenClaims;
+
+/**
+ * Claims of access tokens whose signature has already been verified, so
+ * repeat calls with the same token skip JWT parsing and RSA verification.
+ * Entries are keyed by realm and a SHA-256 hash of the token and expire at
+ * the token's own expiry, or after the cache TTL if that comes first.  When
+ * full, the entry closest to expiring is evicted, found in an index ordered
+ * by expiry.
+ */
+public class TokenClaimsCache {
+
+  private static final Logger logger = LogManager.getLogger(TokenClaimsCache.class);
+
+  private static volatile TokenClaimsCache instance = null;
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  /** All entries, the one closest to expiring first */
+  private final NavigableSet<Entry> byExpiry = new ConcurrentSkipListSet<>(
+    Comparator.comparingLong(Entry::expires).thenComparingLong(Entry::sequence));
+  private final AtomicLong sequence = new AtomicLong();
+  private final long ttl;
+  private final int capacity;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  private TokenClaimsCache(long ttl, int capacity) {
+    logger.info("Using TTL: {}", ttl);
+    logger.info("Using capacity: {}", capacity);
+    this.ttl = ttl;
+    this.capacity = capacity;
+  }
+
+  /**
+   * Get the TokenClaimsCache singleton. the singleton must be initialized before
+   * calling this method.
+   *
+   * @see {@link #initialize(long, int)}
+   *
+   * @return the TokenClaimsCache singleton instance.
+   */
+  public static TokenClaimsCache getInstance() {
+    final TokenClaimsCache cache = instance;
+    if (cache == null) {
+      throw new TokenClaimsCacheNotInitializedException(
+          "You must call TokenClaimsCache.initialize(ttl, capacity) before you can get the singleton instance");
+    }
+    return cache;
+  }
+
+  /**
+   * Creates a TokenClaimsCache which isn't the singleton, e.g. to give a verticle its
+   * own cache.
+   */
+  public static TokenClaimsCache create(long ttl, int capacity) {
+    return new TokenClaimsCache(ttl, capacity);
+  }
+
+  /**
+   * Creates a new TokenClaimsCache instance, replacing the existing one if it
+   * already exists; in which case all pre-existing cache entries will be lost.
+   *
+   * @param ttl
+   *          maximum time in ms to cache a token's claims, regardless of its expiry
+   * @param capacity
+   *          maximum number of entries this cache will hold before pruning
+   * @return the new TokenClaimsCache singleton instance
+   */
+  public static synchronized TokenClaimsCache initialize(long ttl, int capacity) {
+    if (instance != null) {
+      logger.warn("Reinitializing cache.  All cached entries will be lost");
+    }
+    instance = new TokenClaimsCache(ttl, capacity);
+    return instance;
+  }
+
+  public TokenClaims get(String realm, String token) {
+    String key = computeKey(realm, token);
+    Entry entry = entries.get(key);
+    if (entry != null && entry.expired(System.currentTimeMillis())) {
+      if (remove(entry)) {
+        evictions.increment();
+      }
+      entry = null;
+    }
+    if (entry == null) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return entry.claims;
+  }
+
+  public void put(String realm, String token, TokenClaims claims) {
+    long now = System.currentTimeMillis();
+    long expires = now + ttl;
+    if (claims.expiresAt() != null) {
+      expires = Math.min(expires, claims.expiresAt());
+    }
+    if (expires <= now || capacity <= 0) {
+      return;
+    }
+    if (entries.size() >= capacity) {
+      prune(now);
+    }
+    String key = computeKey(realm, token);
+    Entry entry = new Entry(key, claims, expires, sequence.incrementAndGet());
+    byExpiry.add(entry);
+    Entry previous = entries.put(key, entry);
+    if (previous != null) {
+      byExpiry.remove(previous);
+    }
+  }
+
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Drops expired entries; if the cache is still full, drops the entry
+   * closest to expiring.  Each of them is the first in the index, so this
+   * takes O(log n) per entry dropped.
+   */
+  private void prune(long now) {
+    Entry soonest;
+    while ((soonest = first()) != null && (soonest.expired(now) || entries.size() >= capacity)) {
+      if (remove(soonest)) {
+        evictions.increment();
+      }
+    }
+  }
+
+  private Entry first() {
+    try {
+      return byExpiry.first();
+    } catch (NoSuchElementException e) {
+      return null;
+    }
+  }
+
+  private boolean remove(Entry entry) {
+    byExpiry.remove(entry);
+    return entries.remove(entry.key, entry);
+  }
+
+  private static String computeKey(String realm, String token) {
+    try {
+      byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+      return realm + ":" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private record Entry(String key, TokenClaims claims, long expires, long sequence) {
+
+    boolean expired(long now) {
+      return now >= expires;
+    }
+  }
+
+  public static class TokenClaimsCacheNotInitializedException extends RuntimeException {
+
+    private static final long serialVersionUID = 3398529473522917735L;
+
+    public TokenClaimsCacheNotInitializedException(String msg) {
+      super(msg);
+    }
+  }
+
+}
@@ -0,0 +1,91 @@
+package org.folio.edge.patron.utils;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.web.client.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.edge.patron.cache.AccountResponseCache;
+
+public class AccountRequestHelper {
+
+  private static final Logger logger = LogManager.getLogger(AccountRequestHelper.class);
+
+  /**
+   * Account requests currently waiting on mod-patron, keyed by tenant, patron
+   * and the request params, so identical concurrent requests share a single
+   * upstream call and its response body.
+   */
+  private static final Map<String, Future<HttpResponse<Buffer>>> inFlightRequests = new ConcurrentHashMap<>();
+
+  private AccountRequestHelper() {
+  }
+
+  public static Future<HttpResponse<Buffer>> getAccount(PatronOkapiClient client,
+    PatronAccountRequestParams requestParams) {
+
+    return getAccount(null, client, requestParams);
+  }
+
+  /**
+   * Gets the account using the given response cache, which may be null to
+   * skip caching.
+   */
+  public static Future<HttpResponse<Buffer>> getAccount(AccountResponseCache cache, PatronOkapiClient client,
+    PatronAccountRequestParams requestParams) {
+
+    final String tenant = client.tenant;
+    if (cache != null) {
+      HttpResponse<Buffer> cached = cache.get(tenant, requestParams);
+      if (cached != null) {
+        logger.debug("Using cached account of {}", requestParams.patronId());
+        return Future.succeededFuture(cached);
+      }
+    }
+
+    final String key = computeKeyPrefix(tenant, requestParams.patronId()) + requestParams;
+    final Promise<HttpResponse<Buffer>> promise = Promise.promise();
+    final Future<HttpResponse<Buffer>> request = promise.future();
+    Future<HttpResponse<Buffer>> inFlight = inFlightRequests.putIfAbsent(key, request);
+    if (inFlight != null) {
+      logger.debug("Joining in-flight account request for {}", requestParams.patronId());
+      return SharedFutures.onCurrentContext(inFlight);
+    }
+
+    final long generation = cache != null ? cache.getGeneration(tenant, requestParams.patronId()) : 0;
+    client.getAccount(requestParams,
+      resp -> {
+        if (cache != null) {
+          cache.put(tenant, requestParams, resp, generation);
+        }
+        inFlightRequests.remove(key, request);
+        promise.complete(resp);
+      },
+      t -> {
+        inFlightRequests.remove(key, request);
+        promise.fail(t);
+      });
+    return request;
+  }
+
+  /**
+   * Called when the patron's account was changed through this node: drops
+   * cached responses, and lets subsequent requests make a new upstream call
+   * rather than join one that was started before the change.
+   */
+  public static void invalidate(AccountResponseCache cache, String tenant, String patronId) {
+    String prefix = computeKeyPrefix(tenant, patronId);
+    inFlightRequests.keySet().removeIf(key -> key.startsWith(prefix));
+    if (cache != null) {
+      cache.invalidate(tenant, patronId);
+    }
+  }
+
+  private static String computeKeyPrefix(String tenant, String patronId) {
+    return tenant + ":" + patronId + ":";
+  }
+
+}
@@ -0,0 +1,431 @@
+package org.folio.edge.patron.utils;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.edge.patron.cache.RefreshAheadCache;
+import org.folio.edge.patron.model.Batch;
+
+/**
+ * Polls the status of multi-item batch requests on behalf of clients that
+ * watch them, e.g. through server-sent events.  All subscribers to the same
+ * batch request share one poller, which backs off while the status doesn't
+ * change and stops once the batch request is no longer in progress, the
+ * status can't be retrieved, or the last subscriber left.
+ * <p>
+ * With snapshots enabled, batch requests are also tracked once they're
+ * created or their status is requested, and status requests are answered
+ * from the latest snapshot while it's fresh, so any number of clients
+ * polling the edge result in a bounded rate of requests to mod-patron.
+ * Tracking ends once nobody asked for the status for a while.
+ * <p>
+ * One poller can serve all verticle instances: polls, snapshots and
+ * subscribers are kept in concurrent maps or under the lock of their poll,
+ * and the requests and timers of all polls run on the poller's own context,
+ * while subscribers are called on the context they subscribed from.  That is
+ * the context it's created on, so a poller outliving the verticle that
+ * creates it has to be created outside of the verticle's context.
+ */
+public class BatchStatusPoller {
+
+  private static final Logger logger = LogManager.getLogger(BatchStatusPoller.class);
+
+  private static final double BACKOFF_FACTOR = 2;
+  private static final long IDLE_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(5);
+  private static final long COMPLETED_SNAPSHOT_TTL_MS = TimeUnit.MINUTES.toMillis(5);
+  private static final int COMPLETED_SNAPSHOT_CAPACITY = 1000;
+
+  /**
+   * Receives the status of a batch request on the context it subscribed
+   * from.
+   */
+  public interface Subscriber {
+
+    /**
+     * Called with the current status when subscribing, if it's known, and
+     * whenever it changed afterwards.  A status code other than 200 is final.
+     */
+    void onStatus(int statusCode, Buffer body);
+
+    /**
+     * Called when the status couldn't be retrieved; this is final.
+     */
+    void onFailure(Throwable t);
+
+    /**
+     * Called after the final status or failure; no more calls follow.
+     */
+    void onEnd();
+  }
+
+  private final Vertx vertx;
+  private final Context context;
+  private final long minIntervalMs;
+  private final long maxIntervalMs;
+  private final long snapshotMaxAgeMs;
+  private final Map<String, Poll> polls = new ConcurrentHashMap<>();
+  /** Final statuses don't change anymore, they are kept once polling ended */
+  private final RefreshAheadCache<HttpResponse<Buffer>> completed =
+    new RefreshAheadCache<>(COMPLETED_SNAPSHOT_TTL_MS, 0, COMPLETED_SNAPSHOT_CAPACITY, 1);
+
+  public BatchStatusPoller(Vertx vertx, long minIntervalMs, long maxIntervalMs) {
+    this(vertx, minIntervalMs, maxIntervalMs, 0);
+  }
+
+  /**
+   * @param snapshotMaxAgeMs how old a snapshot of a batch request that's in
+   *          progress may be to answer a status request; 0 disables snapshots
+   */
+  public BatchStatusPoller(Vertx vertx, long minIntervalMs, long maxIntervalMs, long snapshotMaxAgeMs) {
+    logger.info("Using min interval: {}", minIntervalMs);
+    logger.info("Using max interval: {}", maxIntervalMs);
+    logger.info("Using snapshot max age: {}", snapshotMaxAgeMs);
+    this.vertx = vertx;
+    this.context = vertx.getOrCreateContext();
+    this.minIntervalMs = minIntervalMs;
+    this.maxIntervalMs = Math.max(minIntervalMs, maxIntervalMs);
+    this.snapshotMaxAgeMs = snapshotMaxAgeMs;
+  }
+
+  public boolean isSnapshotEnabled() {
+    return snapshotMaxAgeMs > 0;
+  }
+
+  /**
+   * Subscribes to the status of the batch request, starting a poller unless
+   * one is already running for it.
+   *
+   * @return unsubscribes, e.g. when the client went away
+   */
+  public Runnable subscribe(PatronOkapiClient client, String patronId, String instanceId, String batchId,
+    Subscriber subscriber) {
+
+    final Context context = Vertx.currentContext();
+    final Listener listener = new Listener(subscriber, context != null ? context : vertx.getOrCreateContext());
+    final Poll poll = join(client, patronId, instanceId, batchId, p -> p.add(listener));
+    return () -> poll.remove(listener);
+  }
+
+  /**
+   * Starts tracking a batch request that was just created, so requests for
+   * its status can be answered from a snapshot.  Does nothing unless
+   * snapshots are enabled.
+   */
+  public void track(PatronOkapiClient client, String patronId, String instanceId, String batchId) {
+    if (isSnapshotEnabled()) {
+      join(client, patronId, instanceId, batchId, Poll::track);
+    }
+  }
+
+  /**
+   * The status of the batch request from its snapshot if that's fresh,
+   * otherwise from the next poll, which is then started right away; status
+   * requests arriving meanwhile wait for the same poll.  Requires snapshots
+   * to be enabled.
+   */
+  public Future<HttpResponse<Buffer>> getStatus(PatronOkapiClient client, String patronId, String instanceId,
+    String batchId) {
+
+    final HttpResponse<Buffer> done = completed.get(key(client.tenant, patronId, instanceId, batchId));
+    if (done != null) {
+      return Future.succeededFuture(done);
+    }
+    @SuppressWarnings("unchecked")
+    final Future<HttpResponse<Buffer>>[] status = new Future[1];
+    final Poll poll = join(client, patronId, instanceId, batchId, p -> status[0] = p.getStatus());
+    if (!status[0].isComplete()) {
+      poll.poll();
+    }
+    return SharedFutures.onCurrentContext(status[0]);
+  }
+
+  private Poll join(PatronOkapiClient client, String patronId, String instanceId, String batchId,
+    Consumer<Poll> action) {
+
+    final Poll[] started = new Poll[1];
+    final Poll poll = polls.compute(key(client.tenant, patronId, instanceId, batchId), (k, existing) -> {
+      if (existing != null && existing.join(client, action)) {
+        return existing;
+      }
+      Poll created = new Poll(k, client, patronId, instanceId, batchId);
+      created.join(client, action);
+      started[0] = created;
+      return created;
+    });
+    if (started[0] != null) {
+      logger.debug("Starting to poll the status of batch request {}", batchId);
+      started[0].poll();
+    }
+    return poll;
+  }
+
+  /**
+   * Stops all polls, e.g. when the last verticle instance using the poller
+   * stops.
+   */
+  public void close() {
+    for (Poll poll : polls.values()) {
+      poll.stop();
+      polls.remove(poll.key, poll);
+    }
+  }
+
+  /**
+   * The number of batch requests currently being polled.
+   */
+  public int size() {
+    return polls.size();
+  }
+
+  static boolean isInProgress(Buffer body) {
+    return isInProgress(parse(body));
+  }
+
+  private static boolean isInProgress(JsonObject batch) {
+    return batch != null && Batch.Status.IN_PROGRESS.value().equals(batch.getString("status"));
+  }
+
+  /**
+   * The interval until the next poll of a batch request that's in progress:
+   * the min interval after a change, otherwise backing off to the max
+   * interval, but no longer than the share of items still pending of the max
+   * interval, as the batch request should complete soon.
+   */
+  static long nextInterval(long intervalMs, boolean changed, JsonObject batch, long minIntervalMs,
+    long maxIntervalMs) {
+
+    long next = changed ? minIntervalMs : Math.min(maxIntervalMs, (long) (intervalMs * BACKOFF_FACTOR));
+    Integer itemsTotal = batch != null ? getInteger(batch, "itemsTotal") : null;
+    Integer itemsPending = batch != null ? getInteger(batch, "itemsPending") : null;
+    if (itemsTotal != null && itemsPending != null && itemsTotal > 0) {
+      long pendingIntervalMs = maxIntervalMs * Math.clamp(itemsPending, 0, itemsTotal) / itemsTotal;
+      next = Math.min(next, Math.max(minIntervalMs, pendingIntervalMs));
+    }
+    return next;
+  }
+
+  private static Integer getInteger(JsonObject batch, String field) {
+    return batch.getValue(field) instanceof Number number ? number.intValue() : null;
+  }
+
+  private static JsonObject parse(Buffer body) {
+    try {
+      return new JsonObject(body);
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  private static String key(String tenant, String patronId, String instanceId, String batchId) {
+    return String.format("%s:%s:%s:%s", tenant, patronId, instanceId, batchId);
+  }
+
+  private record Listener(Subscriber subscriber, Context context) {
+
+    /**
+     * Always asynchronous, so subscribers can unsubscribe from their callbacks.
+     */
+    void run(Runnable action) {
+      context.runOnContext(v -> action.run());
+    }
+  }
+
+  private class Poll {
+
+    private final String key;
+    private final String patronId;
+    private final String instanceId;
+    private final String batchId;
+    private final List<Listener> listeners = new ArrayList<>();
+    private final List<Promise<HttpResponse<Buffer>>> waiting = new ArrayList<>();
+    private PatronOkapiClient client;
+    private long intervalMs = minIntervalMs;
+    private long timerId = -1;
+    private boolean inFlight;
+    private boolean tracked;
+    private long lastDemand;
+    private HttpResponse<Buffer> lastResponse;
+    private long lastFetched;
+    private boolean closed;
+
+    Poll(String key, PatronOkapiClient client, String patronId, String instanceId, String batchId) {
+      this.key = key;
+      this.client = client;
+      this.patronId = patronId;
+      this.instanceId = instanceId;
+      this.batchId = batchId;
+    }
+
+    /**
+     * @return false if the poll already ended, so a new one has to be started
+     */
+    synchronized boolean join(PatronOkapiClient client, Consumer<Poll> action) {
+      if (closed) {
+        return false;
+      }
+      // the newest client has the freshest token
+      this.client = client;
+      lastDemand = System.currentTimeMillis();
+      action.accept(this);
+      return true;
+    }
+
+    private void add(Listener listener) {
+      listeners.add(listener);
+      if (lastResponse != null) {
+        final int statusCode = lastResponse.statusCode();
+        final Buffer body = bodyOf(lastResponse);
+        listener.run(() -> listener.subscriber().onStatus(statusCode, body));
+      }
+    }
+
+    private void track() {
+      tracked = true;
+    }
+
+    private Future<HttpResponse<Buffer>> getStatus() {
+      tracked = true;
+      if (lastResponse != null && System.currentTimeMillis() - lastFetched <= snapshotMaxAgeMs) {
+        return Future.succeededFuture(lastResponse);
+      }
+      Promise<HttpResponse<Buffer>> promise = Promise.promise();
+      waiting.add(promise);
+      return promise.future();
+    }
+
+    void remove(Listener listener) {
+      synchronized (this) {
+        if (!listeners.remove(listener) || !listeners.isEmpty() || tracked || closed) {
+          return;
+        }
+        logger.debug("No one is watching batch request {} anymore", batchId);
+        close();
+      }
+      polls.remove(key, this);
+    }
+
+    /**
+     * Polls now, unless a poll is already in flight.
+     */
+    void poll() {
+      final PatronOkapiClient pollClient;
+      synchronized (this) {
+        if (closed || inFlight) {
+          return;
+        }
+        inFlight = true;
+        vertx.cancelTimer(timerId);
+        pollClient = client;
+      }
+      // on the poller's context, so the response and the timer of the next poll are too
+      context.runOnContext(v -> pollClient.getMultiItemBatchRequestStatus(patronId, instanceId, batchId,
+        this::handleResponse, this::handleFailure));
+    }
+
+    void stop() {
+      final List<Promise<HttpResponse<Buffer>>> waiters;
+      synchronized (this) {
+        if (closed) {
+          return;
+        }
+        waiters = takeWaiting();
+        notifyListeners(Subscriber::onEnd);
+        close();
+      }
+      waiters.forEach(promise -> promise.tryFail("Polling the batch request status stopped"));
+    }
+
+    private void handleResponse(HttpResponse<Buffer> resp) {
+      final List<Promise<HttpResponse<Buffer>>> waiters;
+      final boolean ended;
+      synchronized (this) {
+        if (closed) {
+          return;
+        }
+        inFlight = false;
+        final int statusCode = resp.statusCode();
+        final Buffer body = bodyOf(resp);
+        final boolean changed = lastResponse == null || statusCode != lastResponse.statusCode()
+          || !body.equals(bodyOf(lastResponse));
+        final long now = System.currentTimeMillis();
+        lastResponse = resp;
+        lastFetched = now;
+        waiters = takeWaiting();
+        if (changed) {
+          notifyListeners(s -> s.onStatus(statusCode, body));
+        }
+        final JsonObject batch = statusCode == 200 ? parse(body) : null;
+        final boolean idle = listeners.isEmpty() && now - lastDemand > IDLE_TIMEOUT_MS;
+        if (isInProgress(batch) && !idle) {
+          intervalMs = nextInterval(intervalMs, changed, batch, minIntervalMs, maxIntervalMs);
+          timerId = vertx.setTimer(intervalMs, id -> poll());
+          ended = false;
+        } else {
+          if (statusCode == 200 && !isInProgress(batch)) {
+            completed.replace(key, resp);
+          }
+          notifyListeners(Subscriber::onEnd);
+          close();
+          ended = true;
+        }
+      }
+      waiters.forEach(promise -> promise.complete(resp));
+      if (ended) {
+        polls.remove(key, this);
+      }
+    }
+
+    private void handleFailure(Throwable t) {
+      final List<Promise<HttpResponse<Buffer>>> waiters;
+      synchronized (this) {
+        if (closed) {
+          return;
+        }
+        logger.warn("Failed to get the status of batch request {}", batchId, t);
+        waiters = takeWaiting();
+        notifyListeners(s -> s.onFailure(t));
+        notifyListeners(Subscriber::onEnd);
+        close();
+      }
+      waiters.forEach(promise -> promise.fail(t));
+      polls.remove(key, this);
+    }
+
+    /**
+     * Must be followed by removing this poll from the map, outside of the
+     * lock; the map calls {@link #join} while holding its own lock.
+     */
+    private void close() {
+      closed = true;
+      vertx.cancelTimer(timerId);
+    }
+
+    private List<Promise<HttpResponse<Buffer>>> takeWaiting() {
+      List<Promise<HttpResponse<Buffer>>> waiters = new ArrayList<>(waiting);
+      waiting.clear();
+      return waiters;
+    }
+
+    private void notifyListeners(Consumer<Subscriber> action) {
+      for (Listener listener : listeners) {
+        listener.run(() -> action.accept(listener.subscriber()));
+      }
+    }
+  }
+
+  private static Buffer bodyOf(HttpResponse<Buffer> resp) {
+    return resp.body() != null ? resp.body() : Buffer.buffer();
+  }
+}
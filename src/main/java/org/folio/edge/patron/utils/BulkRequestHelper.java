@@ -0,0 +1,124 @@
+package org.folio.edge.patron.utils;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs the operations of a bulk request against mod-patron with a bounded
+ * number of them in flight, and collects one result per operation.
+ */
+public class BulkRequestHelper {
+
+  public static final String FIELD_STATUS_CODE = "statusCode";
+  public static final String FIELD_RESPONSE = "response";
+  public static final String FIELD_ERROR = "error";
+
+  private BulkRequestHelper() {
+  }
+
+  /**
+   * Applies the operation to every input, at most {@code concurrency} at a
+   * time.  The results are in the order of the inputs; a failed operation
+   * gets the result of {@link #toResult(String, String, Throwable)}.
+   *
+   * @param idField name of the field identifying the input in failure results
+   * @param ids the ids of the inputs, in the same order
+   */
+  public static <T> Future<JsonArray> runAll(List<T> inputs, String idField, List<String> ids,
+    int concurrency, Function<T, Future<JsonObject>> operation) {
+
+    return runAll(inputs, idField, ids, concurrency, operation, result -> {});
+  }
+
+  /**
+   * Like {@link #runAll(List, String, List, int, Function)}, additionally
+   * passing each result to the given handler as soon as its operation
+   * completed, e.g. to stream the results.
+   */
+  public static <T> Future<JsonArray> runAll(List<T> inputs, String idField, List<String> ids,
+    int concurrency, Function<T, Future<JsonObject>> operation, Consumer<JsonObject> resultHandler) {
+
+    if (inputs.isEmpty()) {
+      return Future.succeededFuture(new JsonArray());
+    }
+    final List<JsonObject> results = new ArrayList<>(Collections.nCopies(inputs.size(), null));
+    final AtomicInteger next = new AtomicInteger();
+    final AtomicInteger remaining = new AtomicInteger(inputs.size());
+    final Promise<JsonArray> promise = Promise.promise();
+    for (int i = 0; i < Math.min(Math.max(concurrency, 1), inputs.size()); i++) {
+      runNext(inputs, idField, ids, operation, resultHandler, results, next, remaining, promise);
+    }
+    return promise.future();
+  }
+
+  private static <T> void runNext(List<T> inputs, String idField, List<String> ids,
+    Function<T, Future<JsonObject>> operation, Consumer<JsonObject> resultHandler, List<JsonObject> results,
+    AtomicInteger next, AtomicInteger remaining, Promise<JsonArray> promise) {
+
+    final int index = next.getAndIncrement();
+    if (index >= inputs.size()) {
+      return;
+    }
+    Future<JsonObject> result;
+    try {
+      result = operation.apply(inputs.get(index));
+    } catch (Exception e) {
+      result = Future.failedFuture(e);
+    }
+    result.onComplete(ar -> {
+      JsonObject res = ar.succeeded() ? ar.result() : toResult(idField, ids.get(index), ar.cause());
+      synchronized (results) {
+        results.set(index, res);
+        resultHandler.accept(res);
+      }
+      if (remaining.decrementAndGet() == 0) {
+        synchronized (results) {
+          promise.complete(new JsonArray(new ArrayList<>(results)));
+        }
+      } else {
+        runNext(inputs, idField, ids, operation, resultHandler, results, next, remaining, promise);
+      }
+    });
+  }
+
+  /**
+   * The result of one operation: mod-patron's status code, and its response
+   * body, parsed when it's JSON, or the error it returned.
+   */
+  public static JsonObject toResult(String idField, String id, HttpResponse<Buffer> response) {
+    JsonObject result = new JsonObject()
+      .put(idField, id)
+      .put(FIELD_STATUS_CODE, response.statusCode());
+    Buffer body = response.body();
+    if (response.statusCode() >= 400) {
+      return result.put(FIELD_ERROR, body != null ? body.toString() : null);
+    }
+    if (body != null && body.length() > 0) {
+      try {
+        result.put(FIELD_RESPONSE, Json.decodeValue(body));
+      } catch (DecodeException e) {
+        result.put(FIELD_RESPONSE, body.toString());
+      }
+    }
+    return result;
+  }
+
+  public static JsonObject toResult(String idField, String id, Throwable t) {
+    return new JsonObject()
+      .put(idField, id)
+      .put(FIELD_STATUS_CODE, 500)
+      .put(FIELD_ERROR, t.getMessage());
+  }
+}
@@ -0,0 +1,91 @@
+package org.folio.edge.patron.utils;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.vertx.core.json.JsonObject;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Appends spans to a file, one JSON object per line, for looking at traces
+ * without running a collector.
+ */
+public class FileSpanExporter implements SpanExporter {
+
+  private static final Logger logger = LogManager.getLogger(FileSpanExporter.class);
+
+  private final Path path;
+  private BufferedWriter writer;
+  private boolean shutdown;
+
+  public FileSpanExporter(Path path) {
+    this.path = path;
+  }
+
+  @Override
+  public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+    if (shutdown) {
+      return CompletableResultCode.ofFailure();
+    }
+    try {
+      if (writer == null) {
+        writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+          StandardOpenOption.APPEND);
+      }
+      for (SpanData span : spans) {
+        writer.write(toJson(span).encode());
+        writer.newLine();
+      }
+      writer.flush();
+      return CompletableResultCode.ofSuccess();
+    } catch (IOException e) {
+      logger.error("Unable to write spans to {}", path, e);
+      return CompletableResultCode.ofFailure();
+    }
+  }
+
+  static JsonObject toJson(SpanData span) {
+    JsonObject attributes = new JsonObject();
+    span.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), value));
+    JsonObject json = new JsonObject()
+      .put("traceId", span.getTraceId())
+      .put("spanId", span.getSpanId())
+      .put("name", span.getName())
+      .put("kind", span.getKind().name())
+      .put("startTimeUnixNano", span.getStartEpochNanos())
+      .put("endTimeUnixNano", span.getEndEpochNanos())
+      .put("status", span.getStatus().getStatusCode().name())
+      .put("attributes", attributes);
+    if (span.getParentSpanContext().isValid()) {
+      json.put("parentSpanId", span.getParentSpanId());
+    }
+    return json;
+  }
+
+  @Override
+  public CompletableResultCode flush() {
+    return CompletableResultCode.ofSuccess();
+  }
+
+  @Override
+  public synchronized CompletableResultCode shutdown() {
+    shutdown = true;
+    if (writer != null) {
+      try {
+        writer.close();
+      } catch (IOException e) {
+        logger.warn("Unable to close {}", path, e);
+        return CompletableResultCode.ofFailure();
+      }
+    }
+    return CompletableResultCode.ofSuccess();
+  }
+}
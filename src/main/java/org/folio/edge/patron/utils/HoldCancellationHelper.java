@@ -0,0 +1,83 @@
+package org.folio.edge.patron.utils;
+
+import static org.folio.edge.patron.Constants.FIELD_HOLD_ID;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.edge.patron.cache.HoldRequestCache;
+
+public class HoldCancellationHelper {
+
+  private static final Logger logger = LogManager.getLogger(HoldCancellationHelper.class);
+
+  private HoldCancellationHelper() {
+  }
+
+  /**
+   * Cancels several holds of a patron.  The request records that aren't
+   * cached are fetched with a single query up front, then the cancellations
+   * are posted with at most {@code concurrency} of them in flight.
+   *
+   * @param cancellations hold cancellation requests, each with its holdId
+   * @return one result per cancellation, see {@link BulkRequestHelper#toResult}
+   */
+  public static Future<JsonArray> cancelHolds(PatronOkapiClient client, String patronId,
+    List<JsonObject> cancellations, HoldRequestCache cache, int concurrency) {
+
+    final List<String> holdIds = new ArrayList<>(cancellations.size());
+    final Map<String, JsonObject> requests = new HashMap<>();
+    final List<String> missing = new ArrayList<>();
+    for (JsonObject cancellation : cancellations) {
+      String holdId = cancellation.getString(FIELD_HOLD_ID);
+      holdIds.add(holdId);
+      JsonObject cached = cache != null ? cache.get(client.tenant, holdId) : null;
+      if (cached != null) {
+        requests.put(holdId, cached);
+      } else {
+        missing.add(holdId);
+      }
+    }
+
+    return client.getRequests(missing, null)
+      .otherwise(t -> {
+        // each cancellation looks its request up on its own then
+        logger.warn("Failed to get requests {} of patron {}", missing, patronId, t);
+        return Map.of();
+      })
+      .compose(found -> {
+        requests.putAll(found);
+        return BulkRequestHelper.runAll(cancellations, FIELD_HOLD_ID, holdIds, concurrency,
+          cancellation -> cancelHold(client, patronId, cancellation, requests, cache));
+      });
+  }
+
+  private static Future<JsonObject> cancelHold(PatronOkapiClient client, String patronId,
+    JsonObject cancellation, Map<String, JsonObject> requests, HoldRequestCache cache) {
+
+    final String holdId = cancellation.getString(FIELD_HOLD_ID);
+    final Promise<HttpResponse<Buffer>> promise = Promise.promise();
+    final JsonObject request = requests.get(holdId);
+    if (request != null) {
+      client.cancelHoldWithRequest(patronId, holdId, cancellation, request, promise::complete, promise::fail);
+    } else {
+      client.cancelHold(patronId, holdId, cancellation, promise::complete, promise::fail);
+    }
+    return promise.future()
+      .onComplete(ar -> {
+        if (cache != null) {
+          cache.remove(client.tenant, holdId);
+        }
+      })
+      .map(resp -> BulkRequestHelper.toResult(FIELD_HOLD_ID, holdId, resp));
+  }
+}
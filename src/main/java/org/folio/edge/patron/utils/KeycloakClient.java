@@ -2,30 +2,62 @@ package org.folio.edge.patron.utils;
 
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.client.HttpRequest;
 import io.vertx.ext.web.client.WebClient;
 import org.apache.http.HttpStatus;
-import org.folio.edge.patron.cache.KeycloakPublicKeyCache;
 
 public class KeycloakClient {
 
   private static final String REALM_INFO_URI = "/realms/%s/protocol/openid-connect/certs";
   private final String keycloakUrl;
   private final WebClient webClient;
+  private PatronMetrics metrics;
+  private PatronTracing tracing;
 
   public KeycloakClient(String keycloakUrl, WebClient webClient) {
     this.keycloakUrl = keycloakUrl;
     this.webClient = webClient;
   }
 
+  public KeycloakClient withMetrics(PatronMetrics metrics) {
+    this.metrics = metrics;
+    return this;
+  }
+
+  public KeycloakClient withTracing(PatronTracing tracing) {
+    this.tracing = tracing;
+    return this;
+  }
+
   public Future<String> getPublicKeys(String realm) {
     Promise<String> promise = Promise.promise();
     String uri = String.format(REALM_INFO_URI, realm);
-    webClient.getAbs(keycloakUrl + uri).send()
+    final PatronMetrics.Upstream upstream = metrics != null ? metrics.upstream(PatronMetrics.UPSTREAM_KEYCLOAK) : null;
+    final HttpRequest<Buffer> request = webClient.getAbs(keycloakUrl + uri);
+    final PatronTracing.Client span = tracing != null
+      ? tracing.startClient(PatronMetrics.UPSTREAM_KEYCLOAK, HttpMethod.GET, keycloakUrl + uri, null)
+      : null;
+    if (span != null) {
+      request.putHeaders(span.getHeaders());
+    }
+    request.send()
+      .onComplete(ar -> {
+        if (upstream != null) {
+          upstream.stop(ar.succeeded() ? String.valueOf(ar.result().statusCode()) : "error");
+        }
+        if (span != null) {
+          if (ar.succeeded()) {
+            span.end(ar.result().statusCode());
+          } else {
+            span.fail(ar.cause());
+          }
+        }
+      })
       .onSuccess(response -> {
         if (HttpStatus.SC_OK == response.statusCode()) {
-          var body = response.bodyAsString();
-          KeycloakPublicKeyCache.getInstance().put(realm, body);
-          promise.complete(body);
+          promise.complete(response.bodyAsString());
         } else {
           promise.fail(new RuntimeException("Request failed with status: " + response.statusCode()));
         }
@@ -0,0 +1,112 @@
+package org.folio.edge.patron.utils;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Header;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.Jwks;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.PublicKey;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * The parsed JWKS of a Keycloak realm: public keys indexed by kid, plus a
+ * reusable parser that verifies tokens against them.  Instances are
+ * immutable and safe to share between event loops.
+ */
+public final class KeycloakRealmKeys {
+
+  private static final Logger logger = LogManager.getLogger(KeycloakRealmKeys.class);
+
+  private final Map<String, Key> keysById;
+  private final JwtParser parser;
+
+  private KeycloakRealmKeys(Map<String, Key> keysById) {
+    this.keysById = keysById;
+    this.parser = Jwts.parser().keyLocator(this::locateKey).build();
+  }
+
+  /**
+   * Parses the JSON body of a realm's {@code /protocol/openid-connect/certs}
+   * response.  Entries that are malformed, have no kid or aren't public keys,
+   * e.g. symmetric {@code oct} keys, are skipped, so that they can neither
+   * fail the other keys of the realm nor verify tokens.
+   *
+   * @param jwks the JWK set as returned by Keycloak
+   * @return the parsed keys
+   * @throws IllegalArgumentException if the body isn't a JWK set
+   */
+  public static KeycloakRealmKeys parse(String jwks) {
+    final JsonArray entries;
+    try {
+      entries = new JsonObject(jwks).getJsonArray("keys");
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("Malformed JWK set", e);
+    }
+    if (entries == null) {
+      throw new IllegalArgumentException("JWK set without keys");
+    }
+    Map<String, Key> keys = new HashMap<>();
+    for (Object entry : entries) {
+      try {
+        Jwk<?> jwk = Jwks.parser().build().parse(((JsonObject) entry).encode());
+        if (jwk.getId() != null && jwk.toKey() instanceof PublicKey key) {
+          keys.put(jwk.getId(), key);
+        } else {
+          logger.warn("Skipping JWK that isn't a public key with a kid: {} {}", jwk.getType(), jwk.getId());
+        }
+      } catch (RuntimeException e) {
+        logger.warn("Skipping malformed JWK: {}", e.getMessage());
+      }
+    }
+    return new KeycloakRealmKeys(Map.copyOf(keys));
+  }
+
+  public Key getKey(String keyId) {
+    return keyId == null ? null : keysById.get(keyId);
+  }
+
+  /**
+   * Reads the kid from the token's header without verifying the token.
+   *
+   * @return the key id, or null if the token has none or isn't a JWS
+   */
+  public static String getKeyId(String accessToken) {
+    int end = accessToken.indexOf('.');
+    if (end <= 0) {
+      return null;
+    }
+    try {
+      byte[] header = Base64.getUrlDecoder().decode(accessToken.substring(0, end));
+      return new JsonObject(new String(header, StandardCharsets.UTF_8)).getString("kid");
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  /**
+   * Verifies the token's signature and returns its claims.
+   *
+   * @throws io.jsonwebtoken.JwtException if the token is malformed, expired
+   *           or not signed by one of this realm's keys
+   */
+  public Claims parseClaims(String accessToken) {
+    return parser.parseSignedClaims(accessToken).getPayload();
+  }
+
+  private Key locateKey(Header header) {
+    if (header instanceof ProtectedHeader ph) {
+      return getKey(ph.getKeyId());
+    }
+    return null;
+  }
+}
@@ -1,70 +1,171 @@
 package org.folio.edge.patron.utils;
 
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.Locator;
-import io.jsonwebtoken.ProtectedHeader;
-import io.jsonwebtoken.security.JwkSet;
-import io.jsonwebtoken.security.Jwks;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
-import java.security.Key;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.folio.edge.patron.cache.KeycloakPublicKeyCache;
+import org.folio.edge.patron.cache.TokenClaimsCache;
 
 public class KeycloakTokenHelper {
 
   private static final Logger logger = LogManager.getLogger(KeycloakTokenHelper.class);
 
+  /**
+   * JWKS fetches currently waiting on Keycloak, keyed by the cache they fill
+   * and realm, so concurrent cache misses and kid-miss refreshes share a
+   * single call while a caller with a cache of its own still gets it filled.
+   */
+  private static final Map<FetchKey, Future<KeycloakRealmKeys>> inFlightFetches = new ConcurrentHashMap<>();
+
   private KeycloakTokenHelper() {
   }
 
+  /**
+   * Returns the claims of a verified access token, from the token claims cache
+   * when this token was already verified for the realm.
+   */
+  public static Future<TokenClaims> getTokenClaims(String accessToken, String realm, KeycloakClient client) {
+    return getTokenClaims(accessToken, realm, client, getKeyCache(), getTokenClaimsCache());
+  }
+
+  /**
+   * Same as {@link #getTokenClaims(String, String, KeycloakClient)} using the
+   * given caches, either of which may be null to skip caching.
+   */
+  public static Future<TokenClaims> getTokenClaims(String accessToken, String realm, KeycloakClient client,
+    KeycloakPublicKeyCache keyCache, TokenClaimsCache claimsCache) {
+
+    if (claimsCache != null) {
+      var cached = claimsCache.get(realm, accessToken);
+      if (cached != null) {
+        return Future.succeededFuture(cached);
+      }
+    }
+
+    return getClaimsFromToken(accessToken, realm, client, keyCache)
+      .map(TokenClaims::from)
+      .onSuccess(claims -> {
+        if (claimsCache != null) {
+          claimsCache.put(realm, accessToken, claims);
+        }
+      });
+  }
+
   public static Future<Claims> getClaimsFromToken(String accessToken, String realm, KeycloakClient client) {
+    return getClaimsFromToken(accessToken, realm, client, getKeyCache());
+  }
+
+  public static Future<Claims> getClaimsFromToken(String accessToken, String realm, KeycloakClient client,
+    KeycloakPublicKeyCache keyCache) {
+
     Promise<Claims> promise = Promise.promise();
-    getKeycloakPublicKey(realm, client).onSuccess(keys -> {
-      var jwks = Jwks.setParser().build().parse(keys);
-      var parser = Jwts.parser().keyLocator(locateKey(jwks)).build();
-      try {
-        var claims = parser.parseSignedClaims(accessToken).getPayload();
-        promise.complete(claims);
-      } catch (Exception ex) {
+    getRealmKeys(realm, client, keyCache)
+      .compose(keys -> refreshIfKeyUnknown(keys, KeycloakRealmKeys.getKeyId(accessToken), realm, client, keyCache))
+      .onSuccess(keys -> {
+        try {
+          var claims = keys.parseClaims(accessToken);
+          promise.complete(claims);
+        } catch (Exception ex) {
+          promise.fail(ex);
+        }
+      }).onFailure(ex -> {
+        logger.error("Failed to get public key from keycloak", ex);
         promise.fail(ex);
-      }
-    }).onFailure(ex -> {
-      logger.error("Failed to get public key from keycloak", ex);
-      promise.fail(ex);
-    });
+      });
     return promise.future();
   }
 
-  private static Locator<Key> locateKey(JwkSet jwks) {
-    return header -> {
-      if (header instanceof ProtectedHeader ph) {
-        var key = jwks.getKeys().stream().filter(jwk -> jwk.getId().equals(ph.getKeyId())).findFirst();
-        if (key.isEmpty()) {
-          return null;
+  private static Future<KeycloakRealmKeys> getRealmKeys(String realm, KeycloakClient client,
+    KeycloakPublicKeyCache cache) {
+
+    if (cache != null) {
+      var keys = cache.get(realm);
+      if (keys != null) {
+        if (cache.shouldRefresh(realm)) {
+          logger.debug("Refreshing cached keys for realm {}", realm);
+          fetchRealmKeys(realm, client, cache).onFailure(t -> {
+            logger.warn("Failed to refresh keys for realm {}", realm, t);
+            cache.refreshFailed(realm);
+          });
         }
-        return key.get().toKey();
-      } else {
-        return null;
+        return Future.succeededFuture(keys);
       }
-    };
+    }
+    return fetchRealmKeys(realm, client, cache);
   }
 
-  private static Future<String> getKeycloakPublicKey(String realm, KeycloakClient client) {
-    String publicKey = null;
+  /**
+   * After a key rotation tokens are signed with a kid we haven't cached yet;
+   * re-fetch the realm's keys, at most once per min refresh interval.  If no
+   * refresh happens or it fails, the cached keys are used as they are.
+   */
+  private static Future<KeycloakRealmKeys> refreshIfKeyUnknown(KeycloakRealmKeys keys, String keyId,
+    String realm, KeycloakClient client, KeycloakPublicKeyCache cache) {
+
+    if (keyId == null || keys.getKey(keyId) != null || cache == null) {
+      return Future.succeededFuture(keys);
+    }
+    if (!cache.isRefreshAllowed(realm)) {
+      logger.debug("Unknown key id {} for realm {}, refresh rate limited", keyId, realm);
+      return Future.succeededFuture(keys);
+    }
+    logger.info("Unknown key id {} for realm {}, refreshing keys", keyId, realm);
+    return fetchRealmKeys(realm, client, cache)
+      .otherwise(t -> {
+        logger.warn("Failed to refresh keys for realm {}", realm, t);
+        return keys;
+      });
+  }
+
+  private static Future<KeycloakRealmKeys> fetchRealmKeys(String realm, KeycloakClient client,
+    KeycloakPublicKeyCache cache) {
+
+    final Promise<KeycloakRealmKeys> promise = Promise.promise();
+    final Future<KeycloakRealmKeys> fetch = promise.future();
+    final FetchKey key = new FetchKey(cache, realm);
+    Future<KeycloakRealmKeys> inFlight = inFlightFetches.putIfAbsent(key, fetch);
+    if (inFlight != null) {
+      return SharedFutures.onCurrentContext(inFlight);
+    }
+
+    client.getPublicKeys(realm)
+      .map(KeycloakRealmKeys::parse)
+      .onComplete(ar -> {
+        if (ar.succeeded() && cache != null) {
+          cache.replace(realm, ar.result());
+        }
+        inFlightFetches.remove(key, fetch);
+        promise.handle(ar);
+      });
+    return fetch;
+  }
+
+  /**
+   * @param cache compared by identity, caches don't override equals
+   */
+  private record FetchKey(KeycloakPublicKeyCache cache, String realm) {
+  }
+
+  private static KeycloakPublicKeyCache getKeyCache() {
     try {
-      var cache = KeycloakPublicKeyCache.getInstance();
-      publicKey = cache.get(realm);
+      return KeycloakPublicKeyCache.getInstance();
     } catch (KeycloakPublicKeyCache.KeycloakPublicKeyCacheNotInitializedException ex) {
       logger.warn("Keycloak cache not initialized");
+      return null;
     }
-    if (publicKey != null) {
-      return Future.succeededFuture(publicKey);
-    }
+  }
 
-    return client.getPublicKeys(realm);
+  private static TokenClaimsCache getTokenClaimsCache() {
+    try {
+      return TokenClaimsCache.getInstance();
+    } catch (TokenClaimsCache.TokenClaimsCacheNotInitializedException ex) {
+      logger.warn("Token claims cache not initialized");
+      return null;
+    }
   }
 
 }
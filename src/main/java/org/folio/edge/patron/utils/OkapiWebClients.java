@@ -0,0 +1,214 @@
+package org.folio.edge.patron.utils;
+
+import static org.folio.edge.patron.Constants.MAX_OKAPI_CLIENT_POOLS;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.http.PoolOptions;
+import io.vertx.core.net.KeyStoreOptions;
+import io.vertx.ext.web.client.HttpRequest;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * One connection pool to Okapi per tenant, so that a tenant with a lot of
+ * traffic can only exhaust its own connections, along with the number of
+ * requests each pool has in flight.
+ * <p>
+ * At most {@code maxPools} pools are created; the requests of any further
+ * tenants share a single overflow pool.  Pools aren't evicted, as the
+ * clients of the handler keep using the pool they were created with.
+ */
+public class OkapiWebClients {
+
+  private static final Logger logger = LogManager.getLogger(OkapiWebClients.class);
+
+  private final Vertx vertx;
+  private final WebClientOptions options;
+  private final PoolOptions poolOptions;
+  private final int maxPools;
+  private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+  private Pool overflow;
+
+  public OkapiWebClients(Vertx vertx, WebClientOptions options, PoolOptions poolOptions) {
+    this(vertx, options, poolOptions, MAX_OKAPI_CLIENT_POOLS);
+  }
+
+  public OkapiWebClients(Vertx vertx, WebClientOptions options, PoolOptions poolOptions, int maxPools) {
+    this.vertx = vertx;
+    this.options = options;
+    this.poolOptions = poolOptions;
+    this.maxPools = maxPools;
+  }
+
+  /**
+   * @param poolSize max connections per tenant; with HTTP/2 each of them
+   *          multiplexes requests
+   * @param http2 use HTTP/2, negotiated with ALPN over TLS or upgraded from
+   *          HTTP/1.1 (h2c) otherwise
+   * @param trustOptions the truststore for TLS, or null for the default one
+   */
+  public static OkapiWebClients create(Vertx vertx, String okapiUrl, int poolSize, boolean keepAlive,
+    boolean pipelining, boolean http2, KeyStoreOptions trustOptions) {
+
+    logger.info("Using pool size per tenant: {}", poolSize);
+    logger.info("Using keep-alive: {}, pipelining: {}, HTTP/2: {}", keepAlive, pipelining, http2);
+    WebClientOptions options = configure(new WebClientOptions(), okapiUrl, keepAlive, pipelining, http2,
+      trustOptions);
+    options.setTryUseCompression(true);
+    PoolOptions poolOptions = poolOptions(poolSize);
+    return new OkapiWebClients(vertx, options, poolOptions);
+  }
+
+  /**
+   * A client to Okapi with the settings of the pools, for the account
+   * responses piped to the caller.  It doesn't ask for compressed responses,
+   * so that they are passed on with their length as received.
+   *
+   * @param poolSize max connections, or 0 for the default
+   */
+  public static HttpClient createStreamingClient(Vertx vertx, String okapiUrl, int poolSize, boolean keepAlive,
+    boolean pipelining, boolean http2, KeyStoreOptions trustOptions) {
+
+    return vertx.createHttpClient(configure(new HttpClientOptions(), okapiUrl, keepAlive, pipelining, http2,
+      trustOptions),
+      poolSize > 0 ? poolOptions(poolSize) : new PoolOptions());
+  }
+
+  private static <T extends HttpClientOptions> T configure(T options, String okapiUrl, boolean keepAlive,
+    boolean pipelining, boolean http2, KeyStoreOptions trustOptions) {
+
+    final boolean ssl = okapiUrl != null && okapiUrl.startsWith("https");
+    options.setKeepAlive(keepAlive)
+      .setPipelining(pipelining)
+      .setSsl(ssl);
+    if (ssl && trustOptions != null) {
+      options.setTrustOptions(trustOptions);
+    }
+    if (http2) {
+      options.setProtocolVersion(HttpVersion.HTTP_2)
+        .setUseAlpn(ssl)
+        .setHttp2ClearTextUpgrade(true);
+    }
+    return options;
+  }
+
+  private static PoolOptions poolOptions(int poolSize) {
+    return new PoolOptions()
+      .setHttp1MaxSize(poolSize)
+      .setHttp2MaxSize(poolSize);
+  }
+
+  /**
+   * @param tenant the tenant of the API key; not one taken from the request,
+   *          which would let clients create pools at will
+   */
+  public Pool get(String tenant) {
+    final Pool pool = pools.get(tenant);
+    if (pool != null) {
+      return pool;
+    }
+    synchronized (pools) {
+      Pool created = pools.get(tenant);
+      if (created != null) {
+        return created;
+      }
+      if (pools.size() >= maxPools) {
+        logger.warn("{} pools exist already, sending the requests of {} through the overflow pool", maxPools, tenant);
+        if (overflow == null) {
+          overflow = createPool();
+        }
+        return overflow;
+      }
+      created = createPool();
+      pools.put(tenant, created);
+      return created;
+    }
+  }
+
+  /**
+   * Closes the clients of all pools.
+   */
+  public void close() {
+    synchronized (pools) {
+      pools.values().forEach(pool -> pool.getWebClient().close());
+      pools.clear();
+      if (overflow != null) {
+        overflow.getWebClient().close();
+        overflow = null;
+      }
+    }
+  }
+
+  private Pool createPool() {
+    return new Pool(WebClient.create(vertx, options, poolOptions), poolOptions.getHttp1MaxSize());
+  }
+
+  /**
+   * The pools created so far, by tenant.
+   */
+  public Map<String, Pool> getPools() {
+    return Collections.unmodifiableMap(pools);
+  }
+
+  public static class Pool {
+
+    private final WebClient webClient;
+    private final int size;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong requestCount = new AtomicLong();
+
+    Pool(WebClient webClient, int size) {
+      this.webClient = webClient;
+      this.size = size;
+    }
+
+    public WebClient getWebClient() {
+      return webClient;
+    }
+
+    public Future<HttpResponse<Buffer>> send(HttpRequest<Buffer> request, Buffer body) {
+      inFlight.incrementAndGet();
+      requestCount.incrementAndGet();
+      Future<HttpResponse<Buffer>> response;
+      try {
+        response = body != null ? request.sendBuffer(body) : request.send();
+      } catch (RuntimeException e) {
+        response = Future.failedFuture(e);
+      }
+      return response.onComplete(ar -> inFlight.decrementAndGet());
+    }
+
+    public int getSize() {
+      return size;
+    }
+
+    public int getInFlight() {
+      return inFlight.get();
+    }
+
+    public long getRequestCount() {
+      return requestCount.get();
+    }
+
+    /**
+     * Requests in flight per connection the pool may open; above 1 requests
+     * are pipelined, multiplexed or wait for a connection.
+     */
+    public double getUtilisation() {
+      return size > 0 ? (double) inFlight.get() / size : 0;
+    }
+  }
+}
@@ -1,35 +1,114 @@
 package org.folio.edge.patron.utils;
 
+import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.folio.edge.patron.cache.PatronIdCache;
+import org.folio.edge.patron.utils.PatronOkapiClient.PatronNotFoundException;
 
 public class PatronIdHelper {
 
   private static final Logger logger = LogManager.getLogger(PatronIdHelper.class);
 
+  /**
+   * Lookups currently waiting on mod-users, keyed by tenant:externalId, so
+   * concurrent requests for the same patron share a single upstream call.
+   */
+  private static final Map<String, Future<String>> inFlightLookups = new ConcurrentHashMap<>();
+
   private PatronIdHelper() {
 
   }
 
   public static Future<String> lookupPatron(PatronOkapiClient client, String tenant, String extPatronId) {
-    String patronId = null;
+    PatronIdCache cache = null;
     try {
-      PatronIdCache cache = PatronIdCache.getInstance();
-      patronId = cache.get(tenant, extPatronId);
+      cache = PatronIdCache.getInstance();
     } catch (PatronIdCache.PatronIdCacheNotInitializedException e) {
       logger.warn("Failed to access PatronIdCache", e);
     }
+    return lookupPatron(cache, client, tenant, extPatronId);
+  }
 
-    if (patronId != null) {
-      logger.info("Using cached patronId");
-      return Future.succeededFuture(patronId);
+  /**
+   * Looks up the patron using the given cache, which may be null to skip
+   * caching.
+   */
+  public static Future<String> lookupPatron(PatronIdCache cache, PatronOkapiClient client, String tenant,
+    String extPatronId) {
+
+    if (cache != null) {
+      String patronId = cache.get(tenant, extPatronId);
+      if (patronId != null) {
+        logger.info("Using cached patronId");
+        if (cache.shouldRefresh(tenant, extPatronId)) {
+          refreshPatron(cache, client, tenant, extPatronId);
+        }
+        return Future.succeededFuture(patronId);
+      }
+      if (cache.isNotFound(tenant, extPatronId)) {
+        logger.info("Using cached patron lookup failure for {}", extPatronId);
+        return Future.failedFuture(new PatronNotFoundException("Patron not found: " + extPatronId));
+      }
     }
 
-    return client.getPatron(extPatronId)
-        .onSuccess(internalId -> logger.info("Patron lookup successful: {} -> {}", extPatronId, internalId))
-        .onFailure(t -> logger.error("Patron lookup failed for {}", extPatronId, t));
+    final String key = String.format("%s:%s", tenant, extPatronId);
+    final Promise<String> promise = Promise.promise();
+    final Future<String> lookup = promise.future();
+    Future<String> inFlight = inFlightLookups.putIfAbsent(key, lookup);
+    if (inFlight != null) {
+      logger.debug("Joining in-flight patron lookup for {}", extPatronId);
+      return SharedFutures.onCurrentContext(inFlight);
+    }
+
+    client.getPatron(extPatronId)
+      .onSuccess(internalId -> logger.info("Patron lookup successful: {} -> {}", extPatronId, internalId))
+      .onFailure(t -> logger.error("Patron lookup failed for {}", extPatronId, t))
+      .onComplete(ar -> {
+        // populate the cache before un-registering so no request can miss both
+        cacheResult(cache, tenant, extPatronId, ar);
+        inFlightLookups.remove(key, lookup);
+        promise.handle(ar);
+      });
+    return lookup;
+  }
+
+  /**
+   * Reloads a cached mapping that is close to expiring, so hot patrons don't
+   * pay for the lookup when it expires.  Requests keep being served from the
+   * cached mapping meanwhile.
+   */
+  private static void refreshPatron(PatronIdCache cache, PatronOkapiClient client, String tenant,
+    String extPatronId) {
+
+    logger.debug("Refreshing cached patronId for {}", extPatronId);
+    client.getPatron(extPatronId)
+      .onSuccess(internalId -> cache.refreshed(tenant, extPatronId, internalId))
+      .onFailure(t -> {
+        if (t instanceof PatronNotFoundException) {
+          cache.refreshed(tenant, extPatronId, null);
+        } else {
+          logger.warn("Failed to refresh cached patronId for {}", extPatronId, t);
+          cache.refreshFailed(tenant, extPatronId);
+        }
+      });
+  }
+
+  private static void cacheResult(PatronIdCache cache, String tenant, String extPatronId,
+    AsyncResult<String> result) {
+
+    if (cache == null) {
+      return;
+    }
+    if (result.succeeded()) {
+      cache.put(tenant, extPatronId, result.result());
+    } else if (result.cause() instanceof PatronNotFoundException) {
+      cache.putNotFound(tenant, extPatronId);
+    }
   }
 
 }
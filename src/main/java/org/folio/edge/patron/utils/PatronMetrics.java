@@ -0,0 +1,277 @@
+package org.folio.edge.patron.utils;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.web.Route;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.client.HttpResponse;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Request, upstream and cache metrics in the Prometheus format.
+ * <p>
+ * Upstream calls are attributed to the request being handled on the current
+ * Vert.x context; as Vert.x runs each server request on its own duplicated
+ * context, the time a request waited for mod-patron, mod-users or Keycloak
+ * can be told apart from the time spent in the edge module itself.
+ */
+public class PatronMetrics {
+
+  private static final Logger logger = LogManager.getLogger(PatronMetrics.class);
+
+  public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+  public static final String UPSTREAM_KEYCLOAK = "keycloak";
+
+  static final String REQUESTS = "edge.patron.requests";
+  static final String REQUEST_OVERHEAD = "edge.patron.request.overhead";
+  static final String UPSTREAM_REQUESTS = "edge.patron.upstream.requests";
+
+  private static final Map<String, String> MODULES = Map.of(
+    "patron", "mod-patron",
+    "users", "mod-users",
+    "circulation", "mod-circulation",
+    "circulation-bff", "mod-circulation-bff",
+    "authn", "mod-login");
+
+  private final PrometheusMeterRegistry registry;
+  private final Map<Context, RequestTiming> requests = new ConcurrentHashMap<>();
+  // meters only hold weak references to the objects they read
+  private final List<Object> bound = new CopyOnWriteArrayList<>();
+  private volatile OkapiWebClients webClients;
+
+  public PatronMetrics(PrometheusMeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  public static PatronMetrics create() {
+    return new PatronMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+  }
+
+  public PrometheusMeterRegistry getRegistry() {
+    return registry;
+  }
+
+  /**
+   * Times the request once its response ended; to be installed before any
+   * other handler.
+   */
+  public void handleRequest(RoutingContext ctx) {
+    final long start = System.nanoTime();
+    final Context context = Vertx.currentContext();
+    final RequestTiming timing = new RequestTiming();
+    if (context != null) {
+      requests.put(context, timing);
+    }
+    ctx.addEndHandler(ar -> {
+      if (context != null) {
+        requests.remove(context, timing);
+      }
+      final long elapsed = System.nanoTime() - start;
+      final Route route = ctx.currentRoute();
+      final String path = route != null && route.getPath() != null ? route.getPath() : "other";
+      final String status = String.valueOf(ctx.response().getStatusCode());
+      Timer.builder(REQUESTS)
+        .description("Requests handled by the edge module")
+        .tag("method", ctx.request().method().name())
+        .tag("route", path)
+        .tag("status", status)
+        .publishPercentileHistogram()
+        .register(registry)
+        .record(elapsed, TimeUnit.NANOSECONDS);
+      Timer.builder(REQUEST_OVERHEAD)
+        .description("Time of a request not spent waiting for upstream modules")
+        .tag("route", path)
+        .publishPercentileHistogram()
+        .register(registry)
+        .record(Math.max(0, elapsed - timing.getUpstreamNanos()), TimeUnit.NANOSECONDS);
+    });
+    ctx.next();
+  }
+
+  public void handleScrape(RoutingContext ctx) {
+    registerPools();
+    ctx.response()
+      .putHeader("Content-Type", CONTENT_TYPE)
+      .end(registry.scrape());
+  }
+
+  /**
+   * Starts timing a call to the upstream module the url points to.
+   */
+  public Upstream upstream(String okapiUrl, String url) {
+    return upstream(moduleOf(okapiUrl, url));
+  }
+
+  public Upstream upstream(String name) {
+    final Context context = Vertx.currentContext();
+    final RequestTiming timing = context != null ? requests.get(context) : null;
+    if (timing != null) {
+      timing.started();
+    }
+    return new Upstream(name, timing);
+  }
+
+  /**
+   * The module handling the url, from its first path segment.
+   */
+  static String moduleOf(String okapiUrl, String url) {
+    String path = url;
+    if (okapiUrl != null && url.startsWith(okapiUrl)) {
+      path = url.substring(okapiUrl.length());
+    } else {
+      try {
+        path = URI.create(url).getPath();
+      } catch (IllegalArgumentException e) {
+        logger.debug("moduleOf:: Unable to parse url: {}", url);
+      }
+    }
+    if (path == null) {
+      return "okapi";
+    }
+    final String[] segments = path.split("[/?]");
+    final String first = segments.length > 1 ? segments[1] : "";
+    return MODULES.getOrDefault(first, "okapi");
+  }
+
+  /**
+   * Exposes the counters of a cache; the suppliers are read at scrape time,
+   * so they may look up a singleton that's replaced later.
+   *
+   * @param size the number of entries, or null if the cache doesn't tell
+   */
+  public void bindCache(String name, LongSupplier hits, LongSupplier misses, LongSupplier evictions,
+    IntSupplier size) {
+
+    bound.addAll(List.of(hits, misses, evictions));
+    FunctionCounter.builder("edge.patron.cache.hits", hits, LongSupplier::getAsLong)
+      .tag("cache", name)
+      .register(registry);
+    FunctionCounter.builder("edge.patron.cache.misses", misses, LongSupplier::getAsLong)
+      .tag("cache", name)
+      .register(registry);
+    FunctionCounter.builder("edge.patron.cache.evictions", evictions, LongSupplier::getAsLong)
+      .tag("cache", name)
+      .register(registry);
+    if (size != null) {
+      bound.add(size);
+      Gauge.builder("edge.patron.cache.size", size, IntSupplier::getAsInt)
+        .tag("cache", name)
+        .register(registry);
+    }
+  }
+
+  /**
+   * Exposes the connection pools of the tenants; as a pool is created on the
+   * first request of its tenant, pools are registered when they're scraped.
+   */
+  public void bindPools(OkapiWebClients webClients) {
+    this.webClients = webClients;
+  }
+
+  private void registerPools() {
+    final OkapiWebClients pools = webClients;
+    if (pools == null) {
+      return;
+    }
+    pools.getPools().forEach((tenant, pool) -> {
+      Gauge.builder("edge.patron.okapi.pool.in.flight", pool, OkapiWebClients.Pool::getInFlight)
+        .tag("tenant", tenant)
+        .register(registry);
+      Gauge.builder("edge.patron.okapi.pool.utilisation", pool, OkapiWebClients.Pool::getUtilisation)
+        .tag("tenant", tenant)
+        .register(registry);
+      FunctionCounter.builder("edge.patron.okapi.pool.requests", pool, OkapiWebClients.Pool::getRequestCount)
+        .tag("tenant", tenant)
+        .register(registry);
+    });
+  }
+
+  /**
+   * A call to an upstream module in flight.
+   */
+  public final class Upstream {
+
+    private final String name;
+    private final RequestTiming timing;
+    private final long start = System.nanoTime();
+
+    private Upstream(String name, RequestTiming timing) {
+      this.name = name;
+      this.timing = timing;
+    }
+
+    public Handler<HttpResponse<Buffer>> onResponse(Handler<HttpResponse<Buffer>> responseHandler) {
+      return response -> {
+        stop(String.valueOf(response.statusCode()));
+        responseHandler.handle(response);
+      };
+    }
+
+    public Handler<Throwable> onFailure(Handler<Throwable> exceptionHandler) {
+      return t -> {
+        stop("error");
+        exceptionHandler.handle(t);
+      };
+    }
+
+    /**
+     * @param status the response status code, or "error" when no response was
+     *          received
+     */
+    public void stop(String status) {
+      if (timing != null) {
+        timing.ended();
+      }
+      Timer.builder(UPSTREAM_REQUESTS)
+        .description("Requests sent to upstream modules")
+        .tag("upstream", name)
+        .tag("status", status)
+        .publishPercentileHistogram()
+        .register(registry)
+        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * The time a request had at least one upstream call in flight, so that
+   * concurrent calls aren't counted twice.
+   */
+  private static final class RequestTiming {
+
+    private int inFlight;
+    private long busySince;
+    private long upstreamNanos;
+
+    synchronized void started() {
+      if (inFlight++ == 0) {
+        busySince = System.nanoTime();
+      }
+    }
+
+    synchronized void ended() {
+      if (--inFlight == 0) {
+        upstreamNanos += System.nanoTime() - busySince;
+      }
+    }
+
+    synchronized long getUpstreamNanos() {
+      return inFlight > 0 ? upstreamNanos + System.nanoTime() - busySince : upstreamNanos;
+    }
+  }
+}
@@ -2,6 +2,10 @@ package org.folio.edge.patron.utils;
 
 import io.vertx.core.MultiMap;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.RequestOptions;
 import io.vertx.ext.web.client.HttpRequest;
 import io.vertx.ext.web.client.HttpResponse;
 import org.apache.logging.log4j.LogManager;
@@ -10,13 +14,22 @@ import org.folio.edge.core.utils.OkapiClient;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Promise;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import org.folio.edge.patron.PatronConfig;
+import org.folio.edge.patron.cache.HoldRequestCache;
 import org.folio.edge.patron.model.Hold;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 import static io.vertx.core.Future.failedFuture;
-import static java.lang.Boolean.FALSE;
 import static java.lang.String.format;
 import static org.folio.edge.core.Constants.X_OKAPI_TOKEN;
 import static org.folio.edge.patron.Constants.FIELD_CANCELED_DATE;
@@ -27,11 +40,89 @@ public class PatronOkapiClient extends OkapiClient {
 
   private static final Logger logger = LogManager.getLogger(PatronOkapiClient.class);
 
-  private static final String SECURE_REQUESTS_FEATURE_ENABLED = "SECURE_REQUESTS_FEATURE_ENABLED";
-  private static final String SECURE_TENANT_ID = "SECURE_TENANT_ID";
+  private final OkapiWebClients.Pool pool;
+  private final PatronConfig config;
+  private PatronMetrics metrics;
+  private PatronTracing tracing;
 
   public PatronOkapiClient(OkapiClient client, String alternateTenantId) {
+    this(client, alternateTenantId, null);
+  }
+
+  public PatronOkapiClient(OkapiClient client, String alternateTenantId, OkapiWebClients.Pool pool) {
+    this(client, alternateTenantId, pool, PatronConfig.getDefault());
+  }
+
+  /**
+   * @param pool the tenant's own connection pool, or null to use the one of
+   *          the given client
+   */
+  public PatronOkapiClient(OkapiClient client, String alternateTenantId, OkapiWebClients.Pool pool,
+    PatronConfig config) {
+
     super(client, alternateTenantId);
+    this.pool = pool;
+    this.config = config;
+  }
+
+  /**
+   * Times the requests of this client as calls to upstream modules.
+   */
+  public PatronOkapiClient withMetrics(PatronMetrics metrics) {
+    this.metrics = metrics;
+    return this;
+  }
+
+  /**
+   * Traces the requests of this client and sends them with a traceparent.
+   */
+  public PatronOkapiClient withTracing(PatronTracing tracing) {
+    this.tracing = tracing;
+    return this;
+  }
+
+  @Override
+  public void get(String url, String tenant, MultiMap headers, Handler<HttpResponse<Buffer>> responseHandler,
+                  Handler<Throwable> exceptionHandler) {
+    if (metrics != null) {
+      final PatronMetrics.Upstream upstream = metrics.upstream(okapiURL, url);
+      responseHandler = upstream.onResponse(responseHandler);
+      exceptionHandler = upstream.onFailure(exceptionHandler);
+    }
+    if (tracing != null) {
+      final PatronTracing.Client span = tracing.startClient(PatronMetrics.moduleOf(okapiURL, url), HttpMethod.GET,
+        url, headers);
+      headers = span.getHeaders();
+      responseHandler = span.onResponse(responseHandler);
+      exceptionHandler = span.onFailure(exceptionHandler);
+    }
+    if (pool == null) {
+      super.get(url, tenant, headers, responseHandler, exceptionHandler);
+      return;
+    }
+    send(HttpMethod.GET, url, tenant, null, headers, responseHandler, exceptionHandler);
+  }
+
+  @Override
+  public void post(String url, String tenant, String payload, MultiMap headers,
+                   Handler<HttpResponse<Buffer>> responseHandler, Handler<Throwable> exceptionHandler) {
+    if (metrics != null) {
+      final PatronMetrics.Upstream upstream = metrics.upstream(okapiURL, url);
+      responseHandler = upstream.onResponse(responseHandler);
+      exceptionHandler = upstream.onFailure(exceptionHandler);
+    }
+    if (tracing != null) {
+      final PatronTracing.Client span = tracing.startClient(PatronMetrics.moduleOf(okapiURL, url), HttpMethod.POST,
+        url, headers);
+      headers = span.getHeaders();
+      responseHandler = span.onResponse(responseHandler);
+      exceptionHandler = span.onFailure(exceptionHandler);
+    }
+    if (pool == null) {
+      super.post(url, tenant, payload, headers, responseHandler, exceptionHandler);
+      return;
+    }
+    send(HttpMethod.POST, url, tenant, payload, headers, responseHandler, exceptionHandler);
   }
 
   private void getPatron(String extPatronId, Handler<HttpResponse<Buffer>> responseHandler,
@@ -89,7 +180,12 @@ public class PatronOkapiClient extends OkapiClient {
       } else {
         JsonObject json = response.bodyAsJsonObject();
         try {
-          promise.tryComplete(json.getJsonArray("users").getJsonObject(0).getString("id"));
+          JsonArray users = json.getJsonArray("users");
+          if (users == null || users.isEmpty()) {
+            promise.tryFail(new PatronNotFoundException(bodyStr));
+            return;
+          }
+          promise.tryComplete(users.getJsonObject(0).getString("id"));
         } catch (Exception e) {
           logger.error("Exception parsing response from {}", moduleName, e);
           promise.tryFail(new PatronLookupException(e));
@@ -106,17 +202,57 @@ public class PatronOkapiClient extends OkapiClient {
   }
 
   public boolean isSecureRequestsFeatureEnabled() {
-    return Boolean.parseBoolean(
-      System.getenv().getOrDefault(SECURE_REQUESTS_FEATURE_ENABLED, FALSE.toString()));
+    return config.isSecureRequestsFeatureEnabled();
   }
 
-  public boolean getSecureTenantId() {
-    return Boolean.parseBoolean(
-      System.getenv().getOrDefault(SECURE_TENANT_ID, null));
+  public String getSecureTenantId() {
+    return config.getSecureTenantId();
   }
 
   public void getAccount(PatronAccountRequestParams requestParams,
                          Handler<HttpResponse<Buffer>> responseHandler, Handler<Throwable> exceptionHandler) {
+    get(
+        getAccountUrl(requestParams),
+        tenant,
+        null,
+        responseHandler,
+        exceptionHandler);
+  }
+
+  /**
+   * Requests the account with a plain HttpClient so that the response body can
+   * be piped to the caller instead of being buffered.  The response has to be
+   * consumed right away, e.g. with {@code pipeTo} or {@code body()}.  The
+   * upstream call is timed until the response headers arrive.
+   */
+  public Future<HttpClientResponse> streamAccount(HttpClient httpClient, PatronAccountRequestParams requestParams) {
+    String url = getAccountUrl(requestParams);
+    MultiMap headers = MultiMap.caseInsensitiveMultiMap().addAll(defaultHeaders);
+    logger.info("GET '{}' tenant: {} token: {} (streaming)", () -> url, () -> tenant,
+      () -> headers.get(X_OKAPI_TOKEN));
+    final PatronMetrics.Upstream upstream = metrics != null ? metrics.upstream(okapiURL, url) : null;
+    final PatronTracing.Client span = tracing != null
+      ? tracing.startClient(PatronMetrics.moduleOf(okapiURL, url), HttpMethod.GET, url, headers)
+      : null;
+    RequestOptions options = new RequestOptions()
+      .setMethod(HttpMethod.GET)
+      .setAbsoluteURI(url)
+      .setHeaders(span != null ? span.getHeaders() : headers)
+      .setIdleTimeout(reqTimeout);
+    Future<HttpClientResponse> response = httpClient.request(options)
+      .compose(request -> request.send());
+    if (upstream != null) {
+      response.onSuccess(resp -> upstream.stop(String.valueOf(resp.statusCode())))
+        .onFailure(t -> upstream.stop("error"));
+    }
+    if (span != null) {
+      response.onSuccess(resp -> span.end(resp.statusCode()))
+        .onFailure(span::fail);
+    }
+    return response;
+  }
+
+  private String getAccountUrl(PatronAccountRequestParams requestParams) {
     String url = format("%s/patron/account/%s?includeLoans=%s&includeCharges=%s&includeHolds=%s&includeBatches=%s",
       okapiURL,
       requestParams.patronId(),
@@ -133,13 +269,7 @@ public class PatronOkapiClient extends OkapiClient {
     if (null != requestParams.offset()) {
       url = format("%s&offset=%s", url, requestParams.offset());
     }
-
-    get(
-        url,
-        tenant,
-        null,
-        responseHandler,
-        exceptionHandler);
+    return url;
   }
 
   public void renewItem(String patronId, String itemId,
@@ -188,19 +318,35 @@ public class PatronOkapiClient extends OkapiClient {
 
   public void cancelHold(String patronId, String holdId, JsonObject holdCancellationRequest,
                          Handler<HttpResponse<Buffer>> responseHandler, Handler<Throwable> exceptionHandler) {
+    cancelHold(patronId, holdId, holdCancellationRequest, null, responseHandler, exceptionHandler);
+  }
+
+  /**
+   * Cancels the hold, taking the request record from the cache when it's there
+   * instead of fetching it from mod-circulation first.  The record is dropped
+   * from the cache once mod-patron responded.
+   */
+  public void cancelHold(String patronId, String holdId, JsonObject holdCancellationRequest,
+                         HoldRequestCache requestCache,
+                         Handler<HttpResponse<Buffer>> responseHandler, Handler<Throwable> exceptionHandler) {
+    JsonObject cachedRequest = requestCache != null ? requestCache.get(tenant, holdId) : null;
+    if (cachedRequest != null) {
+      logger.debug("cancelHold:: Using cached request {}", holdId);
+      cancelHoldWithRequest(patronId, holdId, holdCancellationRequest, cachedRequest,
+        resp -> {
+          requestCache.remove(tenant, holdId);
+          responseHandler.handle(resp);
+        },
+        exceptionHandler);
+      return;
+    }
     getRequest(holdId,
       resp -> {
         if (resp.statusCode() == 200) {
           String bodyStr = resp.bodyAsString();
           try {
             JsonObject requestToCancel = new JsonObject(bodyStr);
-            Hold holdEntity = createCancellationHoldRequest(holdCancellationRequest, requestToCancel, patronId);
-            post(
-              format("%s/patron/account/%s/hold/%s/cancel", okapiURL, patronId, holdId),
-              tenant,
-              holdEntity.toJson(),
-              null,
-              responseHandler,
+            cancelHoldWithRequest(patronId, holdId, holdCancellationRequest, requestToCancel, responseHandler,
               exceptionHandler);
           } catch (Exception ex) {
             exceptionHandler.handle(ex);
@@ -213,6 +359,26 @@ public class PatronOkapiClient extends OkapiClient {
     );
   }
 
+  /**
+   * Cancels the hold of a request record the caller already has.
+   */
+  public void cancelHoldWithRequest(String patronId, String holdId, JsonObject holdCancellationRequest,
+                                    JsonObject requestToCancel, Handler<HttpResponse<Buffer>> responseHandler,
+                                    Handler<Throwable> exceptionHandler) {
+    try {
+      Hold holdEntity = createCancellationHoldRequest(holdCancellationRequest, requestToCancel, patronId);
+      post(
+        format("%s/patron/account/%s/hold/%s/cancel", okapiURL, patronId, holdId),
+        tenant,
+        holdEntity.toJson(),
+        null,
+        responseHandler,
+        exceptionHandler);
+    } catch (Exception ex) {
+      exceptionHandler.handle(ex);
+    }
+  }
+
   public void getAllowedServicePointsForInstance(String patronId, String instanceId,
     Handler<HttpResponse<Buffer>> responseHandler, Handler<Throwable> exceptionHandler) {
 
@@ -275,6 +441,47 @@ public class PatronOkapiClient extends OkapiClient {
       exceptionHandler);
   }
 
+  /**
+   * Looks up several request records with one query instead of one request
+   * per record, and caches them when a cache is given.  Records that don't
+   * exist are missing from the result.
+   */
+  public Future<Map<String, JsonObject>> getRequests(Collection<String> requestIds,
+                                                     HoldRequestCache requestCache) {
+    if (requestIds.isEmpty()) {
+      return Future.succeededFuture(Map.of());
+    }
+    String query = requestIds.stream().collect(Collectors.joining(" or ", "id==(", ")"));
+    String url = format("%s/circulation/requests?limit=%d&query=%s", okapiURL, requestIds.size(),
+      URLEncoder.encode(query, StandardCharsets.UTF_8));
+
+    Promise<Map<String, JsonObject>> promise = Promise.promise();
+    get(url, tenant, null,
+      resp -> {
+        if (resp.statusCode() != 200) {
+          promise.fail(new IllegalStateException(
+            format("Failed to get requests: (%s) %s", resp.statusCode(), resp.bodyAsString())));
+          return;
+        }
+        try {
+          Map<String, JsonObject> requests = new HashMap<>();
+          JsonArray records = resp.bodyAsJsonObject().getJsonArray("requests", new JsonArray());
+          for (int i = 0; i < records.size(); i++) {
+            JsonObject request = records.getJsonObject(i);
+            requests.put(request.getString("id"), request);
+            if (requestCache != null) {
+              requestCache.put(tenant, request.getString("id"), request);
+            }
+          }
+          promise.complete(requests);
+        } catch (Exception ex) {
+          promise.fail(ex);
+        }
+      },
+      promise::fail);
+    return promise.future();
+  }
+
   public void placeInstanceHold(String patronId, String instanceId, String requestBody,
       Handler<HttpResponse<Buffer>> responseHandler, Handler<Throwable> exceptionHandler) {
     post(
@@ -318,19 +525,56 @@ public class PatronOkapiClient extends OkapiClient {
     }
   }
 
+  /**
+   * The patron lookup completed, but no user has the requested external
+   * system id.  Unlike other lookup failures this outcome may be cached.
+   */
+  public static class PatronNotFoundException extends PatronLookupException {
+
+    private static final long serialVersionUID = 2964031157829204613L;
+
+    public PatronNotFoundException(String msg) {
+      super(msg);
+    }
+  }
+
   public void put(String url, String tenant, String payload, MultiMap headers, Handler<HttpResponse<Buffer>> responseHandler,
                   Handler<Throwable> exceptionHandler) {
     logger.debug("put:: Trying to send request to Okapi with url: {}, payload: {}, tenant: {}", url, payload, tenant);
-    HttpRequest<Buffer> request = client.putAbs(url);
+    if (metrics != null) {
+      final PatronMetrics.Upstream upstream = metrics.upstream(okapiURL, url);
+      responseHandler = upstream.onResponse(responseHandler);
+      exceptionHandler = upstream.onFailure(exceptionHandler);
+    }
+    if (tracing != null) {
+      final PatronTracing.Client span = tracing.startClient(PatronMetrics.moduleOf(okapiURL, url), HttpMethod.PUT,
+        url, headers);
+      headers = span.getHeaders();
+      responseHandler = span.onResponse(responseHandler);
+      exceptionHandler = span.onFailure(exceptionHandler);
+    }
+    send(HttpMethod.PUT, url, tenant, payload, headers, responseHandler, exceptionHandler);
+  }
+
+  private void send(HttpMethod method, String url, String tenant, String payload, MultiMap headers,
+                    Handler<HttpResponse<Buffer>> responseHandler, Handler<Throwable> exceptionHandler) {
+    HttpRequest<Buffer> request = (pool != null ? pool.getWebClient() : client).requestAbs(method, url);
     if (headers != null) {
       request.headers().setAll(combineHeadersWithDefaults(headers));
     } else {
       request.headers().setAll(defaultHeaders);
     }
-    logger.info("PUT '{}' tenant: {} token: {}", () -> url, () -> tenant, () -> request.headers()
+    logger.info("{} '{}' tenant: {} token: {}", () -> method, () -> url, () -> tenant, () -> request.headers()
       .get(X_OKAPI_TOKEN));
     request.timeout(reqTimeout);
-    request.sendBuffer(Buffer.buffer(payload))
+    Buffer body = payload != null ? Buffer.buffer(payload) : null;
+    Future<HttpResponse<Buffer>> response;
+    if (pool != null) {
+      response = pool.send(request, body);
+    } else {
+      response = body != null ? request.sendBuffer(body) : request.send();
+    }
+    response
       .onSuccess(responseHandler)
       .onFailure(exceptionHandler);
   }
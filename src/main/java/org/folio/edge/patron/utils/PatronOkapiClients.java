@@ -0,0 +1,63 @@
+package org.folio.edge.patron.utils;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BiFunction;
+import org.folio.edge.core.utils.OkapiClient;
+
+/**
+ * Reuses the PatronOkapiClient of a tenant, API key user and alternate tenant
+ * across requests, until the token of the client it's created from changes.
+ * Once full, the client cached first is evicted.
+ */
+public class PatronOkapiClients {
+
+  private final Map<String, Entry> clients = new ConcurrentHashMap<>();
+  /** Keys in the order they were cached, to evict the eldest */
+  private final Queue<String> order = new ConcurrentLinkedQueue<>();
+  private final int capacity;
+
+  /**
+   * @param capacity how many clients to keep at most
+   */
+  public PatronOkapiClients(int capacity) {
+    this.capacity = capacity;
+  }
+
+  /**
+   * @param user the user of the API key the client logged in as, as several
+   *          API keys of a tenant have tokens of their own
+   */
+  public PatronOkapiClient get(OkapiClient client, String user, String alternateTenantId,
+    BiFunction<OkapiClient, String, PatronOkapiClient> factory) {
+
+    final String key = client.tenant + ":" + user + ":" + alternateTenantId;
+    final String token = client.getToken();
+    final Entry cached = clients.get(key);
+    if (cached != null && Objects.equals(cached.token(), token)) {
+      return cached.client();
+    }
+    final PatronOkapiClient created = factory.apply(client, alternateTenantId);
+    if (clients.put(key, new Entry(token, created)) == null) {
+      order.add(key);
+      while (clients.size() > capacity) {
+        final String eldest = order.poll();
+        if (eldest == null) {
+          break;
+        }
+        clients.remove(eldest);
+      }
+    }
+    return created;
+  }
+
+  public int size() {
+    return clients.size();
+  }
+
+  private record Entry(String token, PatronOkapiClient client) {
+  }
+}
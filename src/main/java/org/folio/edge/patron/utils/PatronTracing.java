@@ -0,0 +1,385 @@
+package org.folio.edge.patron.utils;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import io.opentelemetry.context.propagation.TextMapSetter;
+import io.opentelemetry.exporter.otlp.trace.OtlpGrpcSpanExporter;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.Route;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.client.HttpResponse;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.edge.patron.PatronConfig;
+
+/**
+ * OpenTelemetry spans for patron requests, the stages they go through and
+ * the requests they send to Okapi and Keycloak, which get a W3C traceparent
+ * header.
+ * <p>
+ * As with {@link PatronMetrics}, spans are attributed to the request being
+ * handled on the current Vert.x context.
+ */
+public class PatronTracing {
+
+  private static final Logger logger = LogManager.getLogger(PatronTracing.class);
+
+  public static final String EXPORTER_NONE = "none";
+  public static final String EXPORTER_FILE = "file";
+  public static final String EXPORTER_OTLP = "otlp";
+
+  static final String INSTRUMENTATION_NAME = "org.folio.edge.patron";
+  static final String SERVICE_NAME = "edge-patron";
+
+  static final AttributeKey<String> HTTP_METHOD = AttributeKey.stringKey("http.request.method");
+  static final AttributeKey<String> HTTP_ROUTE = AttributeKey.stringKey("http.route");
+  static final AttributeKey<Long> HTTP_STATUS = AttributeKey.longKey("http.response.status_code");
+  static final AttributeKey<String> URL_SCHEME = AttributeKey.stringKey("url.scheme");
+  static final AttributeKey<String> SERVER_ADDRESS = AttributeKey.stringKey("server.address");
+  static final AttributeKey<String> URL_PATH = AttributeKey.stringKey("url.path");
+  static final AttributeKey<String> PEER_SERVICE = AttributeKey.stringKey("peer.service");
+
+  private static final TextMapGetter<MultiMap> GETTER = new TextMapGetter<>() {
+    @Override
+    public Iterable<String> keys(MultiMap carrier) {
+      return carrier.names();
+    }
+
+    @Override
+    public String get(MultiMap carrier, String key) {
+      return carrier == null ? null : carrier.get(key);
+    }
+  };
+
+  private static final TextMapSetter<MultiMap> SETTER = (carrier, key, value) -> {
+    if (carrier != null) {
+      carrier.set(key, value);
+    }
+  };
+
+  private final OpenTelemetry openTelemetry;
+  private final Tracer tracer;
+  private final Map<Context, RequestTrace> requests = new ConcurrentHashMap<>();
+
+  public PatronTracing(OpenTelemetry openTelemetry) {
+    this.openTelemetry = openTelemetry;
+    this.tracer = openTelemetry.getTracer(INSTRUMENTATION_NAME);
+  }
+
+  /**
+   * @return the tracing for the configured exporter, or null if tracing is
+   *         disabled
+   */
+  public static PatronTracing create(PatronConfig config) {
+    final String exporterName = config.getTracingExporter();
+    final SpanExporter exporter;
+    if (EXPORTER_OTLP.equalsIgnoreCase(exporterName)) {
+      logger.info("Exporting spans to: {}", config.getTracingOtlpEndpoint());
+      exporter = OtlpGrpcSpanExporter.builder()
+        .setEndpoint(config.getTracingOtlpEndpoint())
+        .build();
+    } else if (EXPORTER_FILE.equalsIgnoreCase(exporterName)) {
+      logger.info("Writing spans to: {}", config.getTracingFile());
+      exporter = new FileSpanExporter(Path.of(config.getTracingFile()));
+    } else {
+      if (exporterName != null && !EXPORTER_NONE.equalsIgnoreCase(exporterName)) {
+        logger.warn("Unknown span exporter: {}, tracing is disabled", exporterName);
+      }
+      return null;
+    }
+    SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+      .setResource(Resource.getDefault().merge(Resource.create(
+        Attributes.of(AttributeKey.stringKey("service.name"), SERVICE_NAME))))
+      .addSpanProcessor(BatchSpanProcessor.builder(exporter).build())
+      .build();
+    return new PatronTracing(OpenTelemetrySdk.builder()
+      .setTracerProvider(tracerProvider)
+      .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+      .build());
+  }
+
+  /**
+   * Flushes the spans not exported yet.
+   */
+  public void close() {
+    if (openTelemetry instanceof OpenTelemetrySdk sdk) {
+      sdk.close();
+    }
+  }
+
+  /**
+   * Starts the span of the request, continuing the trace of the caller if it
+   * sent a traceparent; to be installed before any other handler.
+   */
+  public void handleRequest(RoutingContext ctx) {
+    final io.opentelemetry.context.Context parent = openTelemetry.getPropagators().getTextMapPropagator()
+      .extract(io.opentelemetry.context.Context.root(), ctx.request().headers(), GETTER);
+    final String method = ctx.request().method().name();
+    final Span span = tracer.spanBuilder(method)
+      .setParent(parent)
+      .setSpanKind(SpanKind.SERVER)
+      .setAttribute(HTTP_METHOD, method)
+      .startSpan();
+    final RequestTrace trace = new RequestTrace(parent.with(span));
+    final Context context = Vertx.currentContext();
+    if (context != null) {
+      requests.put(context, trace);
+    }
+    ctx.addEndHandler(ar -> {
+      if (context != null) {
+        requests.remove(context, trace);
+      }
+      final Route route = ctx.currentRoute();
+      if (route != null && route.getPath() != null) {
+        span.updateName(method + " " + route.getPath());
+        span.setAttribute(HTTP_ROUTE, route.getPath());
+      }
+      final int status = ctx.response().getStatusCode();
+      span.setAttribute(HTTP_STATUS, status);
+      if (status >= 500 || ar.failed()) {
+        span.setStatus(StatusCode.ERROR);
+      }
+      trace.endStages();
+      span.end();
+    });
+    ctx.next();
+  }
+
+  /**
+   * Starts a span for a stage of the current request, e.g. resolving the API
+   * key; requests sent until it ends are its children.
+   */
+  public Stage startStage(String name) {
+    final RequestTrace trace = currentTrace();
+    final Span span = tracer.spanBuilder(name)
+      .setParent(trace != null ? trace.current() : io.opentelemetry.context.Context.root())
+      .startSpan();
+    final Stage stage = new Stage(span, trace);
+    if (trace != null) {
+      trace.push(stage);
+    }
+    return stage;
+  }
+
+  /**
+   * Runs the operation as a stage of the current request.
+   */
+  public <T> Future<T> stage(String name, Supplier<Future<T>> operation) {
+    final Stage stage = startStage(name);
+    Future<T> result;
+    try {
+      result = operation.get();
+    } catch (RuntimeException e) {
+      result = Future.failedFuture(e);
+    }
+    return result.onComplete(ar -> {
+      if (ar.failed()) {
+        stage.fail(ar.cause());
+      } else {
+        stage.end();
+      }
+    });
+  }
+
+  /**
+   * Starts the span of a request to an upstream module and adds its
+   * traceparent to a copy of the headers.
+   *
+   * @param headers the headers to send, may be null
+   */
+  public Client startClient(String upstream, HttpMethod method, String url, MultiMap headers) {
+    final RequestTrace trace = currentTrace();
+    final io.opentelemetry.context.Context parent = trace != null
+      ? trace.current()
+      : io.opentelemetry.context.Context.root();
+    final SpanBuilder builder = tracer.spanBuilder(method.name() + " " + upstream)
+      .setParent(parent)
+      .setSpanKind(SpanKind.CLIENT)
+      .setAttribute(HTTP_METHOD, method.name())
+      .setAttribute(PEER_SERVICE, upstream);
+    setUrl(builder, url);
+    final Span span = builder.startSpan();
+    final MultiMap tracedHeaders = MultiMap.caseInsensitiveMultiMap();
+    if (headers != null) {
+      tracedHeaders.addAll(headers);
+    }
+    openTelemetry.getPropagators().getTextMapPropagator().inject(parent.with(span), tracedHeaders, SETTER);
+    return new Client(span, tracedHeaders);
+  }
+
+  /**
+   * Records where the request goes but not its query, which carries patron
+   * identifiers such as the external system ID.
+   */
+  private static void setUrl(SpanBuilder builder, String url) {
+    int end = url.indexOf('?');
+    if (end < 0) {
+      end = url.indexOf('#');
+    }
+    final String withoutQuery = end < 0 ? url : url.substring(0, end);
+    try {
+      final URI uri = URI.create(withoutQuery);
+      if (uri.getScheme() != null) {
+        builder.setAttribute(URL_SCHEME, uri.getScheme());
+      }
+      if (uri.getHost() != null) {
+        builder.setAttribute(SERVER_ADDRESS, uri.getHost());
+      }
+      if (uri.getRawPath() != null) {
+        builder.setAttribute(URL_PATH, uri.getRawPath());
+      }
+    } catch (IllegalArgumentException e) {
+      logger.debug("setUrl:: Unable to parse url: {}", withoutQuery);
+    }
+  }
+
+  private RequestTrace currentTrace() {
+    final Context context = Vertx.currentContext();
+    return context != null ? requests.get(context) : null;
+  }
+
+  /**
+   * A stage of a request in progress.
+   */
+  public static final class Stage {
+
+    private final Span span;
+    private final RequestTrace trace;
+
+    private Stage(Span span, RequestTrace trace) {
+      this.span = span;
+      this.trace = trace;
+    }
+
+    public void end() {
+      if (trace != null) {
+        trace.pop(this);
+      }
+      span.end();
+    }
+
+    public void fail(Throwable t) {
+      span.recordException(t);
+      span.setStatus(StatusCode.ERROR);
+      end();
+    }
+  }
+
+  /**
+   * A request to an upstream module in flight.
+   */
+  public static final class Client {
+
+    private final Span span;
+    private final MultiMap headers;
+
+    private Client(Span span, MultiMap headers) {
+      this.span = span;
+      this.headers = headers;
+    }
+
+    /**
+     * The headers to send, with the traceparent of the span.
+     */
+    public MultiMap getHeaders() {
+      return headers;
+    }
+
+    public Handler<HttpResponse<Buffer>> onResponse(Handler<HttpResponse<Buffer>> responseHandler) {
+      return response -> {
+        end(response.statusCode());
+        responseHandler.handle(response);
+      };
+    }
+
+    public Handler<Throwable> onFailure(Handler<Throwable> exceptionHandler) {
+      return t -> {
+        fail(t);
+        exceptionHandler.handle(t);
+      };
+    }
+
+    public void end(int statusCode) {
+      span.setAttribute(HTTP_STATUS, statusCode);
+      if (statusCode >= 500) {
+        span.setStatus(StatusCode.ERROR);
+      }
+      span.end();
+    }
+
+    public void fail(Throwable t) {
+      span.recordException(t);
+      span.setStatus(StatusCode.ERROR);
+      span.end();
+    }
+  }
+
+  /**
+   * The span of a request and its open stages, the innermost of which is the
+   * parent of the requests sent meanwhile.
+   */
+  private static final class RequestTrace {
+
+    private final io.opentelemetry.context.Context root;
+    private final Deque<Stage> stages = new ArrayDeque<>();
+
+    RequestTrace(io.opentelemetry.context.Context root) {
+      this.root = root;
+    }
+
+    synchronized io.opentelemetry.context.Context current() {
+      final Stage stage = stages.peek();
+      return stage != null ? root.with(stage.span) : root;
+    }
+
+    synchronized void push(Stage stage) {
+      stages.push(stage);
+    }
+
+    synchronized void pop(Stage stage) {
+      stages.remove(stage);
+    }
+
+    /**
+     * Ends the stages left open, e.g. when edge-common answered the request
+     * without calling back.
+     */
+    void endStages() {
+      Stage stage;
+      while ((stage = popAny()) != null) {
+        stage.span.end();
+      }
+    }
+
+    private synchronized Stage popAny() {
+      return stages.poll();
+    }
+  }
+}
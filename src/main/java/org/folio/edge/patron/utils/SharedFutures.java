@@ -0,0 +1,26 @@
+package org.folio.edge.patron.utils;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+
+public class SharedFutures {
+
+  private SharedFutures() {
+  }
+
+  /**
+   * Requests joining an upstream call started on another event loop get the
+   * result delivered back on their own context.
+   */
+  public static <T> Future<T> onCurrentContext(Future<T> shared) {
+    Context context = Vertx.currentContext();
+    if (context == null) {
+      return shared;
+    }
+    Promise<T> promise = Promise.promise();
+    shared.onComplete(ar -> context.runOnContext(v -> promise.handle(ar)));
+    return promise.future();
+  }
+}
@@ -0,0 +1,23 @@
+package org.folio.edge.patron.utils;
+
+import static org.folio.edge.patron.Constants.EXTERNAL_SYSTEM_ID_CLAIM;
+import static org.folio.edge.patron.Constants.VIP_CLAIM;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * The claims of a verified patron access token that secure endpoints need.
+ *
+ * @param externalSystemId the patron's external system id, may be null
+ * @param vip whether the patron may call secure endpoints, may be null
+ * @param expiresAt token expiry in epoch ms, or null if the token doesn't expire
+ */
+public record TokenClaims(String externalSystemId, Boolean vip, Long expiresAt) {
+
+  public static TokenClaims from(Claims claims) {
+    var expiration = claims.getExpiration();
+    return new TokenClaims(claims.get(EXTERNAL_SYSTEM_ID_CLAIM, String.class),
+      claims.get(VIP_CLAIM, Boolean.class),
+      expiration != null ? expiration.getTime() : null);
+  }
+}
@@ -0,0 +1,189 @@
+package org.folio.edge.patron.utils;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.edge.core.security.SecureStore;
+
+/**
+ * Runs the lookups of another secure store on virtual threads, for the Vault
+ * and AWS SSM stores whose clients block.  The credentials of an API key are
+ * {@link #prefetch prefetched} before edge-common asks for them with the
+ * synchronous {@link #get}, which then answers from memory instead of
+ * blocking the event loop.
+ * <p>
+ * Credentials are kept for the given TTL, and failures to look them up for
+ * {@link #FAILURE_TTL_MS} at most, so that unknown API keys don't reach the
+ * store on every request.  {@link #get} falls back to a blocking lookup for
+ * credentials that weren't prefetched or have expired since.
+ */
+public class VirtualThreadSecureStore extends SecureStore {
+
+  private static final Logger logger = LogManager.getLogger(VirtualThreadSecureStore.class);
+
+  static final long FAILURE_TTL_MS = 10_000;
+
+  private final SecureStore delegate;
+  private final long ttl;
+  private final int capacity;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private final Map<String, Future<Void>> inFlight = new ConcurrentHashMap<>();
+  private final LongAdder blockingLookups = new LongAdder();
+
+  public VirtualThreadSecureStore(SecureStore delegate, long ttl, int capacity) {
+    super(new Properties());
+    logger.info("Using TTL: {}", ttl);
+    logger.info("Using capacity: {}", capacity);
+    this.delegate = delegate;
+    this.ttl = ttl;
+    this.capacity = capacity;
+  }
+
+  /**
+   * Looks up the credentials on a virtual thread unless they're known already.
+   * Concurrent calls for the same credentials share a lookup.  Never fails; a
+   * failed lookup is rethrown by {@link #get}.
+   *
+   * @return a future completed on the caller's context once {@link #get}
+   *         won't block for these credentials
+   */
+  public Future<Void> prefetch(String clientId, String tenant, String username) {
+    final String key = computeKey(clientId, tenant, username);
+    final Entry entry = entries.get(key);
+    if (entry != null && !entry.expired(System.currentTimeMillis())) {
+      return Future.succeededFuture();
+    }
+
+    Future<Void> pending = inFlight.get(key);
+    if (pending == null) {
+      final Promise<Void> promise = Promise.promise();
+      pending = inFlight.putIfAbsent(key, promise.future());
+      if (pending == null) {
+        pending = promise.future();
+        try {
+          executor.execute(() -> {
+            try {
+              put(key, lookup(clientId, tenant, username));
+            } finally {
+              // whatever happened, get looks them up itself if they're missing
+              inFlight.remove(key);
+              promise.complete();
+            }
+          });
+        } catch (RejectedExecutionException e) {
+          // closed, get looks them up itself
+          inFlight.remove(key);
+          promise.complete();
+        }
+      }
+    }
+
+    final Context context = Vertx.currentContext();
+    if (context == null) {
+      return pending;
+    }
+    final Promise<Void> result = Promise.promise();
+    pending.onComplete(ar -> context.runOnContext(v -> result.complete()));
+    return result.future();
+  }
+
+  @Override
+  public String get(String clientId, String tenant, String username) throws NotFoundException {
+    final String key = computeKey(clientId, tenant, username);
+    Entry entry = entries.get(key);
+    if (entry == null || entry.expired(System.currentTimeMillis())) {
+      blockingLookups.increment();
+      entry = lookup(clientId, tenant, username);
+      put(key, entry);
+    }
+    if (entry.failure instanceof NotFoundException e) {
+      throw e;
+    }
+    if (entry.failure instanceof RuntimeException e) {
+      throw e;
+    }
+    return entry.value;
+  }
+
+  /**
+   * Stops looking up credentials on virtual threads and forgets the ones
+   * known; lookups in flight still complete their prefetches.
+   */
+  public void close() {
+    executor.shutdown();
+    entries.clear();
+  }
+
+  /**
+   * How often {@link #get} had to look up credentials itself.
+   */
+  public long getBlockingLookupCount() {
+    return blockingLookups.sum();
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  private Entry lookup(String clientId, String tenant, String username) {
+    final long start = System.currentTimeMillis();
+    try {
+      return new Entry(delegate.get(clientId, tenant, username), null, start + ttl);
+    } catch (NotFoundException | RuntimeException e) {
+      logger.debug("Failed to look up the credentials of {}/{}", tenant, username, e);
+      return new Entry(null, e, start + Math.min(ttl, FAILURE_TTL_MS));
+    }
+  }
+
+  private void put(String key, Entry entry) {
+    final long now = System.currentTimeMillis();
+    if (entry.expired(now) || capacity <= 0) {
+      return;
+    }
+    if (entries.size() >= capacity) {
+      prune(now);
+    }
+    entries.put(key, entry);
+  }
+
+  /**
+   * Drops expired entries; if the cache is still full, drops the entry
+   * closest to expiring.
+   */
+  private void prune(long now) {
+    Map.Entry<String, Entry> soonest = null;
+    for (var it = entries.entrySet().iterator(); it.hasNext();) {
+      var e = it.next();
+      if (e.getValue().expired(now)) {
+        it.remove();
+      } else if (soonest == null || e.getValue().expires < soonest.getValue().expires) {
+        soonest = e;
+      }
+    }
+    if (soonest != null && entries.size() >= capacity) {
+      entries.remove(soonest.getKey(), soonest.getValue());
+    }
+  }
+
+  private static String computeKey(String clientId, String tenant, String username) {
+    return clientId + ":" + tenant + ":" + username;
+  }
+
+  private record Entry(String value, Exception failure, long expires) {
+
+    boolean expired(long now) {
+      return now >= expires;
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package org.folio.edge.patron;
+
+import static org.folio.edge.core.Constants.SYS_OKAPI_URL;
+import static org.folio.edge.core.Constants.SYS_PORT;
+import static org.folio.edge.core.Constants.SYS_SECURE_STORE_PROP_FILE;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.edge.core.utils.test.TestUtils;
+import org.folio.edge.patron.cache.PatronIdCache;
+import org.folio.edge.patron.cache.TokenClaimsCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+class MainVerticleInstancesTest {
+
+  private static final Logger logger = LogManager.getLogger(MainVerticleInstancesTest.class);
+
+  @BeforeEach
+  void setUp() {
+    System.setProperty(SYS_PORT, String.valueOf(TestUtils.getPort()));
+    System.setProperty(SYS_OKAPI_URL, "http://localhost:" + TestUtils.getPort());
+    System.setProperty(SYS_SECURE_STORE_PROP_FILE, "src/main/resources/ephemeral.properties");
+  }
+
+  @AfterEach
+  void tearDown() {
+    System.clearProperty(SYS_PORT);
+    System.clearProperty(SYS_OKAPI_URL);
+    System.clearProperty(SYS_SECURE_STORE_PROP_FILE);
+  }
+
+  @Test
+  void testInstancesShareCaches(Vertx vertx, VertxTestContext context) {
+    logger.info("=== Test instances share the caches until the last of them stops ===");
+
+    AtomicReference<PatronIdCache> patronIdCache = new AtomicReference<>();
+    AtomicReference<TokenClaimsCache> tokenClaimsCache = new AtomicReference<>();
+    AtomicReference<String> firstDeployment = new AtomicReference<>();
+
+    vertx.deployVerticle(MainVerticle.class.getName(), new DeploymentOptions().setInstances(4))
+      .compose(id -> {
+        firstDeployment.set(id);
+        patronIdCache.set(PatronIdCache.getInstance());
+        tokenClaimsCache.set(TokenClaimsCache.getInstance());
+        return vertx.deployVerticle(MainVerticle.class.getName(), new DeploymentOptions().setInstances(2));
+      })
+      .compose(id -> {
+        context.verify(() -> {
+          assertSame(patronIdCache.get(), PatronIdCache.getInstance());
+          assertSame(tokenClaimsCache.get(), TokenClaimsCache.getInstance());
+        });
+        return vertx.undeploy(firstDeployment.get())
+          .compose(v -> vertx.undeploy(id));
+      })
+      .compose(v -> vertx.deployVerticle(MainVerticle.class.getName()))
+      .onComplete(context.succeeding(id -> context.verify(() -> {
+        assertNotSame(patronIdCache.get(), PatronIdCache.getInstance());
+        context.completeNow();
+      })));
+  }
+}
@@ -47,13 +47,16 @@ import io.restassured.config.DecoderConfig.ContentDecoder;
 import io.restassured.response.Response;
 import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Stream;
@@ -794,6 +797,55 @@ class MainVerticleTest {
     assertEquals(expected, actual);
   }
 
+  @Test
+  void testRenewItemsReturnsResultPerItem() throws Exception {
+    logger.info("=== Test renewing several items at once ===");
+
+    final Response resp = RestAssured
+      .with()
+      .contentType(APPLICATION_JSON)
+      .body(new JsonObject()
+        .put("itemIds", new JsonArray().add(itemId).add(PatronMockOkapi.itemId_notFound))
+        .encode())
+      .post(String.format("/patron/account/%s/renew?apikey=%s", PATRON_ID, apiKey))
+      .then()
+      .statusCode(200)
+      .header(HttpHeaders.CONTENT_TYPE, APPLICATION_JSON)
+      .extract()
+      .response();
+
+    JsonObject body = new JsonObject(resp.body().asString());
+    assertEquals(2, body.getInteger("totalRecords"));
+    Map<String, JsonObject> results = new HashMap<>();
+    body.getJsonArray("items").forEach(result ->
+      results.put(((JsonObject) result).getString("itemId"), (JsonObject) result));
+    assertEquals(201, results.get(itemId).getInteger("statusCode"));
+    assertEquals(Loan.fromJson(PatronMockOkapi.getLoanJson(PATRON_ID, itemId)),
+      Loan.fromJson(results.get(itemId).getJsonObject("response").encode()));
+    assertEquals(404, results.get(PatronMockOkapi.itemId_notFound).getInteger("statusCode"));
+  }
+
+  @Test
+  void testRenewItemsInvalidItemId() throws Exception {
+    logger.info("=== Test renewing several items w/ an invalid item id ===");
+    int statusCode = 422;
+
+    final Response resp = RestAssured
+      .with()
+      .contentType(APPLICATION_JSON)
+      .body(new JsonObject().put("itemIds", new JsonArray().add(itemId).add("foo")).encode())
+      .post(String.format("/patron/account/%s/renew?apikey=%s", PATRON_ID, apiKey))
+      .then()
+      .statusCode(statusCode)
+      .header(HttpHeaders.CONTENT_TYPE, APPLICATION_JSON)
+      .extract()
+      .response();
+
+    ErrorMessage msg = ErrorMessage.fromJson(resp.body().asString());
+    assertEquals(statusCode, msg.httpStatusCode);
+    assertTrue(msg.message.contains("invalid item id at index 1"));
+  }
+
   @Test
   void testRenewPatronNotFound() throws Exception {
     logger.info("=== Test renew w/ patron not found ===");
@@ -1994,6 +2046,77 @@ class MainVerticleTest {
     assertEquals(expectedStatusCode,  msg.httpStatusCode);
   }
 
+  @Test
+  void testCancelHoldsReturnsResultPerHold() throws Exception {
+    logger.info("=== Test cancelling several holds at once ===");
+
+    JsonObject cancellations = new JsonObject()
+      .put("holds", new JsonArray()
+        .add(new JsonObject(PatronMockOkapi.getHoldCancellation(holdCancellationHoldId, PATRON_ID)))
+        .add(new JsonObject(PatronMockOkapi.getHoldCancellation(holdReqId_notFound, PATRON_ID))));
+
+    final Response resp = RestAssured
+      .with()
+      .contentType(APPLICATION_JSON)
+      .body(cancellations.encode())
+      .post(String.format("/patron/account/%s/hold/cancel?apikey=%s", PATRON_ID, apiKey))
+      .then()
+      .statusCode(200)
+      .header(HttpHeaders.CONTENT_TYPE, APPLICATION_JSON)
+      .extract()
+      .response();
+
+    JsonObject body = new JsonObject(resp.body().asString());
+    assertEquals(2, body.getInteger("totalRecords"));
+    JsonObject cancelled = body.getJsonArray("holds").getJsonObject(0);
+    assertEquals(holdCancellationHoldId, cancelled.getString("holdId"));
+    assertEquals(200, cancelled.getInteger("statusCode"));
+    assertEquals(Hold.fromJson(PatronMockOkapi.getRemovedHoldJson(holdCancellationHoldId)),
+      Hold.fromJson(cancelled.getJsonObject("response").encode()));
+    JsonObject notFound = body.getJsonArray("holds").getJsonObject(1);
+    assertEquals(holdReqId_notFound, notFound.getString("holdId"));
+    assertEquals(404, notFound.getInteger("statusCode"));
+  }
+
+  @Test
+  void testCancelHoldsInvalidRequest() throws Exception {
+    logger.info("=== Test cancelling several holds w/ an invalid cancellation ===");
+    int statusCode = 422;
+
+    JsonObject cancellations = new JsonObject()
+      .put("holds", new JsonArray()
+        .add(new JsonObject(PatronMockOkapi.getHoldCancellation(holdCancellationHoldId, PATRON_ID)))
+        .add(new JsonObject(PatronMockOkapi.getInvalidHoldCancellation(invalidHoldCancellationdHoldId))));
+
+    final Response resp = RestAssured
+      .with()
+      .contentType(APPLICATION_JSON)
+      .body(cancellations.encode())
+      .post(String.format("/patron/account/%s/hold/cancel?apikey=%s", PATRON_ID, apiKey))
+      .then()
+      .statusCode(statusCode)
+      .header(HttpHeaders.CONTENT_TYPE, APPLICATION_JSON)
+      .extract()
+      .response();
+
+    ErrorMessage msg = ErrorMessage.fromJson(resp.body().asString());
+    assertEquals(statusCode, msg.httpStatusCode);
+    assertTrue(msg.message.contains("required fields for cancelling holds are missing"));
+  }
+
+  @Test
+  void testCancelHoldsNoBody() {
+    logger.info("=== Test cancelling several holds w/o any holds ===");
+
+    RestAssured
+      .with()
+      .contentType(APPLICATION_JSON)
+      .body(new JsonObject().put("holds", new JsonArray()).encode())
+      .post(String.format("/patron/account/%s/hold/cancel?apikey=%s", PATRON_ID, apiKey))
+      .then()
+      .statusCode(400);
+  }
+
   @Test
   void testCancelHoldUnknownApiKey() throws Exception {
     logger.info("=== Test cancel hold with unknown apiKey (tenant) ===");
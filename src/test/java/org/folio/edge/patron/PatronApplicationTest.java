@@ -0,0 +1,18 @@
+package org.folio.edge.patron;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class PatronApplicationTest {
+
+  @Test
+  void testHasInstancesOption() {
+    assertTrue(PatronApplication.hasInstancesOption(new String[] { "--instances", "1" }));
+    assertTrue(PatronApplication.hasInstancesOption(new String[] { "-conf", "conf.json", "-instances", "2" }));
+    assertTrue(PatronApplication.hasInstancesOption(new String[] { "--instances=1" }));
+    assertFalse(PatronApplication.hasInstancesOption(new String[] { "-conf", "conf.json" }));
+    assertFalse(PatronApplication.hasInstancesOption(new String[0]));
+  }
+}
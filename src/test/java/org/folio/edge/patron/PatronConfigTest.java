@@ -0,0 +1,53 @@
+package org.folio.edge.patron;
+
+import static org.folio.edge.patron.Constants.DEFAULT_BULK_REQUEST_CONCURRENCY;
+import static org.folio.edge.patron.Constants.DEFAULT_HOLD_REQUEST_CACHE_CAPACITY;
+import static org.folio.edge.patron.Constants.SYS_BULK_REQUEST_CONCURRENCY;
+import static org.folio.edge.patron.Constants.SYS_HOLD_REQUEST_CACHE_CAPACITY;
+import static org.folio.edge.patron.Constants.SYS_HOLD_REQUEST_CACHE_TTL_MS;
+import static org.folio.edge.patron.Constants.SYS_VERTICLE_INSTANCES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class PatronConfigTest {
+
+  @AfterEach
+  void tearDown() {
+    System.clearProperty(SYS_HOLD_REQUEST_CACHE_TTL_MS);
+  }
+
+  @Test
+  void testDefaults() {
+    PatronConfig config = PatronConfig.load(new JsonObject());
+
+    assertEquals(DEFAULT_BULK_REQUEST_CONCURRENCY, config.getBulkRequestConcurrency());
+    assertEquals(DEFAULT_HOLD_REQUEST_CACHE_CAPACITY, config.getHoldRequestCacheCapacity());
+    assertFalse(config.isSecureRequestsFeatureEnabled());
+    assertEquals(Runtime.getRuntime().availableProcessors(), config.getVerticleInstances());
+  }
+
+  @Test
+  void testVerticleInstances() {
+    PatronConfig config = PatronConfig.load(new JsonObject().put(SYS_VERTICLE_INSTANCES, 3));
+
+    assertEquals(3, config.getVerticleInstances());
+  }
+
+  @Test
+  void testSystemPropertyTakesPrecedenceOverVertxConfig() {
+    System.setProperty(SYS_HOLD_REQUEST_CACHE_TTL_MS, "1000");
+
+    PatronConfig config = PatronConfig.load(new JsonObject()
+      .put(SYS_HOLD_REQUEST_CACHE_TTL_MS, "2000")
+      .put(SYS_HOLD_REQUEST_CACHE_CAPACITY, 20)
+      .put(SYS_BULK_REQUEST_CONCURRENCY, "8"));
+
+    assertEquals(1000, config.getHoldRequestCacheTtlMs());
+    assertEquals(20, config.getHoldRequestCacheCapacity());
+    assertEquals(8, config.getBulkRequestConcurrency());
+  }
+}
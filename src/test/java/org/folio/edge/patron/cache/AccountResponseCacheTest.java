@@ -0,0 +1,165 @@
+package org.folio.edge.patron.cache;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.web.client.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.edge.patron.utils.PatronAccountRequestParams;
+import org.junit.jupiter.api.Test;
+
+class AccountResponseCacheTest {
+
+  private static final Logger logger = LogManager.getLogger(AccountResponseCacheTest.class);
+
+  private static final long ttl = 1000;
+  private static final long maxBytes = 100;
+
+  private static final String tenant = "diku";
+  private final String patronId = UUID.randomUUID().toString();
+  private final PatronAccountRequestParams loans =
+    new PatronAccountRequestParams(patronId, true, false, false, false, null, null, null);
+  private final PatronAccountRequestParams holds =
+    new PatronAccountRequestParams(patronId, false, false, true, false, null, null, null);
+
+  @Test
+  void testPutAndGet() {
+    logger.info("=== Test successful responses are cached per request params ===");
+
+    AccountResponseCache cache = AccountResponseCache.create(ttl, maxBytes);
+    HttpResponse<Buffer> resp = response(200, 10);
+    cache.put(tenant, loans, resp, cache.getGeneration(tenant, patronId));
+
+    assertSame(resp, cache.get(tenant, loans));
+    assertNull(cache.get(tenant, holds));
+    assertNull(cache.get("other", loans));
+    assertEquals(10, cache.getBytes());
+  }
+
+  @Test
+  void testErrorResponsesAreNotCached() {
+    logger.info("=== Test error responses aren't cached ===");
+
+    AccountResponseCache cache = AccountResponseCache.create(ttl, maxBytes);
+    cache.put(tenant, loans, response(404, 10), cache.getGeneration(tenant, patronId));
+
+    assertNull(cache.get(tenant, loans));
+  }
+
+  @Test
+  void testDisabled() {
+    logger.info("=== Test a TTL of 0 disables the cache ===");
+
+    AccountResponseCache cache = AccountResponseCache.create(0, maxBytes);
+    cache.put(tenant, loans, response(200, 10), cache.getGeneration(tenant, patronId));
+
+    assertNull(cache.get(tenant, loans));
+    assertEquals(0, cache.getBytes());
+  }
+
+  @Test
+  void testInvalidate() {
+    logger.info("=== Test invalidating a patron drops all of their responses ===");
+
+    AccountResponseCache cache = AccountResponseCache.create(ttl, maxBytes);
+    long generation = cache.getGeneration(tenant, patronId);
+    cache.put(tenant, loans, response(200, 10), generation);
+    cache.put(tenant, holds, response(200, 10), generation);
+
+    cache.invalidate(tenant, patronId);
+
+    assertNull(cache.get(tenant, loans));
+    assertNull(cache.get(tenant, holds));
+    assertEquals(0, cache.getBytes());
+  }
+
+  @Test
+  void testResponseRequestedBeforeInvalidateIsNotCached() {
+    logger.info("=== Test a response requested before the account changed isn't cached ===");
+
+    AccountResponseCache cache = AccountResponseCache.create(ttl, maxBytes);
+    long generation = cache.getGeneration(tenant, patronId);
+    cache.invalidate(tenant, patronId);
+    cache.put(tenant, loans, response(200, 10), generation);
+
+    assertNull(cache.get(tenant, loans));
+
+    cache.put(tenant, loans, response(200, 10), cache.getGeneration(tenant, patronId));
+    assertEquals(10, cache.get(tenant, loans).body().length());
+  }
+
+  @Test
+  void testMaxBytes() {
+    logger.info("=== Test the cache is bounded by the size of the cached bodies ===");
+
+    AccountResponseCache cache = AccountResponseCache.create(ttl, maxBytes);
+    long generation = cache.getGeneration(tenant, patronId);
+    cache.put(tenant, loans, response(200, 60), generation);
+    cache.put(tenant, holds, response(200, 60), generation);
+
+    // the one closest to expiring was evicted
+    assertEquals(60, cache.getBytes());
+    assertNull(cache.get(tenant, loans));
+    assertNotNull(cache.get(tenant, holds));
+
+    // too big to be cached at all
+    var includeAll = new PatronAccountRequestParams(patronId, true, true, true, true, null, null, null);
+    cache.put(tenant, includeAll, response(200, 101), generation);
+    assertNull(cache.get(tenant, includeAll));
+  }
+
+  @Test
+  void testEvictionAcrossPatrons() {
+    logger.info("=== Test the responses closest to expiring are evicted first, whoever's they are ===");
+
+    AccountResponseCache cache = AccountResponseCache.create(ttl, maxBytes);
+    List<PatronAccountRequestParams> params = new ArrayList<>();
+    for (int i = 0; i < 25; i++) {
+      String otherPatronId = UUID.randomUUID().toString();
+      var p = new PatronAccountRequestParams(otherPatronId, true, false, false, false, null, null, null);
+      params.add(p);
+      cache.put(tenant, p, response(200, 10), cache.getGeneration(tenant, otherPatronId));
+    }
+
+    assertEquals(100, cache.getBytes());
+    for (int i = 0; i < 15; i++) {
+      assertNull(cache.get(tenant, params.get(i)));
+    }
+    for (int i = 15; i < 25; i++) {
+      assertNotNull(cache.get(tenant, params.get(i)));
+    }
+  }
+
+  @Test
+  void testExpires() {
+    logger.info("=== Test cached responses expire ===");
+
+    AccountResponseCache cache = AccountResponseCache.create(ttl, maxBytes);
+    cache.put(tenant, loans, response(200, 10), cache.getGeneration(tenant, patronId));
+
+    await().with()
+      .pollInterval(20, TimeUnit.MILLISECONDS)
+      .atMost(ttl + 100, TimeUnit.MILLISECONDS)
+      .until(() -> cache.get(tenant, loans) == null);
+    assertEquals(0, cache.getBytes());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static HttpResponse<Buffer> response(int statusCode, int size) {
+    HttpResponse<Buffer> resp = mock(HttpResponse.class);
+    when(resp.statusCode()).thenReturn(statusCode);
+    when(resp.body()).thenReturn(Buffer.buffer(new byte[size]));
+    return resp;
+  }
+}
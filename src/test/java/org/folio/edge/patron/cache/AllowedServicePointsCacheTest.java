@@ -0,0 +1,93 @@
+package org.folio.edge.patron.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.web.client.HttpResponse;
+import java.util.UUID;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Test;
+
+class AllowedServicePointsCacheTest {
+
+  private static final Logger logger = LogManager.getLogger(AllowedServicePointsCacheTest.class);
+
+  private static final long ttl = 60_000;
+  private static final int cap = 2;
+
+  private static final String tenant = "diku";
+  private final String patronId = UUID.randomUUID().toString();
+  private final String id = UUID.randomUUID().toString();
+
+  @Test
+  void testInstanceAndItemEntriesAreSeparate() {
+    logger.info("=== Test instance and item entries don't mix ===");
+
+    AllowedServicePointsCache cache = AllowedServicePointsCache.create(ttl, cap);
+    HttpResponse<Buffer> resp = response();
+    cache.putForInstance(tenant, patronId, id, resp, cache.getGeneration(tenant, patronId));
+
+    assertSame(resp, cache.getForInstance(tenant, patronId, id));
+    assertNull(cache.getForItem(tenant, patronId, id));
+    assertNull(cache.getForInstance(tenant, UUID.randomUUID().toString(), id));
+    assertEquals(1, cache.getHitCount());
+    assertEquals(2, cache.getMissCount());
+  }
+
+  @Test
+  void testInvalidate() {
+    logger.info("=== Test a patron's entries are dropped when invalidated ===");
+
+    AllowedServicePointsCache cache = AllowedServicePointsCache.create(ttl, cap);
+    long generation = cache.getGeneration(tenant, patronId);
+    cache.putForInstance(tenant, patronId, id, response(), generation);
+    cache.putForItem(tenant, patronId, id, response(), generation);
+
+    cache.invalidate(tenant, patronId);
+
+    assertNull(cache.getForInstance(tenant, patronId, id));
+    assertNull(cache.getForItem(tenant, patronId, id));
+    assertEquals(0, cache.size());
+
+    // requested before the hold was placed
+    cache.putForItem(tenant, patronId, id, response(), generation);
+    assertNull(cache.getForItem(tenant, patronId, id));
+  }
+
+  @Test
+  void testCapacity() {
+    logger.info("=== Test the cache is bounded by its capacity ===");
+
+    AllowedServicePointsCache cache = AllowedServicePointsCache.create(ttl, cap);
+    for (int i = 0; i < cap + 3; i++) {
+      cache.putForItem(tenant, patronId, UUID.randomUUID().toString(), response(),
+        cache.getGeneration(tenant, patronId));
+    }
+
+    assertEquals(cap, cache.size());
+    assertEquals(3, cache.getEvictionCount());
+  }
+
+  @Test
+  void testDisabled() {
+    logger.info("=== Test a TTL of 0 disables the cache ===");
+
+    AllowedServicePointsCache cache = AllowedServicePointsCache.create(0, cap);
+    cache.putForItem(tenant, patronId, id, response(), cache.getGeneration(tenant, patronId));
+
+    assertNull(cache.getForItem(tenant, patronId, id));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static HttpResponse<Buffer> response() {
+    HttpResponse<Buffer> resp = mock(HttpResponse.class);
+    when(resp.statusCode()).thenReturn(200);
+    when(resp.body()).thenReturn(Buffer.buffer("{\"Page\":[]}"));
+    return resp;
+  }
+}
@@ -0,0 +1,95 @@
+package org.folio.edge.patron.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.util.List;
+import java.util.UUID;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Test;
+
+class HoldRequestCacheTest {
+
+  private static final Logger logger = LogManager.getLogger(HoldRequestCacheTest.class);
+
+  private static final long ttl = 60_000;
+  private static final int cap = 10;
+
+  private static final String tenant = "diku";
+  private static final String pickupServicePointId = UUID.randomUUID().toString();
+  private static final String requestDate = "2019-09-19T19:47:11.732+0000";
+
+  @Test
+  void testPutAccountHolds() {
+    logger.info("=== Test the requests of an account's holds are cached ===");
+
+    HoldRequestCache cache = HoldRequestCache.create(ttl, cap);
+    String requestId = UUID.randomUUID().toString();
+    cache.putAccountHolds(tenant, account(hold(requestId, requestDate)));
+
+    JsonObject expected = new JsonObject()
+      .put("id", requestId)
+      .put("pickupServicePointId", pickupServicePointId)
+      .put("requestDate", requestDate);
+    assertEquals(expected, cache.get(tenant, requestId));
+    assertNull(cache.get("other", requestId));
+  }
+
+  @Test
+  void testHoldsWithoutUsableDatesAreSkipped() {
+    logger.info("=== Test holds whose request date can't be parsed aren't cached ===");
+
+    HoldRequestCache cache = HoldRequestCache.create(ttl, cap);
+    String badDate = UUID.randomUUID().toString();
+    String noDate = UUID.randomUUID().toString();
+    String good = UUID.randomUUID().toString();
+    cache.putAccountHolds(tenant, account(hold(badDate, "yesterday"), hold(noDate, null), hold(good, requestDate)));
+
+    assertNull(cache.get(tenant, badDate));
+    assertNull(cache.get(tenant, noDate));
+    assertEquals(good, cache.get(tenant, good).getString("id"));
+  }
+
+  @Test
+  void testRemove() {
+    logger.info("=== Test a cancelled request is dropped ===");
+
+    HoldRequestCache cache = HoldRequestCache.create(ttl, cap);
+    String requestId = UUID.randomUUID().toString();
+    cache.put(tenant, requestId, new JsonObject().put("id", requestId));
+    cache.remove(tenant, requestId);
+
+    assertNull(cache.get(tenant, requestId));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void testDisabled() {
+    logger.info("=== Test a TTL of 0 disables the cache ===");
+
+    HoldRequestCache cache = HoldRequestCache.create(0, cap);
+    String requestId = UUID.randomUUID().toString();
+    cache.putAccountHolds(tenant, account(hold(requestId, requestDate)));
+
+    assertNull(cache.get(tenant, requestId));
+    assertEquals(0, cache.size());
+  }
+
+  private static JsonObject hold(String requestId, String requestDate) {
+    return new JsonObject()
+      .put("requestId", requestId)
+      .put("pickupLocationId", pickupServicePointId)
+      .put("requestDate", requestDate);
+  }
+
+  private static Buffer account(JsonObject... holds) {
+    return new JsonObject()
+      .put("totalHolds", holds.length)
+      .put("holds", new JsonArray(List.of((Object[]) holds)))
+      .toBuffer();
+  }
+}
@@ -2,14 +2,16 @@ package org.folio.edge.patron.cache;
 
 import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.folio.edge.core.cache.Cache.CacheValue;
+import org.folio.edge.patron.cache.RefreshAheadCache.CacheValue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -51,6 +53,17 @@ class PatronIdCacheTest {
       .until(cached2::expired);
   }
 
+  @Test
+  void testCreateIsIndependentOfSingleton() {
+    logger.info("=== Test created caches don't share entries with the singleton... ===");
+    PatronIdCache own = PatronIdCache.create(ttl, nullValueTtl, cap, 1);
+    own.put(tenant, extPatronId, patronId);
+
+    assertEquals(patronId, own.get(tenant, extPatronId));
+    assertNull(PatronIdCache.getInstance().get(tenant, extPatronId));
+    assertTrue(own != PatronIdCache.getInstance());
+  }
+
   @Test
   void testEmpty() {
     logger.info("=== Test that a new cache is empty... ===");
@@ -161,4 +174,25 @@ class PatronIdCacheTest {
 
     assertNull(cache.get(tenant, extPatronId));
   }
+
+  @Test
+  void testNotFoundExpires() {
+    logger.info("=== Test expiration of patron not found entries... ===");
+
+    PatronIdCache cache = PatronIdCache.getInstance();
+
+    assertFalse(cache.isNotFound(tenant, extPatronId));
+
+    CacheValue<String> cached = cache.putNotFound(tenant, extPatronId);
+
+    assertTrue(cache.isNotFound(tenant, extPatronId));
+    assertNull(cache.get(tenant, extPatronId));
+
+    await().with()
+      .pollInterval(20, TimeUnit.MILLISECONDS)
+      .atMost(nullValueTtl + 100, TimeUnit.MILLISECONDS)
+      .until(cached::expired);
+
+    assertFalse(cache.isNotFound(tenant, extPatronId));
+  }
 }
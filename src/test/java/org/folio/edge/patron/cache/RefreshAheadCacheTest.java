@@ -0,0 +1,136 @@
+package org.folio.edge.patron.cache;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.edge.patron.cache.RefreshAheadCache.CacheValue;
+import org.junit.jupiter.api.Test;
+
+class RefreshAheadCacheTest {
+
+  private static final Logger logger = LogManager.getLogger(RefreshAheadCacheTest.class);
+
+  private static final int cap = 10;
+  private static final long ttl = 1000;
+  private static final long nullValueTtl = 500;
+
+  private static final String key = "key";
+
+  @Test
+  void testShouldRefreshOncePastFactor() {
+    logger.info("=== Test an entry is due for refresh once, after the refresh-ahead factor ===");
+
+    RefreshAheadCache<String> cache = new RefreshAheadCache<>(ttl, nullValueTtl, cap, 0.5);
+    cache.put(key, "value");
+
+    assertFalse(cache.shouldRefresh(key));
+
+    await().with()
+      .pollInterval(20, TimeUnit.MILLISECONDS)
+      .atMost(ttl, TimeUnit.MILLISECONDS)
+      .until(() -> cache.shouldRefresh(key));
+
+    // only one caller triggers the reload, the old value is still served
+    assertFalse(cache.shouldRefresh(key));
+    assertEquals("value", cache.get(key));
+
+    cache.refreshFailed(key);
+    assertTrue(cache.shouldRefresh(key));
+  }
+
+  @Test
+  void testRefreshAheadDisabled() {
+    logger.info("=== Test a factor of 1 disables refresh-ahead ===");
+
+    RefreshAheadCache<String> cache = new RefreshAheadCache<>(ttl, nullValueTtl, cap, 1);
+    CacheValue<String> cached = cache.put(key, "value");
+
+    await().with()
+      .pollInterval(20, TimeUnit.MILLISECONDS)
+      .atMost(ttl + 100, TimeUnit.MILLISECONDS)
+      .until(() -> {
+        assertFalse(cache.shouldRefresh(key));
+        return cached.expired();
+      });
+  }
+
+  @Test
+  void testReplace() {
+    logger.info("=== Test replace overwrites unexpired entries and resets their TTL ===");
+
+    RefreshAheadCache<String> cache = new RefreshAheadCache<>(ttl, nullValueTtl, cap, 0.5);
+    CacheValue<String> cached = cache.put(key, "value");
+
+    assertEquals("value", cache.put(key, "other").value);
+
+    CacheValue<String> replaced = cache.replace(key, "other");
+    assertEquals("other", cache.get(key));
+    assertTrue(replaced.expires >= cached.expires);
+  }
+
+  @Test
+  void testNullValue() {
+    logger.info("=== Test cached null values can be told apart from misses ===");
+
+    RefreshAheadCache<String> cache = new RefreshAheadCache<>(ttl, nullValueTtl, cap, 0.5);
+    assertNull(cache.getValue(key));
+
+    CacheValue<String> cached = cache.put(key, null);
+    assertNull(cache.get(key));
+    assertNull(cache.getValue(key).value);
+
+    await().with()
+      .pollInterval(20, TimeUnit.MILLISECONDS)
+      .atMost(nullValueTtl + 100, TimeUnit.MILLISECONDS)
+      .until(cached::expired);
+
+    assertNull(cache.getValue(key));
+  }
+
+  @Test
+  void testCounters() {
+    logger.info("=== Test hits, misses and evictions are counted ===");
+
+    RefreshAheadCache<String> cache = new RefreshAheadCache<>(ttl, nullValueTtl, 2, 0.5);
+    assertNull(cache.get(key));
+    cache.put(key, null);
+    assertNull(cache.get(key));
+    cache.peek(key);
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+
+    cache.put("a", "a");
+    cache.put("b", "b");
+    assertEquals(1, cache.getEvictionCount());
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  void testOldestIsEvictedAfterReplacements() {
+    logger.info("=== Test the oldest entry still cached is evicted, however often others were replaced ===");
+
+    RefreshAheadCache<String> cache = new RefreshAheadCache<>(ttl, nullValueTtl, cap, 1);
+    cache.put("oldest", "oldest");
+    for (int i = 0; i < 100; i++) {
+      cache.replace(key, "value" + i);
+    }
+    for (int i = 2; i < cap; i++) {
+      cache.put("key" + i, "value");
+    }
+    assertEquals(cap, cache.size());
+
+    cache.put("newest", "newest");
+
+    assertNull(cache.get("oldest"));
+    assertEquals("value99", cache.get(key));
+    assertEquals("newest", cache.get("newest"));
+    assertEquals(cap, cache.size());
+    assertEquals(1, cache.getEvictionCount());
+  }
+}
@@ -0,0 +1,113 @@
+package org.folio.edge.patron.cache;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.edge.patron.utils.TokenClaims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TokenClaimsCacheTest {
+
+  private static final Logger logger = LogManager.getLogger(TokenClaimsCacheTest.class);
+
+  private static final int cap = 50;
+  private static final long ttl = 3000;
+
+  private static final String realm = "diku";
+  private static final String token = UUID.randomUUID().toString();
+  private static final TokenClaims claims = new TokenClaims(UUID.randomUUID().toString(), true, null);
+
+  @BeforeEach
+  void setUp() {
+    // initialize singleton cache
+    TokenClaimsCache.initialize(ttl, cap);
+  }
+
+  @Test
+  void testGetPutGet() {
+    logger.info("=== Test basic functionality (Get, Put, Get)... ===");
+
+    TokenClaimsCache cache = TokenClaimsCache.getInstance();
+
+    assertNull(cache.get(realm, token));
+
+    cache.put(realm, token, claims);
+    assertEquals(claims, cache.get(realm, token));
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  void testKeyedByRealm() {
+    logger.info("=== Test a token verified for one realm isn't used for another... ===");
+
+    TokenClaimsCache cache = TokenClaimsCache.getInstance();
+
+    cache.put(realm, token, claims);
+    assertNull(cache.get("other", token));
+  }
+
+  @Test
+  void testExpiresWithToken() {
+    logger.info("=== Test entries expire at the token's expiry... ===");
+
+    TokenClaimsCache cache = TokenClaimsCache.getInstance();
+    long exp = System.currentTimeMillis() + 500;
+    cache.put(realm, token, new TokenClaims(claims.externalSystemId(), true, exp));
+
+    await().with()
+      .pollInterval(20, TimeUnit.MILLISECONDS)
+      .atMost(1000, TimeUnit.MILLISECONDS)
+      .until(() -> cache.get(realm, token) == null);
+    assertEquals(1, cache.getEvictionCount());
+  }
+
+  @Test
+  void testExpiredTokenNotCached() {
+    logger.info("=== Test already expired tokens aren't cached... ===");
+
+    TokenClaimsCache cache = TokenClaimsCache.getInstance();
+    cache.put(realm, token, new TokenClaims(claims.externalSystemId(), true, System.currentTimeMillis() - 1));
+
+    assertNull(cache.get(realm, token));
+  }
+
+  @Test
+  void testPruneNoExpires() {
+    logger.info("=== Test pruning keeps the cache bounded... ===");
+
+    TokenClaimsCache cache = TokenClaimsCache.getInstance();
+
+    for (int i = 0; i <= cap; i++) {
+      cache.put(realm, token + i, claims);
+    }
+
+    assertEquals(cap, cache.size());
+  }
+
+  @Test
+  void testPruneSoonestToExpire() {
+    logger.info("=== Test pruning drops the entry closest to expiring... ===");
+
+    TokenClaimsCache cache = TokenClaimsCache.getInstance();
+    TokenClaims expiringSoon = new TokenClaims(claims.externalSystemId(), true, System.currentTimeMillis() + 1000);
+
+    cache.put(realm, token + 0, claims);
+    cache.put(realm, token, expiringSoon);
+    for (int i = 1; i <= cap; i++) {
+      cache.put(realm, token + i, claims);
+    }
+
+    assertEquals(cap, cache.size());
+    assertNull(cache.get(realm, token));
+    assertNull(cache.get(realm, token + 0));
+    assertEquals(claims, cache.get(realm, token + cap));
+    assertEquals(2, cache.getEvictionCount());
+  }
+}
@@ -0,0 +1,135 @@
+package org.folio.edge.patron.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.edge.core.utils.OkapiClientFactory;
+import org.folio.edge.core.utils.test.TestUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+class AccountRequestHelperTest {
+
+  private static final Logger logger = LogManager.getLogger(AccountRequestHelperTest.class);
+
+  private static final String tenant = "diku";
+  private static final int reqTimeout = 3000;
+
+  private final String patronId = UUID.randomUUID().toString();
+
+  private PatronOkapiClient client;
+  private PatronMockOkapi mockOkapi;
+
+  @BeforeEach
+  void setUp(VertxTestContext context) {
+    int okapiPort = TestUtils.getPort();
+
+    List<String> knownTenants = new ArrayList<>();
+    knownTenants.add(tenant);
+
+    mockOkapi = new PatronMockOkapi(okapiPort, knownTenants);
+    mockOkapi.start()
+      .onComplete(context.succeedingThenComplete());
+
+    client = spy(new PatronOkapiClient(new OkapiClientFactory(Vertx.vertx(),
+      "http://localhost:" + okapiPort, reqTimeout).getOkapiClient(tenant), tenant));
+  }
+
+  @AfterEach
+  void tearDown(VertxTestContext context) {
+    mockOkapi.close()
+      .onComplete(context.succeedingThenComplete());
+  }
+
+  @Test
+  void testIdenticalRequestsAreCoalesced(VertxTestContext context) throws Exception {
+    logger.info("=== Test identical concurrent account requests share one mod-patron call ===");
+
+    client.login("admin", "password").get();
+    var params = new PatronAccountRequestParams(patronId, true, true, true, false, null, null, null);
+
+    var first = AccountRequestHelper.getAccount(client, params);
+    var second = AccountRequestHelper.getAccount(client,
+      new PatronAccountRequestParams(patronId, true, true, true, false, null, null, null));
+    assertSame(first, second);
+
+    Future.all(first, second)
+      .onComplete(context.succeeding(x -> context.verify(() -> {
+        assertEquals(PatronMockOkapi.getAccountJson(patronId, true, true, true, false),
+          first.result().bodyAsString());
+        verify(client, times(1)).getAccount(any(), any(), any());
+        context.completeNow();
+      })));
+  }
+
+  @Test
+  void testDifferentParamsAreNotCoalesced(VertxTestContext context) throws Exception {
+    logger.info("=== Test account requests with different params each call mod-patron ===");
+
+    client.login("admin", "password").get();
+
+    var loans = AccountRequestHelper.getAccount(client,
+      new PatronAccountRequestParams(patronId, true, false, false, false, null, null, null));
+    var holds = AccountRequestHelper.getAccount(client,
+      new PatronAccountRequestParams(patronId, false, false, true, false, null, null, null));
+    assertNotSame(loans, holds);
+
+    Future.all(loans, holds)
+      .onComplete(context.succeeding(x -> context.verify(() -> {
+        verify(client, times(2)).getAccount(any(), any(), any());
+        context.completeNow();
+      })));
+  }
+
+  @Test
+  void testInvalidateStopsJoiningInFlightRequest(VertxTestContext context) throws Exception {
+    logger.info("=== Test requests after an account change don't join a request started before it ===");
+
+    client.login("admin", "password").get();
+    var params = new PatronAccountRequestParams(patronId, true, false, false, false, null, null, null);
+
+    var before = AccountRequestHelper.getAccount(client, params);
+    AccountRequestHelper.invalidate(null, tenant, patronId);
+    var after = AccountRequestHelper.getAccount(client, params);
+    assertNotSame(before, after);
+
+    Future.all(before, after)
+      .onComplete(context.succeeding(x -> context.verify(() -> {
+        verify(client, times(2)).getAccount(any(), any(), any());
+        context.completeNow();
+      })));
+  }
+
+  @Test
+  void testCompletedRequestIsNotReused(VertxTestContext context) throws Exception {
+    logger.info("=== Test a new account request is made once the previous one completed ===");
+
+    client.login("admin", "password").get();
+    var params = new PatronAccountRequestParams(patronId, true, false, false, false, null, null, null);
+
+    AccountRequestHelper.getAccount(client, params)
+      .compose(resp -> AccountRequestHelper.getAccount(client, params))
+      .onComplete(context.succeeding(resp -> context.verify(() -> {
+        assertEquals(200, resp.statusCode());
+        verify(client, times(2)).getAccount(any(), any(), any());
+        context.completeNow();
+      })));
+  }
+}
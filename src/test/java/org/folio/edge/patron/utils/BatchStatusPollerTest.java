@@ -0,0 +1,295 @@
+package org.folio.edge.patron.utils;
+
+import static org.folio.edge.patron.utils.PatronMockOkapi.BATCH_REQUEST_ID;
+import static org.folio.edge.patron.utils.PatronMockOkapi.BATCH_REQUEST_ID_COMPLETING;
+import static org.folio.edge.patron.utils.PatronMockOkapi.BATCH_REQUEST_ID_NOT_FOUND;
+import static org.folio.edge.patron.utils.PatronMockOkapi.BATCH_REQUEST_POLLS_UNTIL_COMPLETED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.edge.core.utils.OkapiClientFactory;
+import org.folio.edge.core.utils.test.TestUtils;
+import org.folio.edge.patron.model.Batch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+class BatchStatusPollerTest {
+
+  private static final Logger logger = LogManager.getLogger(BatchStatusPollerTest.class);
+
+  private static final String tenant = "diku";
+  private static final int reqTimeout = 3000;
+
+  private final String patronId = UUID.randomUUID().toString();
+  private final String instanceId = UUID.randomUUID().toString();
+
+  private Vertx vertx;
+  private PatronOkapiClient client;
+  private PatronMockOkapi mockOkapi;
+
+  @BeforeEach
+  void setUp(Vertx vertx, VertxTestContext context) {
+    this.vertx = vertx;
+    int okapiPort = TestUtils.getPort();
+
+    List<String> knownTenants = new ArrayList<>();
+    knownTenants.add(tenant);
+
+    mockOkapi = new PatronMockOkapi(okapiPort, knownTenants);
+    mockOkapi.start()
+      .onComplete(context.succeedingThenComplete());
+
+    client = spy(new PatronOkapiClient(new OkapiClientFactory(vertx,
+      "http://localhost:" + okapiPort, reqTimeout).getOkapiClient(tenant), tenant));
+  }
+
+  @AfterEach
+  void tearDown(VertxTestContext context) {
+    mockOkapi.close()
+      .onComplete(context.succeedingThenComplete());
+  }
+
+  @Test
+  void testSubscribersShareOnePoll(VertxTestContext context) throws Exception {
+    logger.info("=== Test subscribers to the same batch request share one poll ===");
+
+    client.login("admin", "password").get();
+    BatchStatusPoller poller = new BatchStatusPoller(vertx, 60_000, 60_000);
+    AtomicInteger statusReceived = new AtomicInteger();
+    List<Runnable> unsubscribes = new ArrayList<>();
+    Consumer<Buffer> onStatus = body -> context.verify(() -> {
+      assertEquals(Batch.Status.IN_PROGRESS.value(), new JsonObject(body).getString("status"));
+      if (statusReceived.incrementAndGet() == 2) {
+        verify(client, times(1)).getMultiItemBatchRequestStatus(any(), any(), eq(BATCH_REQUEST_ID), any(), any());
+        unsubscribes.forEach(Runnable::run);
+        assertEquals(0, poller.size());
+        context.completeNow();
+      }
+    });
+
+    vertx.runOnContext(v -> {
+      unsubscribes.add(poller.subscribe(client, patronId, instanceId, BATCH_REQUEST_ID, subscriber(onStatus)));
+      unsubscribes.add(poller.subscribe(client, patronId, instanceId, BATCH_REQUEST_ID, subscriber(onStatus)));
+      assertEquals(1, poller.size());
+    });
+  }
+
+  @Test
+  void testSubscribersOnOtherContextsShareOnePoll(VertxTestContext context) throws Exception {
+    logger.info("=== Test subscribers of different verticle instances share one poll ===");
+
+    client.login("admin", "password").get();
+    BatchStatusPoller poller = new BatchStatusPoller(vertx, 60_000, 60_000);
+    AtomicInteger statusReceived = new AtomicInteger();
+    List<Context> contexts = List.of(vertx.getOrCreateContext(), vertx.getOrCreateContext());
+
+    for (Context subscriberContext : contexts) {
+      subscriberContext.runOnContext(v -> poller.subscribe(client, patronId, instanceId, BATCH_REQUEST_ID,
+        subscriber(body -> context.verify(() -> {
+          assertSame(subscriberContext, Vertx.currentContext());
+          if (statusReceived.incrementAndGet() == 2) {
+            verify(client, times(1)).getMultiItemBatchRequestStatus(any(), any(), eq(BATCH_REQUEST_ID), any(),
+              any());
+            context.completeNow();
+          }
+        }))));
+    }
+  }
+
+  @Test
+  void testClose(VertxTestContext context) throws Exception {
+    logger.info("=== Test closing the poller ends its polls ===");
+
+    client.login("admin", "password").get();
+    BatchStatusPoller poller = new BatchStatusPoller(vertx, 60_000, 60_000);
+
+    vertx.runOnContext(v -> poller.subscribe(client, patronId, instanceId, BATCH_REQUEST_ID,
+      new BatchStatusPoller.Subscriber() {
+        @Override
+        public void onStatus(int statusCode, Buffer body) {
+          poller.close();
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+          context.failNow(t);
+        }
+
+        @Override
+        public void onEnd() {
+          context.verify(() -> {
+            assertEquals(0, poller.size());
+            context.completeNow();
+          });
+        }
+      }));
+  }
+
+  @Test
+  void testOnlyChangesArePushed(VertxTestContext context) throws Exception {
+    logger.info("=== Test the poll pushes only changes and ends once the batch request completed ===");
+
+    client.login("admin", "password").get();
+    BatchStatusPoller poller = new BatchStatusPoller(vertx, 10, 40);
+    List<String> statuses = new ArrayList<>();
+
+    vertx.runOnContext(v -> poller.subscribe(client, patronId, instanceId, BATCH_REQUEST_ID_COMPLETING,
+      new BatchStatusPoller.Subscriber() {
+        @Override
+        public void onStatus(int statusCode, Buffer body) {
+          statuses.add(new JsonObject(body).getString("status"));
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+          context.failNow(t);
+        }
+
+        @Override
+        public void onEnd() {
+          context.verify(() -> {
+            assertEquals(List.of(Batch.Status.IN_PROGRESS.value(), Batch.Status.COMPLETED.value()), statuses);
+            verify(client, times(BATCH_REQUEST_POLLS_UNTIL_COMPLETED + 1))
+              .getMultiItemBatchRequestStatus(any(), any(), eq(BATCH_REQUEST_ID_COMPLETING), any(), any());
+            assertEquals(0, poller.size());
+            context.completeNow();
+          });
+        }
+      }));
+  }
+
+  @Test
+  void testErrorEndsPoll(VertxTestContext context) throws Exception {
+    logger.info("=== Test an error status is final ===");
+
+    client.login("admin", "password").get();
+    BatchStatusPoller poller = new BatchStatusPoller(vertx, 10, 40);
+    List<Integer> statusCodes = new ArrayList<>();
+
+    vertx.runOnContext(v -> poller.subscribe(client, patronId, instanceId, BATCH_REQUEST_ID_NOT_FOUND,
+      new BatchStatusPoller.Subscriber() {
+        @Override
+        public void onStatus(int statusCode, Buffer body) {
+          statusCodes.add(statusCode);
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+          context.failNow(t);
+        }
+
+        @Override
+        public void onEnd() {
+          context.verify(() -> {
+            assertEquals(List.of(404), statusCodes);
+            assertEquals(0, poller.size());
+            context.completeNow();
+          });
+        }
+      }));
+  }
+
+  @Test
+  void testStatusIsAnsweredFromSnapshot(VertxTestContext context) throws Exception {
+    logger.info("=== Test status requests are answered from a fresh snapshot ===");
+
+    client.login("admin", "password").get();
+    BatchStatusPoller poller = new BatchStatusPoller(vertx, 60_000, 60_000, 60_000);
+
+    vertx.runOnContext(v -> Future.all(
+        poller.getStatus(client, patronId, instanceId, BATCH_REQUEST_ID),
+        poller.getStatus(client, patronId, instanceId, BATCH_REQUEST_ID))
+      .compose(first -> poller.getStatus(client, patronId, instanceId, BATCH_REQUEST_ID))
+      .onComplete(context.succeeding(resp -> context.verify(() -> {
+        assertEquals(200, resp.statusCode());
+        assertEquals(Batch.Status.IN_PROGRESS.value(), resp.bodyAsJsonObject().getString("status"));
+        verify(client, times(1)).getMultiItemBatchRequestStatus(any(), any(), eq(BATCH_REQUEST_ID), any(), any());
+        assertEquals(1, poller.size());
+        context.completeNow();
+      }))));
+  }
+
+  @Test
+  void testCompletedStatusIsKept(VertxTestContext context) throws Exception {
+    logger.info("=== Test the final status is kept once polling ended ===");
+
+    client.login("admin", "password").get();
+    BatchStatusPoller poller = new BatchStatusPoller(vertx, 10, 40, 1);
+
+    vertx.runOnContext(v -> {
+      poller.track(client, patronId, instanceId, BATCH_REQUEST_ID_COMPLETING);
+      vertx.setPeriodic(20, id -> {
+        if (poller.size() > 0) {
+          return;
+        }
+        vertx.cancelTimer(id);
+        poller.getStatus(client, patronId, instanceId, BATCH_REQUEST_ID_COMPLETING)
+          .onComplete(context.succeeding(resp -> context.verify(() -> {
+            assertEquals(Batch.Status.COMPLETED.value(), resp.bodyAsJsonObject().getString("status"));
+            verify(client, times(BATCH_REQUEST_POLLS_UNTIL_COMPLETED + 1))
+              .getMultiItemBatchRequestStatus(any(), any(), eq(BATCH_REQUEST_ID_COMPLETING), any(), any());
+            context.completeNow();
+          })));
+      });
+    });
+  }
+
+  @Test
+  void testNextInterval() {
+    JsonObject halfPending = new JsonObject().put("itemsTotal", 4).put("itemsPending", 2);
+    assertEquals(100, BatchStatusPoller.nextInterval(400, true, halfPending, 100, 1000));
+    assertEquals(500, BatchStatusPoller.nextInterval(400, false, halfPending, 100, 1000));
+    assertEquals(400, BatchStatusPoller.nextInterval(200, false, new JsonObject(), 100, 1000));
+    assertEquals(1000, BatchStatusPoller.nextInterval(800, false, null, 100, 1000));
+    JsonObject nonePending = new JsonObject().put("itemsTotal", 4).put("itemsPending", 0);
+    assertEquals(100, BatchStatusPoller.nextInterval(800, false, nonePending, 100, 1000));
+  }
+
+  @Test
+  void testIsInProgress() {
+    assertTrue(BatchStatusPoller.isInProgress(Buffer.buffer("{\"status\":\"In progress\"}")));
+    assertFalse(BatchStatusPoller.isInProgress(Buffer.buffer("{\"status\":\"Completed\"}")));
+    assertFalse(BatchStatusPoller.isInProgress(Buffer.buffer("not json")));
+  }
+
+  private static BatchStatusPoller.Subscriber subscriber(Consumer<Buffer> onStatus) {
+    return new BatchStatusPoller.Subscriber() {
+      @Override
+      public void onStatus(int statusCode, Buffer body) {
+        onStatus.accept(body);
+      }
+
+      @Override
+      public void onFailure(Throwable t) {
+      }
+
+      @Override
+      public void onEnd() {
+      }
+    };
+  }
+}
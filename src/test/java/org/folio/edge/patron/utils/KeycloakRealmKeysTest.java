@@ -0,0 +1,113 @@
+package org.folio.edge.patron.utils;
+
+import static org.folio.edge.patron.utils.PatronMockOkapi.readMockFile;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Base64;
+import java.util.UUID;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Test;
+
+class KeycloakRealmKeysTest {
+
+  private static final Logger logger = LogManager.getLogger(KeycloakRealmKeysTest.class);
+
+  private final JwtTokenUtil tokenUtil = new JwtTokenUtil();
+  private final String externalSystemId = UUID.randomUUID().toString();
+  private final String token = tokenUtil.generateToken(externalSystemId, true);
+  private final String certs = readMockFile("/keycloak_certs_response.json");
+  private final String keyId = KeycloakRealmKeys.getKeyId(token);
+
+  @Test
+  void testGetKeyById() {
+    logger.info("=== Test keys are looked up by kid ===");
+
+    KeycloakRealmKeys keys = KeycloakRealmKeys.parse(certs);
+
+    assertEquals("5f1fdf63-2a16-47c8-b882-66d17f1f0d39", keyId);
+    assertInstanceOf(RSAPublicKey.class, keys.getKey(keyId));
+    assertEquals(externalSystemId, keys.parseClaims(token).get("externalSystemId", String.class));
+  }
+
+  @Test
+  void testUnknownKeyId() {
+    logger.info("=== Test a token signed with an unknown kid isn't verified ===");
+
+    KeycloakRealmKeys keys = KeycloakRealmKeys.parse(certs.replace(keyId, UUID.randomUUID().toString()));
+
+    assertNull(keys.getKey(keyId));
+    assertNull(keys.getKey(null));
+    assertThrows(JwtException.class, () -> keys.parseClaims(token));
+  }
+
+  @Test
+  void testGetKeyIdOfMalformedToken() {
+    assertNull(KeycloakRealmKeys.getKeyId("not-a-token"));
+    assertNull(KeycloakRealmKeys.getKeyId(".payload.signature"));
+    assertNull(KeycloakRealmKeys.getKeyId("%%%.payload.signature"));
+  }
+
+  @Test
+  void testMalformedAndNonRsaEntriesAreSkipped() {
+    logger.info("=== Test malformed and symmetric JWKS entries are skipped ===");
+
+    byte[] secret = new byte[32];
+    JsonArray entries = new JsonObject(certs).getJsonArray("keys").copy()
+      .add(new JsonObject().put("kty", "RSA").put("kid", "no-exponent").put("n", "wl-JE22eQrjVGiq1kR2K"))
+      .add(new JsonObject().put("kty", "RSA").put("kid", "garbage").put("n", "!!!").put("e", "!!!"))
+      .add(new JsonObject().put("kty", "unknown").put("kid", "unknown"))
+      .add(new JsonObject().put("kty", "oct").put("kid", "secret")
+        .put("k", Base64.getUrlEncoder().withoutPadding().encodeToString(secret)))
+      .add("not a key");
+
+    KeycloakRealmKeys keys = KeycloakRealmKeys.parse(new JsonObject().put("keys", entries).encode());
+
+    assertInstanceOf(RSAPublicKey.class, keys.getKey(keyId));
+    assertNull(keys.getKey("no-exponent"));
+    assertNull(keys.getKey("garbage"));
+    assertNull(keys.getKey("unknown"));
+    assertNull(keys.getKey("secret"));
+    assertEquals(externalSystemId, keys.parseClaims(token).get("externalSystemId", String.class));
+
+    // anyone can read the JWKS, so a token signed with a key published there
+    // mustn't be accepted
+    String forged = Jwts.builder()
+      .header().keyId("secret").and()
+      .claim("externalSystemId", externalSystemId)
+      .signWith(Keys.hmacShaKeyFor(secret))
+      .compact();
+    assertThrows(JwtException.class, () -> keys.parseClaims(forged));
+  }
+
+  @Test
+  void testNotAJwkSet() {
+    assertThrows(IllegalArgumentException.class, () -> KeycloakRealmKeys.parse("{}"));
+    assertThrows(IllegalArgumentException.class, () -> KeycloakRealmKeys.parse("not json"));
+  }
+
+  @Test
+  void testParserIsReused() {
+    logger.info("=== Test the parser of the realm verifies token after token ===");
+
+    KeycloakRealmKeys keys = KeycloakRealmKeys.parse(certs);
+    String otherExternalSystemId = UUID.randomUUID().toString();
+    String otherToken = tokenUtil.generateToken(otherExternalSystemId, false);
+    String tampered = token.substring(0, token.lastIndexOf('.') + 1) + "AAAA";
+
+    assertEquals(externalSystemId, keys.parseClaims(token).get("externalSystemId", String.class));
+    assertThrows(JwtException.class, () -> keys.parseClaims(tampered));
+    assertEquals(otherExternalSystemId, keys.parseClaims(otherToken).get("externalSystemId", String.class));
+    assertEquals(false, keys.parseClaims(otherToken).get("vip", Boolean.class));
+    assertEquals(externalSystemId, keys.parseClaims(token).get("externalSystemId", String.class));
+  }
+}
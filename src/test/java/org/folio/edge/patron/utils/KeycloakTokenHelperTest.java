@@ -0,0 +1,91 @@
+package org.folio.edge.patron.utils;
+
+import static org.folio.edge.patron.utils.PatronMockOkapi.readMockFile;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import java.util.UUID;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.edge.patron.cache.KeycloakPublicKeyCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+class KeycloakTokenHelperTest {
+
+  private static final Logger logger = LogManager.getLogger(KeycloakTokenHelperTest.class);
+
+  private static final String realm = "diku";
+  private static final String externalSystemId = UUID.randomUUID().toString();
+
+  private final String token = new JwtTokenUtil().generateToken(externalSystemId, true);
+  private final String certs = readMockFile("/keycloak_certs_response.json");
+  private final String rotatedCerts = certs.replace(KeycloakRealmKeys.getKeyId(token), UUID.randomUUID().toString());
+
+  @Test
+  void testUnknownKeyIdTriggersRefresh(VertxTestContext context) {
+    logger.info("=== Test a token signed with an unknown kid refreshes the realm's keys ===");
+
+    KeycloakPublicKeyCache.initialize(60_000, 1000, 10, 0);
+    KeycloakClient client = mock(KeycloakClient.class);
+    when(client.getPublicKeys(realm))
+      .thenReturn(Future.succeededFuture(rotatedCerts), Future.succeededFuture(certs));
+
+    KeycloakTokenHelper.getClaimsFromToken(token, realm, client)
+      .onComplete(context.succeeding(claims -> context.verify(() -> {
+        assertEquals(externalSystemId, claims.get("externalSystemId", String.class));
+        verify(client, times(2)).getPublicKeys(realm);
+        context.completeNow();
+      })));
+  }
+
+  @Test
+  void testUnknownKeyIdRefreshIsRateLimited(VertxTestContext context) {
+    logger.info("=== Test refreshes triggered by an unknown kid are rate limited ===");
+
+    KeycloakPublicKeyCache.initialize(60_000, 1000, 10, 60_000);
+    KeycloakClient client = mock(KeycloakClient.class);
+    when(client.getPublicKeys(realm))
+      .thenReturn(Future.succeededFuture(rotatedCerts), Future.succeededFuture(certs));
+
+    KeycloakTokenHelper.getClaimsFromToken(token, realm, client)
+      .onComplete(context.failing(t -> context.verify(() -> {
+        verify(client, times(1)).getPublicKeys(realm);
+        context.completeNow();
+      })));
+  }
+
+  @Test
+  void testConcurrentFetchesFillEachCache(VertxTestContext context) {
+    logger.info("=== Test callers with caches of their own each get their cache filled ===");
+
+    KeycloakPublicKeyCache first = KeycloakPublicKeyCache.create(60_000, 1000, 10, 0, 1);
+    KeycloakPublicKeyCache second = KeycloakPublicKeyCache.create(60_000, 1000, 10, 0, 1);
+    Promise<String> firstFetch = Promise.promise();
+    Promise<String> secondFetch = Promise.promise();
+    KeycloakClient client = mock(KeycloakClient.class);
+    when(client.getPublicKeys(realm)).thenReturn(firstFetch.future(), secondFetch.future());
+
+    Future<?> firstClaims = KeycloakTokenHelper.getClaimsFromToken(token, realm, client, first);
+    Future<?> secondClaims = KeycloakTokenHelper.getClaimsFromToken(token, realm, client, second);
+    firstFetch.complete(certs);
+    secondFetch.complete(certs);
+
+    Future.all(firstClaims, secondClaims)
+      .onComplete(context.succeeding(v -> context.verify(() -> {
+        verify(client, times(2)).getPublicKeys(realm);
+        assertNotNull(first.get(realm));
+        assertNotNull(second.get(realm));
+        context.completeNow();
+      })));
+  }
+}
@@ -0,0 +1,123 @@
+package org.folio.edge.patron.utils;
+
+import static org.folio.edge.patron.utils.PatronMockOkapi.BATCH_REQUEST_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.http.PoolOptions;
+import io.vertx.ext.web.client.WebClientOptions;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.edge.core.utils.OkapiClientFactory;
+import org.folio.edge.core.utils.test.TestUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+class OkapiWebClientsTest {
+
+  private static final Logger logger = LogManager.getLogger(OkapiWebClientsTest.class);
+
+  private static final String tenant = "diku";
+  private static final int reqTimeout = 3000;
+
+  private Vertx vertx;
+  private int okapiPort;
+  private PatronMockOkapi mockOkapi;
+
+  @BeforeEach
+  void setUp(Vertx vertx, VertxTestContext context) {
+    this.vertx = vertx;
+    okapiPort = TestUtils.getPort();
+
+    List<String> knownTenants = new ArrayList<>();
+    knownTenants.add(tenant);
+
+    mockOkapi = new PatronMockOkapi(okapiPort, knownTenants);
+    mockOkapi.start()
+      .onComplete(context.succeedingThenComplete());
+  }
+
+  @AfterEach
+  void tearDown(VertxTestContext context) {
+    mockOkapi.close()
+      .onComplete(context.succeedingThenComplete());
+  }
+
+  @Test
+  void testOnePoolPerTenant() {
+    OkapiWebClients webClients = OkapiWebClients.create(vertx, "http://localhost:" + okapiPort, 2,
+      true, false, false, null);
+
+    assertSame(webClients.get(tenant), webClients.get(tenant));
+    assertNotSame(webClients.get(tenant), webClients.get("other"));
+    assertEquals(2, webClients.getPools().size());
+    assertEquals(2, webClients.get(tenant).getSize());
+  }
+
+  @Test
+  void testPoolsAreCapped() {
+    OkapiWebClients webClients = new OkapiWebClients(vertx, new WebClientOptions(),
+      new PoolOptions().setHttp1MaxSize(1), 2);
+
+    OkapiWebClients.Pool first = webClients.get(tenant);
+    OkapiWebClients.Pool second = webClients.get("other");
+    OkapiWebClients.Pool overflow = webClients.get("third");
+
+    assertSame(overflow, webClients.get("fourth"));
+    assertNotSame(first, overflow);
+    assertNotSame(second, overflow);
+    assertSame(first, webClients.get(tenant));
+    assertEquals(2, webClients.getPools().size());
+  }
+
+  @Test
+  void testClose() {
+    OkapiWebClients webClients = OkapiWebClients.create(vertx, "http://localhost:" + okapiPort, 2,
+      true, false, false, null);
+    OkapiWebClients.Pool pool = webClients.get(tenant);
+
+    webClients.close();
+
+    assertEquals(0, webClients.getPools().size());
+    assertNotSame(pool, webClients.get(tenant));
+  }
+
+  @Test
+  void testRequestsGoThroughTenantPool(VertxTestContext context) throws Exception {
+    logger.info("=== Test requests of a tenant are sent through its pool ===");
+
+    OkapiWebClients webClients = OkapiWebClients.create(vertx, "http://localhost:" + okapiPort, 2,
+      true, true, true, null);
+    PatronOkapiClient client = new PatronOkapiClient(new OkapiClientFactory(vertx,
+      "http://localhost:" + okapiPort, reqTimeout).getOkapiClient(tenant), tenant);
+    client.login("admin", "password").get();
+    OkapiWebClients.Pool pool = webClients.get(tenant);
+    PatronOkapiClient pooledClient = new PatronOkapiClient(client, tenant, pool);
+
+    vertx.runOnContext(v -> context.verify(() -> {
+      pooledClient.getMultiItemBatchRequestStatus(UUID.randomUUID().toString(), UUID.randomUUID().toString(),
+        BATCH_REQUEST_ID,
+        resp -> context.verify(() -> {
+          assertEquals(200, resp.statusCode());
+          assertEquals(1, pool.getRequestCount());
+          assertEquals(0, pool.getInFlight());
+          assertEquals(0, webClients.get("other").getRequestCount());
+          context.completeNow();
+        }),
+        context::failNow);
+      // the response is handled on this context, so not before this returned
+      assertEquals(1, pool.getInFlight());
+      assertEquals(0.5, pool.getUtilisation());
+    }));
+  }
+}
@@ -0,0 +1,102 @@
+package org.folio.edge.patron.utils;
+
+import static org.folio.edge.patron.utils.PatronMockOkapi.PATRON_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.edge.core.utils.OkapiClientFactory;
+import org.folio.edge.core.utils.test.TestUtils;
+import org.folio.edge.patron.cache.PatronIdCache;
+import org.folio.edge.patron.utils.PatronOkapiClient.PatronNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+class PatronIdHelperTest {
+
+  private static final Logger logger = LogManager.getLogger(PatronIdHelperTest.class);
+
+  private static final String tenant = "diku";
+  private static final int reqTimeout = 3000;
+
+  private PatronOkapiClient client;
+  private PatronMockOkapi mockOkapi;
+
+  @BeforeEach
+  void setUp(VertxTestContext context) throws Exception {
+    int okapiPort = TestUtils.getPort();
+
+    List<String> knownTenants = new ArrayList<>();
+    knownTenants.add(tenant);
+
+    PatronIdCache.initialize(60_000, 60_000, 100);
+
+    mockOkapi = new PatronMockOkapi(okapiPort, knownTenants);
+    mockOkapi.start()
+      .onComplete(context.succeedingThenComplete());
+
+    client = spy(new PatronOkapiClient(new OkapiClientFactory(Vertx.vertx(),
+      "http://localhost:" + okapiPort, reqTimeout).getOkapiClient(tenant), tenant));
+  }
+
+  @AfterEach
+  void tearDown(VertxTestContext context) {
+    mockOkapi.close()
+      .onComplete(context.succeedingThenComplete());
+  }
+
+  @Test
+  void testConcurrentLookupsAreCoalesced(VertxTestContext context) throws Exception {
+    logger.info("=== Test concurrent patron lookups share one mod-users call ===");
+
+    client.login("admin", "password").get();
+    String extId = UUID.randomUUID().toString();
+
+    Future<String> first = PatronIdHelper.lookupPatron(client, tenant, extId);
+    Future<String> second = PatronIdHelper.lookupPatron(client, tenant, extId);
+    assertSame(first, second);
+
+    Future.all(first, second)
+      .onComplete(context.succeeding(x -> context.verify(() -> {
+        assertEquals(PATRON_ID, first.result());
+        assertEquals(PATRON_ID, PatronIdCache.getInstance().get(tenant, extId));
+        verify(client, times(1)).getPatron(anyString());
+        context.completeNow();
+      })));
+  }
+
+  @Test
+  void testPatronNotFoundIsCached(VertxTestContext context) throws Exception {
+    logger.info("=== Test patron not found lookups are cached ===");
+
+    client.login("admin", "password").get();
+    String extId = PatronMockOkapi.extPatronId_notFound;
+
+    PatronIdHelper.lookupPatron(client, tenant, extId)
+      .recover(t -> {
+        context.verify(() -> assertTrue(PatronIdCache.getInstance().isNotFound(tenant, extId)));
+        return PatronIdHelper.lookupPatron(client, tenant, extId);
+      })
+      .onComplete(context.failing(t -> context.verify(() -> {
+        assertTrue(t instanceof PatronNotFoundException);
+        verify(client, times(1)).getPatron(anyString());
+        context.completeNow();
+      })));
+  }
+}
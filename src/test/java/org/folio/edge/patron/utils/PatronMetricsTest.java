@@ -0,0 +1,96 @@
+package org.folio.edge.patron.utils;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.Timer;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.edge.core.utils.test.TestUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+class PatronMetricsTest {
+
+  private static final Logger logger = LogManager.getLogger(PatronMetricsTest.class);
+
+  private static final String okapiUrl = "http://localhost:9130";
+
+  @Test
+  void testUpstreamIsKeptApartFromOverhead(Vertx vertx, VertxTestContext context) {
+    logger.info("=== Test the time waited for upstream modules isn't counted as overhead ===");
+
+    PatronMetrics metrics = PatronMetrics.create();
+    Router router = Router.router(vertx);
+    router.route().handler(metrics::handleRequest);
+    router.route(HttpMethod.GET, "/patron/account/:patronId").handler(ctx -> {
+      PatronMetrics.Upstream upstream = metrics.upstream(okapiUrl, okapiUrl + "/patron/account/1");
+      vertx.setTimer(200, id -> {
+        upstream.stop("200");
+        ctx.response().setStatusCode(200).end();
+      });
+    });
+    router.route(HttpMethod.GET, "/admin/metrics").handler(metrics::handleScrape);
+    int port = TestUtils.getPort();
+    WebClient client = WebClient.create(vertx);
+
+    vertx.createHttpServer().requestHandler(router).listen(port)
+      .compose(server -> client.get(port, "localhost", "/patron/account/1").send())
+      .onComplete(context.succeeding(resp -> context.verify(() -> {
+        assertEquals(200, resp.statusCode());
+        await().atMost(1, TimeUnit.SECONDS)
+          .until(() -> metrics.getRegistry().find(PatronMetrics.REQUEST_OVERHEAD).timer() != null);
+        Timer request = metrics.getRegistry().get(PatronMetrics.REQUESTS)
+          .tag("route", "/patron/account/:patronId")
+          .tag("status", "200")
+          .timer();
+        Timer overhead = metrics.getRegistry().get(PatronMetrics.REQUEST_OVERHEAD).timer();
+        Timer upstream = metrics.getRegistry().get(PatronMetrics.UPSTREAM_REQUESTS)
+          .tag("upstream", "mod-patron")
+          .timer();
+        assertEquals(1, request.count());
+        assertTrue(upstream.totalTime(TimeUnit.MILLISECONDS) >= 200);
+        assertTrue(overhead.totalTime(TimeUnit.MILLISECONDS) < 200);
+      })))
+      .compose(v -> client.get(port, "localhost", "/admin/metrics").send())
+      .onComplete(context.succeeding(resp -> context.verify(() -> {
+        assertEquals(PatronMetrics.CONTENT_TYPE, resp.getHeader("Content-Type"));
+        assertTrue(resp.bodyAsString().contains("edge_patron_upstream_requests_seconds_count"));
+        context.completeNow();
+      })));
+  }
+
+  @Test
+  void testCacheCounters() {
+    PatronMetrics metrics = PatronMetrics.create();
+    AtomicInteger hits = new AtomicInteger(3);
+    metrics.bindCache("patron_id", hits::get, () -> 2, () -> 1, () -> 5);
+    hits.incrementAndGet();
+
+    assertEquals(4, metrics.getRegistry().get("edge.patron.cache.hits").tag("cache", "patron_id")
+      .functionCounter().count());
+    assertEquals(2, metrics.getRegistry().get("edge.patron.cache.misses").functionCounter().count());
+    assertEquals(1, metrics.getRegistry().get("edge.patron.cache.evictions").functionCounter().count());
+    assertEquals(5, metrics.getRegistry().get("edge.patron.cache.size").gauge().value());
+  }
+
+  @Test
+  void testModuleOf() {
+    assertEquals("mod-patron", PatronMetrics.moduleOf(okapiUrl, okapiUrl + "/patron/account/1?includeLoans=true"));
+    assertEquals("mod-users", PatronMetrics.moduleOf(okapiUrl, okapiUrl + "/users?query=externalSystemId==1"));
+    assertEquals("mod-circulation-bff",
+      PatronMetrics.moduleOf(okapiUrl, okapiUrl + "/circulation-bff/external-users/1/tenant/diku"));
+    assertEquals("mod-circulation", PatronMetrics.moduleOf(null, "http://okapi/circulation/requests/1"));
+    assertEquals("okapi", PatronMetrics.moduleOf(okapiUrl, okapiUrl + "/unknown"));
+  }
+}
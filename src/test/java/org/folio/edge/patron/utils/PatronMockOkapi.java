@@ -24,7 +24,13 @@ import java.util.ArrayList;
 import java.util.Currency;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -46,6 +52,8 @@ public class PatronMockOkapi extends MockOkapi {
 
   private static final Logger logger = LogManager.getLogger(PatronMockOkapi.class);
 
+  private final AtomicInteger completingBatchRequestPolls = new AtomicInteger();
+
   public static final String PARAM_QUERY = "query";
 
   public static final String isbn = "0008675309";
@@ -79,6 +87,9 @@ public class PatronMockOkapi extends MockOkapi {
   public static final String limit_param = "limit";
   public static final String BATCH_REQUEST_ID = "5203c035-005e-4a70-b555-ddaa3094c51c";
   public static final String BATCH_REQUEST_ID_NOT_FOUND = UUID.randomUUID().toString();
+  /** In progress for the first {@link #BATCH_REQUEST_POLLS_UNTIL_COMPLETED} polls, completed afterwards */
+  public static final String BATCH_REQUEST_ID_COMPLETING = UUID.randomUUID().toString();
+  public static final int BATCH_REQUEST_POLLS_UNTIL_COMPLETED = 3;
 
   public static final long checkedOutTs = System.currentTimeMillis() - (34 * DAY_IN_MILLIS);
   public static final long dueDateTs = checkedOutTs + (20 * DAY_IN_MILLIS);
@@ -117,14 +128,50 @@ public class PatronMockOkapi extends MockOkapi {
           "\"errors\" : []" +
           "}";
 
+  private long latencyMs;
+  private double errorRate;
+  private int accountLoans;
+  private final Map<String, String> generatedAccounts = new ConcurrentHashMap<>();
+
   public PatronMockOkapi(int port, List<String> knownTenants) {
     super(port, knownTenants);
   }
 
+  /**
+   * Delays every response, e.g. to simulate the latency of FOLIO modules
+   * under load.
+   */
+  public PatronMockOkapi withLatency(long latencyMs) {
+    this.latencyMs = latencyMs;
+    return this;
+  }
+
+  /**
+   * Fails the given fraction of requests with a 500.
+   */
+  public PatronMockOkapi withErrorRate(double errorRate) {
+    this.errorRate = errorRate;
+    return this;
+  }
+
+  /**
+   * Answers account requests with the given number of loans, and a tenth as
+   * many holds and charges, instead of the fixed account; 0 keeps the fixed
+   * one.
+   */
+  public PatronMockOkapi withAccountLoans(int accountLoans) {
+    this.accountLoans = accountLoans;
+    return this;
+  }
+
   @Override
   public Router defineRoutes() {
     Router router = super.defineRoutes();
 
+    router.route()
+      .order(-1)
+      .handler(this::simulateLoad);
+
     router.route(HttpMethod.GET, "/users")
       .handler(this::getPatronHandler);
 
@@ -160,6 +207,9 @@ public class PatronMockOkapi extends MockOkapi {
     router.route(HttpMethod.POST, "/patron/account/:patronId/hold/:holdId/cancel")
       .handler(this::cancelHoldHandler);
 
+    router.route(HttpMethod.GET, "/circulation/requests")
+      .handler(this::getRequestsHandler);
+
     router.route(HttpMethod.GET, "/circulation/requests/:requestId")
       .handler(this::getRequestHandler);
 
@@ -184,6 +234,19 @@ public class PatronMockOkapi extends MockOkapi {
     return router;
   }
 
+  private void simulateLoad(RoutingContext ctx) {
+    if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+      ctx.response()
+        .setStatusCode(500)
+        .putHeader(HttpHeaders.CONTENT_TYPE, TEXT_PLAIN)
+        .end("Injected failure");
+    } else if (latencyMs > 0) {
+      ctx.vertx().setTimer(latencyMs, id -> ctx.next());
+    } else {
+      ctx.next();
+    }
+  }
+
   public void getKeycloakPublicKeysHandler(RoutingContext ctx) {
     ctx.response()
       .setStatusCode(200)
@@ -270,6 +333,13 @@ public class PatronMockOkapi extends MockOkapi {
         .setStatusCode(200)
         .putHeader(HttpHeaders.CONTENT_TYPE, APPLICATION_JSON)
         .end(getAccountWithSortedLoans(patronId));
+    } else if (accountLoans > 0) {
+      String key = String.format("%s:%s:%s:%s", patronId, includeLoans, includeCharges, includeHolds);
+      ctx.response()
+        .setStatusCode(200)
+        .putHeader(HttpHeaders.CONTENT_TYPE, APPLICATION_JSON)
+        .end(generatedAccounts.computeIfAbsent(key,
+          k -> getAccountJson(patronId, accountLoans, includeLoans, includeCharges, includeHolds)));
     } else {
       ctx.response()
         .setStatusCode(200)
@@ -500,6 +570,33 @@ public class PatronMockOkapi extends MockOkapi {
   }
 
 
+  public void getRequestsHandler(RoutingContext ctx) {
+    String query = ctx.request().getParam("query", "");
+    String token = ctx.request().getHeader(X_OKAPI_TOKEN);
+    if (token == null || !token.equals(MOCK_TOKEN)) {
+      ctx.response()
+        .setStatusCode(403)
+        .putHeader(HttpHeaders.CONTENT_TYPE, TEXT_PLAIN)
+        .end("Access requires permission: circulation.requests.collection.get");
+      return;
+    }
+    JsonArray requests = new JsonArray();
+    Matcher requestIds = Pattern.compile("[0-9a-fA-F-]{36}").matcher(query);
+    while (requestIds.find()) {
+      String request = getRequest(requestIds.group());
+      if (request != null) {
+        requests.add(new JsonObject(request));
+      }
+    }
+    ctx.response()
+      .setStatusCode(200)
+      .putHeader(HttpHeaders.CONTENT_TYPE, APPLICATION_JSON)
+      .end(new JsonObject()
+        .put("requests", requests)
+        .put("totalRecords", requests.size())
+        .encode());
+  }
+
   public void getRequestHandler(RoutingContext ctx) {
     String requestId = ctx.request().getParam(PARAM_REQUEST_ID);
     String token = ctx.request().getHeader(X_OKAPI_TOKEN);
@@ -707,6 +804,15 @@ public class PatronMockOkapi extends MockOkapi {
         .setStatusCode(404)
         .putHeader(HttpHeaders.CONTENT_TYPE, TEXT_PLAIN)
         .end(String.format("Multi-Item Batch request '%s' isn't found", BATCH_REQUEST_ID_NOT_FOUND));
+    } else if (batchId.equals(BATCH_REQUEST_ID_COMPLETING)) {
+      JsonObject status = new JsonObject(readMockFile("/batch_request_status_expected_response.json"));
+      if (completingBatchRequestPolls.incrementAndGet() > BATCH_REQUEST_POLLS_UNTIL_COMPLETED) {
+        status.put("status", Batch.Status.COMPLETED.value());
+      }
+      ctx.response()
+        .setStatusCode(200)
+        .putHeader(HttpHeaders.CONTENT_TYPE, APPLICATION_JSON)
+        .end(status.encodePrettily());
     } else {
       ctx.response()
         .setStatusCode(200)
@@ -795,6 +901,32 @@ public class PatronMockOkapi extends MockOkapi {
     return builderToJson(acctBldr, includeLoans, includeCharges, includeHolds, includeBatches);
   }
 
+  /**
+   * An account with the given number of loans and a tenth as many holds and
+   * charges.
+   */
+  public static String getAccountJson(String patronId, int loans, boolean includeLoans, boolean includeCharges,
+    boolean includeHolds) {
+
+    List<Loan> loanList = new ArrayList<>();
+    List<Hold> holds = new ArrayList<>();
+    List<Charge> charges = new ArrayList<>();
+    for (int i = 0; i < loans; i++) {
+      String id = UUID.randomUUID().toString();
+      loanList.add(getLoan(id));
+      if (i % 10 == 0) {
+        holds.add(getHold(id));
+        charges.add(getCharge(id));
+      }
+    }
+    Account.Builder acctBldr = Account.builder()
+      .id(patronId)
+      .loans(loanList)
+      .holds(holds)
+      .charges(charges);
+    return builderToJson(acctBldr, includeLoans, includeCharges, includeHolds, false);
+  }
+
   public static String getAccountWithSingleItemsJson(String patronId, boolean includeLoans, boolean includeCharges,
     boolean includeHolds, boolean includeBatches) {
 
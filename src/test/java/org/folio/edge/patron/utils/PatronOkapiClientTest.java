@@ -7,8 +7,12 @@ import static org.folio.edge.patron.utils.PatronMockOkapi.offset_param;
 import static org.folio.edge.patron.utils.PatronMockOkapi.patronId_notFound;
 import static org.folio.edge.patron.utils.PatronMockOkapi.wrongIntegerParamMessage;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
@@ -20,6 +24,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.folio.edge.core.utils.OkapiClientFactory;
 import org.folio.edge.core.utils.test.TestUtils;
+import org.folio.edge.patron.cache.HoldRequestCache;
 import org.folio.edge.patron.model.Account;
 import org.folio.edge.patron.model.Hold;
 import org.folio.edge.patron.utils.PatronOkapiClient.PatronLookupException;
@@ -300,6 +305,63 @@ class PatronOkapiClientTest {
     });
   }
 
+  @Test
+  void testStreamAccount(VertxTestContext context) {
+    logger.info("=== Test successful streamed getAccount request w/ all data ===");
+
+    var httpClient = Vertx.vertx().createHttpClient();
+    client.login("admin", "password").thenAcceptAsync(v -> {
+      var params = new PatronAccountRequestParams(patronId, true, true, true, true, null, null, null);
+      client.streamAccount(httpClient, params)
+        .compose(resp -> {
+          context.verify(() -> assertEquals(200, resp.statusCode()));
+          return resp.body();
+        })
+        .onComplete(context.succeeding(body -> {
+          context.verify(() -> assertEquals(PatronMockOkapi.getAccountJson(patronId, true, true, true, true),
+            body.toString()));
+          context.completeNow();
+        }));
+    });
+  }
+
+  @Test
+  void testStreamAccountNotFound(VertxTestContext context) {
+    logger.info("=== Test streamed getAccount - patron not found ===");
+
+    var httpClient = Vertx.vertx().createHttpClient();
+    client.login("admin", "password").thenAcceptAsync(v -> {
+      var params = new PatronAccountRequestParams(patronId_notFound, true, true, true, false, null, null, null);
+      client.streamAccount(httpClient, params)
+        .onComplete(context.succeeding(resp -> {
+          context.verify(() -> assertEquals(404, resp.statusCode()));
+          context.completeNow();
+        }));
+    });
+  }
+
+  @Test
+  void testStreamAccountIsTimed(VertxTestContext context) {
+    logger.info("=== Test streamed getAccount requests are timed ===");
+
+    var metrics = PatronMetrics.create();
+    var httpClient = Vertx.vertx().createHttpClient();
+    client.withMetrics(metrics);
+    client.login("admin", "password").thenAcceptAsync(v -> {
+      var params = new PatronAccountRequestParams(patronId, true, true, true, true, null, null, null);
+      client.streamAccount(httpClient, params)
+        .compose(resp -> resp.body())
+        .onComplete(context.succeeding(body -> {
+          context.verify(() -> assertEquals(1, metrics.getRegistry().get(PatronMetrics.UPSTREAM_REQUESTS)
+            .tag("upstream", "mod-patron")
+            .tag("status", "200")
+            .timer()
+            .count()));
+          context.completeNow();
+        }));
+    });
+  }
+
   @Test
   void testGetAccountNoCharges(VertxTestContext context) {
     logger.info("=== Test successful getAccount request w/o charges data ===");
@@ -565,6 +627,49 @@ class PatronOkapiClientTest {
     });
   }
 
+  @Test
+  void testCancelHoldWithCachedRequest(VertxTestContext context) {
+    logger.info("=== Test cancel hold skips fetching a cached request ===");
+
+    Hold hold = PatronMockOkapi.getHold(PatronMockOkapi.holdCancellationHoldId);
+    String holdCancellation = PatronMockOkapi.getHoldCancellation(hold.requestId, patronId);
+    HoldRequestCache requestCache = HoldRequestCache.create(60_000, 10);
+    requestCache.put(client.tenant, hold.requestId,
+      new JsonObject(PatronMockOkapi.getRequest(hold.requestId)));
+
+    client.login("admin", "password").thenAcceptAsync(v ->
+      client.cancelHold(patronId,
+          hold.requestId,
+          new JsonObject(holdCancellation),
+          requestCache,
+          resp -> context.verify(() -> {
+            assertEquals(200, resp.statusCode());
+            verify(client, never()).getRequest(any(), any(), any());
+            assertNull(requestCache.get(client.tenant, hold.requestId));
+            context.completeNow();
+          }),
+          context::failNow));
+  }
+
+  @Test
+  void testGetRequests(VertxTestContext context) {
+    logger.info("=== Test looking up several requests at once ===");
+
+    HoldRequestCache requestCache = HoldRequestCache.create(60_000, 10);
+
+    client.login("admin", "password")
+      .thenAcceptAsync(v -> client.getRequests(
+          List.of(PatronMockOkapi.goodRequestId, PatronMockOkapi.holdReqId_notFound), requestCache)
+        .onComplete(context.succeeding(requests -> context.verify(() -> {
+          assertEquals(1, requests.size());
+          assertEquals(new JsonObject(PatronMockOkapi.getRequest(PatronMockOkapi.goodRequestId)),
+            requests.get(PatronMockOkapi.goodRequestId));
+          assertEquals(requests.get(PatronMockOkapi.goodRequestId),
+            requestCache.get(client.tenant, PatronMockOkapi.goodRequestId));
+          context.completeNow();
+        }))));
+  }
+
   @Test
   void testGetRequest(VertxTestContext context) {
     logger.info("=== Test successful getRequest ===");
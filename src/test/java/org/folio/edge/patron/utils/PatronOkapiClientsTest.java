@@ -0,0 +1,80 @@
+package org.folio.edge.patron.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import io.vertx.core.Vertx;
+import org.folio.edge.core.utils.OkapiClient;
+import org.folio.edge.core.utils.OkapiClientFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PatronOkapiClientsTest {
+
+  private static final String tenant = "diku";
+  private static final String user = "diku";
+
+  private Vertx vertx;
+  private OkapiClientFactory ocf;
+
+  @BeforeEach
+  void setUp() {
+    vertx = Vertx.vertx();
+    ocf = new OkapiClientFactory(vertx, "http://localhost:9130", 3000);
+  }
+
+  @AfterEach
+  void tearDown() {
+    vertx.close();
+  }
+
+  @Test
+  void testClientIsReusedUntilTokenChanges() {
+    PatronOkapiClients clients = new PatronOkapiClients(10);
+
+    PatronOkapiClient first = clients.get(client("token-1"), user, tenant, PatronOkapiClient::new);
+    assertSame(first, clients.get(client("token-1"), user, tenant, PatronOkapiClient::new));
+
+    PatronOkapiClient refreshed = clients.get(client("token-2"), user, tenant, PatronOkapiClient::new);
+    assertNotSame(first, refreshed);
+    assertSame(refreshed, clients.get(client("token-2"), user, tenant, PatronOkapiClient::new));
+    assertEquals(1, clients.size());
+
+    assertNotSame(refreshed, clients.get(client("token-2"), user, "other", PatronOkapiClient::new));
+    assertEquals(2, clients.size());
+  }
+
+  @Test
+  void testApiKeyUsersDontReplaceEachOther() {
+    PatronOkapiClients clients = new PatronOkapiClients(10);
+
+    PatronOkapiClient first = clients.get(client("token-1"), "user-1", tenant, PatronOkapiClient::new);
+    PatronOkapiClient second = clients.get(client("token-2"), "user-2", tenant, PatronOkapiClient::new);
+
+    assertNotSame(first, second);
+    assertSame(first, clients.get(client("token-1"), "user-1", tenant, PatronOkapiClient::new));
+    assertSame(second, clients.get(client("token-2"), "user-2", tenant, PatronOkapiClient::new));
+    assertEquals(2, clients.size());
+  }
+
+  @Test
+  void testEldestClientIsEvicted() {
+    PatronOkapiClients clients = new PatronOkapiClients(1);
+
+    PatronOkapiClient first = clients.get(client("token"), user, tenant, PatronOkapiClient::new);
+    PatronOkapiClient other = clients.get(client("token"), user, "other", PatronOkapiClient::new);
+
+    assertSame(other, clients.get(client("token"), user, "other", PatronOkapiClient::new));
+    assertEquals(1, clients.size());
+    assertNotSame(first, clients.get(client("token"), user, tenant, PatronOkapiClient::new));
+    assertEquals(1, clients.size());
+  }
+
+  private OkapiClient client(String token) {
+    OkapiClient client = ocf.getOkapiClient(tenant);
+    client.setToken(token);
+    return client;
+  }
+}
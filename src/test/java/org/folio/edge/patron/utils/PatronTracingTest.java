@@ -0,0 +1,121 @@
+package org.folio.edge.patron.utils;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.edge.core.utils.test.TestUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+class PatronTracingTest {
+
+  private static final Logger logger = LogManager.getLogger(PatronTracingTest.class);
+
+  private static final String traceId = "4bf92f3577b34da6a3ce929d0e0e4736";
+  private static final String traceparent = "00-" + traceId + "-00f067aa0ba902b7-01";
+
+  private InMemorySpanExporter exporter;
+  private PatronTracing tracing;
+
+  @BeforeEach
+  void setUp() {
+    exporter = InMemorySpanExporter.create();
+    tracing = new PatronTracing(OpenTelemetrySdk.builder()
+      .setTracerProvider(SdkTracerProvider.builder()
+        .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+        .build())
+      .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+      .build());
+  }
+
+  @Test
+  void testTraceIsPropagated(Vertx vertx, VertxTestContext context) {
+    logger.info("=== Test the trace of the caller continues through stages to upstream requests ===");
+
+    AtomicReference<String> sentTraceparent = new AtomicReference<>();
+    Router router = Router.router(vertx);
+    router.route().handler(tracing::handleRequest);
+    router.route(HttpMethod.GET, "/patron/account/:patronId").handler(ctx ->
+      tracing.stage("look up patron", () -> {
+        PatronTracing.Client client = tracing.startClient("mod-users", HttpMethod.GET,
+          "http://okapi/users?query=externalSystemId==1", null);
+        sentTraceparent.set(client.getHeaders().get("traceparent"));
+        client.end(200);
+        return Future.succeededFuture();
+      }).onComplete(ar -> ctx.response().setStatusCode(200).end()));
+    int port = TestUtils.getPort();
+
+    vertx.createHttpServer().requestHandler(router).listen(port)
+      .compose(server -> WebClient.create(vertx).get(port, "localhost", "/patron/account/1")
+        .putHeader("traceparent", traceparent)
+        .send())
+      .onComplete(context.succeeding(resp -> context.verify(() -> {
+        assertEquals(200, resp.statusCode());
+        await().atMost(1, TimeUnit.SECONDS).until(() -> exporter.getFinishedSpanItems().size() == 3);
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+        SpanData server = find(spans, "GET /patron/account/:patronId");
+        SpanData stage = find(spans, "look up patron");
+        SpanData client = find(spans, "GET mod-users");
+
+        assertEquals(SpanKind.SERVER, server.getKind());
+        assertEquals(traceId, server.getTraceId());
+        assertEquals("00f067aa0ba902b7", server.getParentSpanId());
+        assertEquals(server.getSpanId(), stage.getParentSpanId());
+        assertEquals(stage.getSpanId(), client.getParentSpanId());
+        assertEquals(200L, client.getAttributes().get(PatronTracing.HTTP_STATUS));
+        assertEquals("okapi", client.getAttributes().get(PatronTracing.SERVER_ADDRESS));
+        assertEquals("/users", client.getAttributes().get(PatronTracing.URL_PATH));
+        assertFalse(client.getAttributes().asMap().values().stream()
+          .anyMatch(value -> value.toString().contains("externalSystemId")));
+        assertTrue(sentTraceparent.get().contains(client.getSpanId()));
+        assertTrue(sentTraceparent.get().startsWith("00-" + traceId));
+        context.completeNow();
+      })));
+  }
+
+  @Test
+  void testSpanToJson() {
+    tracing.startClient("keycloak", HttpMethod.GET, "http://keycloak/realms/diku", null)
+      .end(404);
+
+    JsonObject json = FileSpanExporter.toJson(exporter.getFinishedSpanItems().get(0));
+    assertEquals("GET keycloak", json.getString("name"));
+    assertEquals("CLIENT", json.getString("kind"));
+    assertEquals(404L, json.getJsonObject("attributes").getLong("http.response.status_code"));
+  }
+
+  private static SpanData find(List<SpanData> spans, String name) {
+    SpanData span = spans.stream()
+      .filter(s -> s.getName().equals(name))
+      .findFirst()
+      .orElse(null);
+    assertNotNull(span, name);
+    return span;
+  }
+}
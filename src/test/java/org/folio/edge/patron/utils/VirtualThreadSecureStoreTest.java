@@ -0,0 +1,131 @@
+package org.folio.edge.patron.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.edge.core.security.SecureStore;
+import org.folio.edge.core.security.SecureStore.NotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+class VirtualThreadSecureStoreTest {
+
+  private static final Logger logger = LogManager.getLogger(VirtualThreadSecureStoreTest.class);
+
+  private final AtomicInteger lookups = new AtomicInteger();
+  private final AtomicInteger virtualLookups = new AtomicInteger();
+  private final CountDownLatch release = new CountDownLatch(1);
+  private VirtualThreadSecureStore store;
+
+  @BeforeEach
+  void setUp() {
+    store = new VirtualThreadSecureStore(new SecureStore(new Properties()) {
+      @Override
+      public String get(String clientId, String tenant, String username) throws NotFoundException {
+        lookups.incrementAndGet();
+        if (Thread.currentThread().isVirtual()) {
+          virtualLookups.incrementAndGet();
+        }
+        try {
+          release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        if ("broken".equals(username)) {
+          throw new LinkageError("Broken driver");
+        }
+        if ("unknown".equals(username)) {
+          throw new NotFoundException("Not found: " + username);
+        }
+        return username + "-password";
+      }
+    }, 60_000, 10);
+  }
+
+  @Test
+  void testPrefetchLooksUpOnVirtualThread(Vertx vertx, VertxTestContext context) {
+    logger.info("=== Test concurrent prefetches share a lookup on a virtual thread ===");
+
+    vertx.runOnContext(v -> {
+      final Future<Void> first = store.prefetch("salt", "diku", "diku");
+      final Future<Void> second = store.prefetch("salt", "diku", "diku");
+      release.countDown();
+      Future.all(List.of(first, second))
+        .onComplete(context.succeeding(f -> context.verify(() -> {
+          assertNotNull(Vertx.currentContext());
+          assertEquals("diku-password", store.get("salt", "diku", "diku"));
+          assertEquals(1, lookups.get());
+          assertEquals(1, virtualLookups.get());
+          assertEquals(0, store.getBlockingLookupCount());
+          context.completeNow();
+        })));
+    });
+  }
+
+  @Test
+  void testNotFoundIsRethrown(VertxTestContext context) {
+    logger.info("=== Test a failed prefetch is rethrown by get ===");
+
+    release.countDown();
+    store.prefetch("salt", "diku", "unknown")
+      .onComplete(context.succeeding(v -> context.verify(() -> {
+        assertThrows(NotFoundException.class, () -> store.get("salt", "diku", "unknown"));
+        assertThrows(NotFoundException.class, () -> store.get("salt", "diku", "unknown"));
+        assertEquals(1, lookups.get());
+        context.completeNow();
+      })));
+  }
+
+  @Test
+  void testErrorCompletesPrefetch(VertxTestContext context) {
+    logger.info("=== Test a lookup failing with an error still completes the prefetch ===");
+
+    release.countDown();
+    store.prefetch("salt", "diku", "broken")
+      .compose(v -> store.prefetch("salt", "diku", "broken"))
+      .onComplete(context.succeeding(v -> context.verify(() -> {
+        assertEquals(2, lookups.get());
+        assertThrows(LinkageError.class, () -> store.get("salt", "diku", "broken"));
+        context.completeNow();
+      })));
+  }
+
+  @Test
+  void testGetWithoutPrefetchBlocks() throws Exception {
+    release.countDown();
+
+    assertEquals("diku-password", store.get("salt", "diku", "diku"));
+    assertEquals("diku-password", store.get("salt", "diku", "diku"));
+    assertEquals(1, store.getBlockingLookupCount());
+    assertEquals(0, virtualLookups.get());
+  }
+
+  @Test
+  void testClose(VertxTestContext context) {
+    logger.info("=== Test a closed store looks up credentials itself ===");
+
+    release.countDown();
+    store.close();
+    store.prefetch("salt", "diku", "diku")
+      .onComplete(context.succeeding(v -> context.verify(() -> {
+        assertEquals(0, lookups.get());
+        assertEquals("diku-password", store.get("salt", "diku", "diku"));
+        assertEquals(1, store.getBlockingLookupCount());
+        context.completeNow();
+      })));
+  }
+}